@@ -0,0 +1,669 @@
+package io.peanut.routing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * CompiledHttpRouter is a routing engine that resolves HTTP request paths
+ * against a flattened, array-encoded form of the {@link Node} tree.
+ *
+ * <p>The finished (compressed) tree is serialized once into a few contiguous arrays:
+ * <ul>
+ *   <li>an {@code int[]} table holding fixed-size node records followed by the hash tables of wide nodes,</li>
+ *   <li>a packed {@code byte[]} holding the ISO-8859-1 bytes of every distinct path segment,</li>
+ *   <li>a handler array and a table of the interned parameter names.</li>
+ * </ul>
+ * Node records are laid out in breadth-first order, so the children of every node are stored
+ * next to each other and a child is addressed by plain offset arithmetic. The lookup loop walks
+ * those arrays only, which keeps large route tables cache friendly and leaves the GC a handful
+ * of arrays to scan instead of thousands of objects.
+ *
+ * <p>The lookup loop reads the table and the segment bytes through a {@link Storage}, so the same
+ * traversal also navigates the off-heap copy of {@link OffHeapHttpRouter}.
+ *
+ * <p>Static and parameterized segments are matched with the priority and backtracking of {@link HttpRouter},
+ * but there is no static route table nor result cache, and method specific routes, see
+ * {@link HttpRouterConfiguration#add(HttpMethod, String, Object)}, wildcard routes, constrained parameters
+ * and pattern segments cannot be compiled.
+ *
+ * @param <T> the type of handler associated with the routes
+ * @see HttpRouterFactory#compile(HttpRouterConfiguration)
+ */
+public final class CompiledHttpRouter<T>
+{
+    // Node record layout, one int per field.
+    static final int SEGMENT_OFFSET = 0;
+    static final int SEGMENT_LENGTH = 1;
+    static final int HEAD_LENGTH = 2;
+    static final int HEAD_HASH = 3;
+    static final int FLAGS = 4;
+    static final int HANDLER = 5;
+    static final int PARAMETER_NAMES = 6;
+    static final int PARAMETER_INDEX = 7;
+    static final int FIRST_CHILD = 8;
+    static final int CHILD_COUNT = 9;
+    static final int STATIC_COUNT = 10;
+    static final int LOOKUP_STRATEGY = 11;
+    static final int HASH_TABLE = 12;
+    static final int HASH_MASK = 13;
+    static final int NODE_SIZE = 14;
+
+    static final int PARAMETERIZED_FLAG = 1;
+
+    /**
+     * Value of a reference field (handler, child, hash slot) that points nowhere.
+     */
+    static final int NONE = -1;
+
+    static final int ROOT = 0;
+
+    private final Storage storage;
+    private final Object[] handlers;
+    private final String[][] parameterNames;
+    private final int maxParameterCount;
+
+    private CompiledHttpRouter()
+    {
+        throw new UnsupportedOperationException("Instantiation Restricted");
+    }
+
+    CompiledHttpRouter(HttpRouterConfiguration<T> configuration)
+    {
+        Compiler<T> compiler = new Compiler<>(Node.compress(configuration.freeze()));
+
+        this.storage = new HeapStorage(compiler.table, compiler.segments);
+        this.handlers = compiler.handlers.toArray();
+        this.parameterNames = compiler.parameterNames.toArray(new String[0][]);
+        this.maxParameterCount = configuration.maxParameterCount;
+    }
+
+    /**
+     * Creates a router over an already populated storage, e.g. an off-heap copy of the compiled table.
+     *
+     * @param storage           the compiled node records, hash tables and segment bytes
+     * @param handlers          the handlers, in handler order
+     * @param parameterNames    the interned parameter names, in table order
+     * @param maxParameterCount the parameter count of the deepest parameterized route
+     * @see OffHeapHttpRouter
+     */
+    CompiledHttpRouter(Storage storage, Object[] handlers, String[][] parameterNames, int maxParameterCount)
+    {
+        this.storage = storage;
+        this.handlers = handlers;
+        this.parameterNames = parameterNames;
+        this.maxParameterCount = maxParameterCount;
+    }
+
+    /**
+     * Routes the given request path to a handler.
+     *
+     * @param requestPath the HTTP request path to route (must not be null or empty)
+     * @return a {@link RouteResult} containing the matched handler and parameters
+     * @throws NullPointerException if {@code requestPath} is null
+     * @see HttpRouter#route(String)
+     */
+    public RouteResult<T> route(String requestPath)
+    {
+        Objects.requireNonNull(requestPath, "'requestPath' cannot be null or empty");
+
+        int pathLength = requestPath.length();
+
+        boolean isDelimiterLeading = pathLength > 1 && requestPath.charAt(0) == '/';
+        boolean isDelimiterTrailing = requestPath.charAt(pathLength - 1) == '/';
+
+        int startIndex = isDelimiterLeading ? 1 : 0;
+        int endIndex = isDelimiterTrailing ? pathLength - 1 : pathLength;
+
+        // The search runs once over the match pooled by the thread; only the offsets of a matched route are copied.
+        RouteMatch<T> match = RouteMatch.pooled(this.maxParameterCount);
+        int node = this.search(requestPath, startIndex, endIndex, match);
+        match.release();
+
+        if (node == NONE)
+        {
+            return new RouteResult<>(null, requestPath, Node.EMPTY_PARAMETER_NAMES, null);
+        }
+
+        String[] parameterNames = this.parameterNames(node);
+        int[] parameterOffsets = parameterNames.length != 0 ? Arrays.copyOf(match.parameterOffsets(), parameterNames.length << 1) : null;
+
+        return new RouteResult<>(this.handler(node), requestPath, parameterNames, parameterOffsets);
+    }
+
+    /**
+     * Routes the given request path to a handler, filling the caller-owned {@link RouteMatch}.
+     *
+     * @param requestPath the HTTP request path to route (must not be null or empty)
+     * @param match       the reusable match to fill
+     * @return {@code true} if a handler was found, {@code false} otherwise
+     * @throws NullPointerException if {@code requestPath} or {@code match} is null
+     * @see HttpRouter#route(String, RouteMatch)
+     */
+    public boolean route(String requestPath, RouteMatch<T> match)
+    {
+        Objects.requireNonNull(requestPath, "'requestPath' cannot be null or empty");
+        Objects.requireNonNull(match, "'match' cannot be null");
+
+        match.reset(requestPath);
+
+        int pathLength = requestPath.length();
+
+        boolean isDelimiterLeading = pathLength > 1 && requestPath.charAt(0) == '/';
+        boolean isDelimiterTrailing = requestPath.charAt(pathLength - 1) == '/';
+
+        int startIndex = isDelimiterLeading ? 1 : 0;
+        int endIndex = isDelimiterTrailing ? pathLength - 1 : pathLength;
+
+        int node = this.search(requestPath, startIndex, endIndex, match);
+
+        if (node == NONE)
+        {
+            match.reset(requestPath);
+            return false;
+        }
+
+        match.complete(this.handler(node), this.parameterNames(node));
+        return true;
+    }
+
+    /**
+     * Searches the flat tree depth-first for the {@code [startIndex, endIndex)} region of the request path,
+     * capturing the parameters into the match.
+     *
+     * <p>Follows the same priority and backtracking as {@code HttpRouter}: the static child is tried before
+     * the parameterized one, and a node is pushed to the backtracking stack of the match only when its static
+     * child is taken while it also has a parameterized one.
+     *
+     * @param requestPath the HTTP request path to route
+     * @param startIndex start index (inclusive) of the path without the leading delimiter
+     * @param endIndex end index (exclusive) of the path without the trailing delimiter
+     * @param match the match receiving the captured parameters and providing the backtracking stack
+     * @return record offset of the node of the matched route, or {@link #NONE} if there is none
+     */
+    private int search(String requestPath, int startIndex, int endIndex, RouteMatch<T> match)
+    {
+        int current = ROOT;
+        int sOffset = startIndex;
+        boolean isStaticTried = false;
+        int depth = 0;
+
+        while (true)
+        {
+            int segmentEnd = Node.indexOfDelimiter(requestPath, sOffset, endIndex);
+            int eOffset = segmentEnd;
+            int next = NONE;
+
+            if (!isStaticTried)
+            {
+                isStaticTried = true;
+                next = this.chooseStatic(current, sOffset, segmentEnd, requestPath);
+
+                if (next != NONE && (eOffset = this.matchTail(next, requestPath, segmentEnd, endIndex)) == -1)
+                {
+                    next = NONE;
+                }
+
+                if (next != NONE && eOffset != endIndex && this.parameterized(current) != NONE)
+                {
+                    match.push(depth++, null, (long) current << 32 | sOffset);
+                }
+            }
+
+            if (next == NONE)
+            {
+                next = this.parameterized(current);
+                eOffset = segmentEnd;
+                // The parameterized child is the last alternative of the node.
+                current = NONE;
+
+                if (next != NONE)
+                {
+                    match.capture(this.storage.read(next + PARAMETER_INDEX), sOffset, eOffset);
+                }
+            }
+
+            if (next != NONE && eOffset == endIndex && this.storage.read(next + HANDLER) != NONE)
+            {
+                return next;
+            }
+
+            if (next == NONE || eOffset == endIndex)
+            {
+                if (current != NONE)
+                {
+                    // The static branch consumed the whole path without reaching a route, try the parameterized child.
+                    continue;
+                }
+
+                if (depth == 0)
+                {
+                    return NONE;
+                }
+
+                long state = match.backtrackState(--depth);
+                current = (int) (state >>> 32);
+                sOffset = (int) state;
+                isStaticTried = true;
+                continue;
+            }
+
+            current = next;
+            sOffset = eOffset + 1;
+            isStaticTried = false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T handler(int node)
+    {
+        int handler = this.storage.read(node + HANDLER);
+        return handler != NONE ? (T) this.handlers[handler] : null;
+    }
+
+    private String[] parameterNames(int node)
+    {
+        return this.parameterNames[this.storage.read(node + PARAMETER_NAMES)];
+    }
+
+    /**
+     * Finds the record of the static child node matching the specified segment of the path.
+     *
+     * @param node         record offset of the parent node
+     * @param startOffset  start index (inclusive) of the path segment in {@code targetPath}
+     * @param endOffset    end index (exclusive) of the path segment in {@code targetPath}
+     * @param targetPath   full path from which to extract the segment
+     * @return record offset of the matching static child, or {@link #NONE} if no match is found
+     * @see NodeChooser#chooseStatic(Node, int, int, String)
+     */
+    private int chooseStatic(int node, int startOffset, int endOffset, String targetPath)
+    {
+        if (this.storage.read(node + CHILD_COUNT) == 0)
+        {
+            return NONE;
+        }
+
+        int firstChild = this.storage.read(node + FIRST_CHILD);
+        int staticCount = this.storage.read(node + STATIC_COUNT);
+
+        return switch (this.storage.read(node + LOOKUP_STRATEGY))
+        {
+            case NodeChooser.HASH_SEARCH -> this.hashSearch(node, startOffset, endOffset, targetPath);
+            case NodeChooser.BINARY_SEARCH -> this.binarySearch(firstChild, staticCount, startOffset, endOffset, targetPath);
+            default -> this.linearSearch(firstChild, staticCount, startOffset, endOffset, targetPath);
+        };
+    }
+
+    /**
+     * @param node record offset of the parent node
+     * @return record offset of the parameterized child, or {@link #NONE} if there is none
+     */
+    private int parameterized(int node)
+    {
+        int staticCount = this.storage.read(node + STATIC_COUNT);
+
+        // Parameterized child is stored right after the static ones.
+        return staticCount != this.storage.read(node + CHILD_COUNT) ? this.storage.read(node + FIRST_CHILD) + staticCount * NODE_SIZE : NONE;
+    }
+
+    private int linearSearch(int firstChild, int staticCount, int startOffset, int endOffset, String targetPath)
+    {
+        int segmentLength = endOffset - startOffset;
+
+        for (int child = firstChild, limit = firstChild + staticCount * NODE_SIZE; child < limit; child += NODE_SIZE)
+        {
+            if (this.storage.read(child + HEAD_LENGTH) == segmentLength && this.regionMatches(child, 0, targetPath, startOffset, segmentLength))
+            {
+                return child;
+            }
+        }
+
+        return NONE;
+    }
+
+    private int binarySearch(int firstChild, int staticCount, int startOffset, int endOffset, String targetPath)
+    {
+        int low = 0;
+        int high = staticCount - 1;
+
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            int child = firstChild + middle * NODE_SIZE;
+            int comparison = this.compareHead(child, targetPath, startOffset, endOffset);
+
+            if (comparison < 0)
+            {
+                low = middle + 1;
+            } else if (comparison > 0)
+            {
+                high = middle - 1;
+            } else
+            {
+                return child;
+            }
+        }
+
+        return NONE;
+    }
+
+    private int hashSearch(int node, int startOffset, int endOffset, String targetPath)
+    {
+        int segmentLength = endOffset - startOffset;
+        int hash = Node.hashRegion(targetPath, startOffset, endOffset);
+
+        int hashTable = this.storage.read(node + HASH_TABLE);
+        int mask = this.storage.read(node + HASH_MASK);
+
+        for (int slot = (hash ^ (hash >>> 16)) & mask; ; slot = (slot + 1) & mask)
+        {
+            int child = this.storage.read(hashTable + slot);
+
+            if (child == NONE)
+            {
+                return NONE;
+            }
+
+            if (this.storage.read(child + HEAD_HASH) == hash && this.storage.read(child + HEAD_LENGTH) == segmentLength
+                    && this.regionMatches(child, 0, targetPath, startOffset, segmentLength))
+            {
+                return child;
+            }
+        }
+    }
+
+    /**
+     * Matches the tail of a compressed edge right after the region matched by its head.
+     *
+     * @see NodeChooser#matchTail(Node, String, int, int)
+     */
+    private int matchTail(int node, String targetPath, int endOffset, int endIndex)
+    {
+        int headLength = this.storage.read(node + HEAD_LENGTH);
+        int tailLength = this.storage.read(node + SEGMENT_LENGTH) - headLength;
+
+        if (tailLength == 0)
+        {
+            return endOffset;
+        }
+
+        int tailEndOffset = endOffset + tailLength;
+
+        if (tailEndOffset > endIndex || !this.regionMatches(node, headLength, targetPath, endOffset, tailLength))
+        {
+            return -1;
+        }
+
+        return tailEndOffset == endIndex || targetPath.charAt(tailEndOffset) == '/' ? tailEndOffset : -1;
+    }
+
+    private boolean regionMatches(int node, int segmentOffset, String targetPath, int startOffset, int length)
+    {
+        Storage storage = this.storage;
+        int offset = storage.read(node + SEGMENT_OFFSET) + segmentOffset;
+
+        for (int index = 0; index < length; index++)
+        {
+            if (storage.segment(offset + index) != targetPath.charAt(startOffset + index))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int compareHead(int node, String targetPath, int startOffset, int endOffset)
+    {
+        Storage storage = this.storage;
+        int offset = storage.read(node + SEGMENT_OFFSET);
+        int headLength = this.storage.read(node + HEAD_LENGTH);
+        int regionLength = endOffset - startOffset;
+        int limit = Math.min(headLength, regionLength);
+
+        for (int index = 0; index < limit; index++)
+        {
+            int difference = storage.segment(offset + index) - targetPath.charAt(startOffset + index);
+            if (difference != 0)
+            {
+                return difference;
+            }
+        }
+
+        return headLength - regionLength;
+    }
+
+    /**
+     * @return the number of bytes of the node records, hash tables and segment bytes
+     */
+    long storageSize()
+    {
+        return this.storage.size();
+    }
+
+    /**
+     * Read-only access to the node records, the hash tables and the segment bytes produced by the {@link Compiler}.
+     *
+     * <p>Records are addressed the same way whatever the storage, by the index of an int of the table,
+     * and segment bytes by their offset from the first segment byte.
+     */
+    abstract static class Storage
+    {
+        /**
+         * @param index the index of an int of the table, i.e. a record offset plus a field offset, or a hash slot
+         * @return the int at the index
+         */
+        abstract int read(int index);
+
+        /**
+         * @param offset the offset of a byte from the first segment byte
+         * @return the segment byte at the offset, as an ISO-8859-1 character
+         */
+        abstract int segment(int offset);
+
+        /**
+         * @return the number of bytes of the table and of the segment bytes
+         */
+        abstract long size();
+    }
+
+    /**
+     * Storage backed by the arrays of the {@link Compiler}.
+     */
+    static final class HeapStorage extends Storage
+    {
+        private final int[] table;
+        private final byte[] segments;
+
+        HeapStorage(int[] table, byte[] segments)
+        {
+            this.table = table;
+            this.segments = segments;
+        }
+
+        @Override
+        int read(int index)
+        {
+            return this.table[index];
+        }
+
+        @Override
+        int segment(int offset)
+        {
+            return this.segments[offset] & 0xFF;
+        }
+
+        @Override
+        long size()
+        {
+            return ((long) this.table.length << 2) + this.segments.length;
+        }
+    }
+
+    /**
+     * Serializes a compressed {@link Node} tree into the flat arrays.
+     *
+     * @param <T> the type of handler associated with the routes
+     */
+    static final class Compiler<T>
+    {
+        final List<Object> handlers = new ArrayList<>();
+        /**
+         * Route pattern of every handler, e.g. {@code /user/:id/profile}, in handler order.
+         */
+        final List<String> routes = new ArrayList<>();
+        final List<String[]> parameterNames = new ArrayList<>();
+        private final Map<String[], Integer> parameterNamesIndex = new IdentityHashMap<>();
+        private final Map<String, Integer> segmentsIndex = new HashMap<>();
+
+        int[] table;
+        byte[] segments = new byte[64];
+        private int segmentsLength;
+
+        Compiler(Node<T> root)
+        {
+            // Breadth-first order places the children of every node next to each other.
+            List<Node<T>> nodes = new ArrayList<>();
+            List<String> patterns = new ArrayList<>();
+            nodes.add(root);
+            patterns.add("");
+            for (int index = 0; index < nodes.size(); index++)
+            {
+                for (Node<T> child : nodes.get(index).children)
+                {
+                    nodes.add(child);
+                    patterns.add(patterns.get(index) + (child.isParameterized ? "/:" : "/") + child.pathSegment);
+                }
+            }
+
+            int hashTablesLength = 0;
+            for (Node<T> node : nodes)
+            {
+                if (node.hashedChildren != null)
+                {
+                    hashTablesLength += node.hashedChildren.length;
+                }
+            }
+
+            this.table = new int[nodes.size() * NODE_SIZE + hashTablesLength];
+
+            int nextChild = NODE_SIZE;
+            int nextHashTable = nodes.size() * NODE_SIZE;
+
+            for (int index = 0; index < nodes.size(); index++)
+            {
+                Node<T> node = nodes.get(index);
+                int record = index * NODE_SIZE;
+
+                if (node.methodHandlers != null)
+                {
+                    // The flat layout has a single handler slot per node, method dispatch is left to HttpRouter.
+                    throw new IllegalArgumentException("Unable to compile method specific route '" + patterns.get(index) + "'");
+                }
+
+                if (node.constraint != null)
+                {
+                    throw new IllegalArgumentException("Unable to compile constrained route '" + patterns.get(index) + node.constraint + "'");
+                }
+
+                if (node.patternChildren.length != 0)
+                {
+                    throw new IllegalArgumentException("Unable to compile pattern route '" + patterns.get(index) + "/" + node.patternChildren[0].pathSegment + "'");
+                }
+
+                if (node.wildcard != null)
+                {
+                    throw new IllegalArgumentException("Unable to compile wildcard route '" + patterns.get(index) + "/*" + node.wildcard.pathSegment + "'");
+                }
+
+                this.table[record + SEGMENT_OFFSET] = this.segment(node.pathSegment);
+                this.table[record + SEGMENT_LENGTH] = node.pathSegment.length();
+                this.table[record + HEAD_LENGTH] = node.headLength;
+                this.table[record + HEAD_HASH] = node.headHash;
+                this.table[record + FLAGS] = node.isParameterized ? PARAMETERIZED_FLAG : 0;
+                this.table[record + HANDLER] = this.handler(node.handler, patterns.get(index));
+                this.table[record + PARAMETER_NAMES] = this.parameterNames(node.parameterNames);
+                this.table[record + PARAMETER_INDEX] = node.isParameterized ? node.parameterNames.length - 1 : NONE;
+                this.table[record + FIRST_CHILD] = nextChild;
+                this.table[record + CHILD_COUNT] = node.children.length;
+                this.table[record + STATIC_COUNT] = NodeChooser.countStatic(node.children);
+                this.table[record + LOOKUP_STRATEGY] = node.lookupStrategy;
+                this.table[record + HASH_TABLE] = NONE;
+                this.table[record + HASH_MASK] = 0;
+
+                if (node.hashedChildren != null)
+                {
+                    this.table[record + HASH_TABLE] = nextHashTable;
+                    this.table[record + HASH_MASK] = node.hashedChildren.length - 1;
+
+                    Map<Node<T>, Integer> childRecords = new IdentityHashMap<>();
+                    for (int offset = 0; offset < node.children.length; offset++)
+                    {
+                        childRecords.put(node.children[offset], nextChild + offset * NODE_SIZE);
+                    }
+
+                    for (Node<T> slot : node.hashedChildren)
+                    {
+                        this.table[nextHashTable++] = slot != null ? childRecords.get(slot) : NONE;
+                    }
+                }
+
+                nextChild += node.children.length * NODE_SIZE;
+            }
+
+            this.segments = Arrays.copyOf(this.segments, this.segmentsLength);
+        }
+
+        private int segment(String pathSegment)
+        {
+            Integer existing = this.segmentsIndex.get(pathSegment);
+            if (existing != null)
+            {
+                return existing;
+            }
+
+            if (!StandardCharsets.ISO_8859_1.newEncoder().canEncode(pathSegment))
+            {
+                throw new IllegalArgumentException("Unable to compile non ISO-8859-1 path segment '" + pathSegment + "'");
+            }
+
+            byte[] bytes = pathSegment.getBytes(StandardCharsets.ISO_8859_1);
+            if (this.segmentsLength + bytes.length > this.segments.length)
+            {
+                this.segments = Arrays.copyOf(this.segments, Math.max(this.segments.length << 1, this.segmentsLength + bytes.length));
+            }
+
+            int offset = this.segmentsLength;
+            System.arraycopy(bytes, 0, this.segments, offset, bytes.length);
+            this.segmentsLength += bytes.length;
+
+            this.segmentsIndex.put(pathSegment, offset);
+            return offset;
+        }
+
+        private int handler(T handler, String route)
+        {
+            if (handler == null)
+            {
+                return NONE;
+            }
+
+            this.handlers.add(handler);
+            this.routes.add(route);
+            return this.handlers.size() - 1;
+        }
+
+        private int parameterNames(String[] names)
+        {
+            return this.parameterNamesIndex.computeIfAbsent(names, key -> {
+                this.parameterNames.add(key);
+                return this.parameterNames.size() - 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.peanut.routing;
+
+/**
+ * Standard HTTP request methods, see RFC 9110 and RFC 5789.
+ *
+ * <p>Routes registered with a method are resolved by the method ordinal,
+ * so method dispatch costs a single array load once the path is matched.
+ *
+ * @see HttpRouterConfiguration#add(HttpMethod, String, Object)
+ * @see HttpRouter#route(HttpMethod, String)
+ */
+public enum HttpMethod
+{
+    GET,
+    HEAD,
+    POST,
+    PUT,
+    DELETE,
+    CONNECT,
+    OPTIONS,
+    TRACE,
+    PATCH;
+
+    private static final HttpMethod[] VALUES = HttpMethod.values();
+
+    /**
+     * Resolves the method of the given ordinal without copying the values array.
+     *
+     * @param ordinal the method ordinal
+     * @return the method
+     * @throws ArrayIndexOutOfBoundsException if {@code ordinal} is out of range
+     */
+    static HttpMethod of(int ordinal)
+    {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * @return the number of methods, i.e. the length of a method-indexed table
+     */
+    static int count()
+    {
+        return VALUES.length;
+    }
+}
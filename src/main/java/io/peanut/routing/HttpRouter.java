@@ -1,6 +1,10 @@
 package io.peanut.routing;
 
-import java.util.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * HttpRouter is a routing engine that matches HTTP request paths
@@ -12,14 +16,35 @@ import java.util.*;
  *
  * <p>Routing is performed by splitting the request path into segments
  * by '/' delimiter and traversing the tree to find the best match.
- * If a parameterized segment is matched, the parameter value is extracted
- * and returned as part of the {@link RouteResult}.
+ * Chains of static segments without handlers are compressed into single
+ * multi-segment edges when the router is created, see {@link Node#compress(Node)}, and structurally
+ * equal subtrees may be shared, see {@link HttpRouterConfiguration#shareSubtrees(boolean)}.
+ * Fully static routes are additionally resolved with a single hash probe over
+ * the whole path before walking the tree, see {@link StaticRouteTable}. Other lookups may be
+ * served by an opt-in bounded result cache, see {@link HttpRouterConfiguration#resultCache(int)}.
+ * If a parameterized segment is matched, the parameter value offsets are recorded
+ * and returned as part of the {@link RouteResult}. If the walk misses, the path falls back to the
+ * deepest wildcard seen on the way, which captures the rest of the path as a single parameter.
+ *
+ * <p>Routes may be registered for a specific {@link HttpMethod}. The path is matched first, then the
+ * handler is picked from the method table of the matched node, see {@link #route(HttpMethod, String)}.
  *
  * @param <T> the type of handler associated with the routes
  */
 public final class HttpRouter<T>
 {
+    // Next alternative to try from a node of a backtracking search, in priority order.
+    // PATTERN + i stands for the i-th pattern child, tried between the static and the parameterized children.
+    private static final int STATIC = 0;
+    private static final int PARAMETERIZED = 1;
+    private static final int WILDCARD = 2;
+    private static final int EXHAUSTED = 3;
+    private static final int PATTERN = 4;
+
     private final Node<T> root;
+    private final StaticRouteTable<T> staticRoutes;
+    private final RouteResultCache<T> resultCache;
+    private final int maxParameterCount;
 
     private HttpRouter()
     {
@@ -30,7 +55,30 @@ public final class HttpRouter<T>
     {
         // In the future, with new parameters or configuration options,
         // this should be expanded to properly initialize all necessary state.
-        this.root = configuration.root;
+        this.root = Node.compress(configuration.freeze(), configuration.shareSubtrees);
+        this.staticRoutes = StaticRouteTable.of(this.root);
+        this.resultCache = configuration.resultCacheCapacity > 0 ? new RouteResultCache<>(configuration.resultCacheCapacity) : null;
+        this.maxParameterCount = configuration.maxParameterCount;
+    }
+
+    /**
+     * Creates a snapshot derived from another router by an incremental update.
+     *
+     * <p>The {@link StaticRouteTable} of a derived snapshot is the one of the original router with the entry
+     * of the updated route replaced, see {@link StaticRouteTable#with(StaticRouteTable, Node, String)}.
+     * The result cache, if enabled, starts empty with the same capacity.
+     *
+     * @param root the root of the updated compressed tree
+     * @param staticRoutes the static routes of the updated tree, may be null
+     * @param resultCache the result cache of the original router, may be null
+     * @param maxParameterCount an upper bound of the parameter count of the deepest parameterized route
+     */
+    private HttpRouter(Node<T> root, StaticRouteTable<T> staticRoutes, RouteResultCache<T> resultCache, int maxParameterCount)
+    {
+        this.root = root;
+        this.staticRoutes = staticRoutes;
+        this.resultCache = resultCache != null ? new RouteResultCache<>(resultCache.capacity()) : null;
+        this.maxParameterCount = maxParameterCount;
     }
 
     /**
@@ -38,10 +86,11 @@ public final class HttpRouter<T>
      *
      * <p>The path is split by '/' into segments, and the routing tree is
      * traversed to find a matching route. If a parameterized segment is matched,
-     * its value is extracted into the returned {@link RouteResult}.
+     * its offsets are recorded in the returned {@link RouteResult} and the value
+     * is extracted only when the parameter is requested.
      *
      * <p>If no matching route is found, the handler in {@link RouteResult}
-     * will be {@code null} and parameters map may be empty or partially populated.
+     * will be {@code null} and parameters map will be empty.
      *
      * @param requestPath the HTTP request path to route (must not be null or empty)
      * @return a {@link RouteResult} containing the matched handler and parameters
@@ -51,7 +100,63 @@ public final class HttpRouter<T>
     {
         Objects.requireNonNull(requestPath, "'requestPath' cannot be null or empty");
 
-        Node<T> current = this.root;
+        int pathLength = requestPath.length();
+
+        boolean isDelimiterLeading = pathLength > 1 && requestPath.charAt(0) == '/';
+        boolean isDelimiterTrailing = requestPath.charAt(pathLength - 1) == '/';
+
+        int startIndex = isDelimiterLeading ? 1 : 0;
+        int endIndex = isDelimiterTrailing ? pathLength - 1 : pathLength;
+
+        if (this.staticRoutes != null)
+        {
+            RouteResult<T> staticResult = this.staticRoutes.find(requestPath, startIndex, endIndex);
+            if (staticResult != null)
+            {
+                return staticResult;
+            }
+        }
+
+        if (this.resultCache == null)
+        {
+            return this.resolve(null, requestPath, startIndex, endIndex);
+        }
+
+        RouteResult<T> routeResult = this.resultCache.get(requestPath);
+
+        if (routeResult == null)
+        {
+            routeResult = this.resolve(null, requestPath, startIndex, endIndex);
+
+            // Misses are not cached, so unknown paths cannot flush the hot routes out of the cache.
+            if (routeResult.getHandler() != null)
+            {
+                this.resultCache.put(requestPath, routeResult);
+            }
+        }
+
+        return routeResult;
+    }
+
+    /**
+     * Routes the given request method and path to a handler.
+     *
+     * <p>The path is matched the same way as by {@link #route(String)}. The handler registered for the
+     * method on the matched route is picked if there is one, otherwise the route's method agnostic handler.
+     * If the route has neither, but has handlers for other methods, the result reports the allowed
+     * methods, see {@link RouteResult#isMethodNotAllowed()}.
+     *
+     * <p>The result cache is not consulted, as it is keyed by the path only.
+     *
+     * @param method the HTTP request method
+     * @param requestPath the HTTP request path to route (must not be null or empty)
+     * @return a {@link RouteResult} containing the matched handler and parameters
+     * @throws NullPointerException if {@code method} or {@code requestPath} is null
+     */
+    public RouteResult<T> route(HttpMethod method, String requestPath)
+    {
+        Objects.requireNonNull(method, "'method' cannot be null");
+        Objects.requireNonNull(requestPath, "'requestPath' cannot be null or empty");
 
         int pathLength = requestPath.length();
 
@@ -61,46 +166,763 @@ public final class HttpRouter<T>
         int startIndex = isDelimiterLeading ? 1 : 0;
         int endIndex = isDelimiterTrailing ? pathLength - 1 : pathLength;
 
-        RouteResult<T> routeResult = null;
-        Map<String, String> parameters = Collections.emptyMap();
+        if (this.staticRoutes != null)
+        {
+            RouteResult<T> staticResult = this.staticRoutes.find(method, requestPath, startIndex, endIndex);
+            if (staticResult != null)
+            {
+                return staticResult;
+            }
+        }
+
+        return this.resolve(method, requestPath, startIndex, endIndex);
+    }
+
+    /**
+     * Searches the routing tree for the {@code [startIndex, endIndex)} region of the request path.
+     *
+     * <p>The search runs once, see {@link #route(String, RouteMatch)}, with the backtracking stack and the
+     * parameter offsets of the match pooled by the current thread, see {@link RouteMatch#pooled(int)}; only
+     * the offsets of a matched parameterized route are copied into the result.
+     *
+     * @param method the HTTP request method, or {@code null} to resolve method agnostic handlers only
+     * @param requestPath the HTTP request path to route
+     * @param startIndex start index (inclusive) of the path without the leading delimiter
+     * @param endIndex end index (exclusive) of the path without the trailing delimiter
+     * @return a {@link RouteResult} containing the matched handler and parameters
+     */
+    private RouteResult<T> resolve(HttpMethod method, String requestPath, int startIndex, int endIndex)
+    {
+        RouteMatch<T> match = RouteMatch.pooled(this.maxParameterCount);
+        Node<T> node = this.search(method, requestPath, startIndex, endIndex, match);
+        match.release();
 
-        for (int sOffset = startIndex, eOffset = Node.indexOfDelimiter(requestPath, sOffset, endIndex);
-             sOffset <= endIndex;
-             sOffset = eOffset + 1, eOffset = Node.indexOfDelimiter(requestPath, sOffset, endIndex))
+        if (node == null)
         {
-            Node<T> next = NodeChooser.choose(current.children, sOffset, eOffset, requestPath);
+            return new RouteResult<>(null, requestPath, Node.EMPTY_PARAMETER_NAMES, null);
+        }
+
+        int parameterCount = node.parameterNames.length;
+        int[] parameterOffsets = parameterCount != 0 ? Arrays.copyOf(match.parameterOffsets(), parameterCount << 1) : null;
+
+        return this.result(method, node, requestPath, parameterOffsets);
+    }
+
+    /**
+     * Creates the result of a lookup that matched the node.
+     *
+     * @param method the HTTP request method, or {@code null} to resolve the method agnostic handler only
+     * @param node the matched node
+     * @param requestPath the HTTP request path
+     * @param parameterOffsets the offsets of the captured parameters, may be null if there are none
+     * @return the result, reporting the allowed methods if the node has no handler for the method
+     */
+    private RouteResult<T> result(HttpMethod method, Node<T> node, String requestPath, int[] parameterOffsets)
+    {
+        T handler = node.handler(method);
+        Set<HttpMethod> allowedMethods = handler == null && method != null ? node.allowedMethods : null;
+
+        if (RouteMetrics.IS_ENABLED)
+        {
+            RouteMetrics.record(node, handler);
+        }
+
+        return new RouteResult<>(handler, requestPath, node.parameterNames, parameterOffsets, allowedMethods);
+    }
+
+    /**
+     * Searches the routing tree for the {@code [startIndex, endIndex)} region of the request path,
+     * see {@link #search(HttpMethod, Object, PathReader, int, int, int, RouteMatch)}.
+     *
+     * @param method the HTTP request method, or {@code null} to resolve method agnostic handlers only
+     * @param requestPath the HTTP request path to route
+     * @param startIndex start index (inclusive) of the path without the leading delimiter
+     * @param endIndex end index (exclusive) of the path without the trailing delimiter
+     * @param match the match receiving the captured parameters and providing the backtracking stack
+     * @return the node of the matched route, or {@code null} if there is none
+     */
+    private Node<T> search(HttpMethod method, String requestPath, int startIndex, int endIndex, RouteMatch<T> match)
+    {
+        return this.search(method, requestPath, PathReader.STRING, startIndex, endIndex, 0, match);
+    }
+
+    /**
+     * Byte-level counterpart of {@link #search(HttpMethod, String, int, int, RouteMatch)}, every byte being read
+     * as an ISO-8859-1 character, resolving method agnostic handlers only.
+     *
+     * @param requestPath the bytes containing the request path
+     * @param startIndex start index (inclusive) of the path without the leading delimiter
+     * @param endIndex end index (exclusive) of the path without the trailing delimiter
+     * @param shift the value subtracted from the captured offsets, mapping them back to the caller's buffer
+     * @param match the match receiving the captured parameters and providing the backtracking stack
+     * @return the node of the matched route, or {@code null} if there is none
+     */
+    private Node<T> search(byte[] requestPath, int startIndex, int endIndex, int shift, RouteMatch<T> match)
+    {
+        return this.search(null, requestPath, PathReader.BYTES, startIndex, endIndex, shift, match);
+    }
+
+    /**
+     * Searches the routing tree depth-first for the {@code [startIndex, endIndex)} region of the request path,
+     * capturing the parameters into the match.
+     *
+     * <p>The children of a node are tried in priority order: the static child matching the segment, then the
+     * pattern children, then the parameterized child, then the wildcard. A node is pushed to the backtracking stack of the match only when
+     * a branch is taken from it while an alternative remains, and popped when that branch does not lead
+     * to a route, so unambiguous paths are matched in a single pass. The search never recurses and never
+     * allocates once the stack of the match has grown, and every node is entered at most once per lookup.
+     *
+     * <p>The segments are read by the reader of the path type, so the same state machine serves
+     * {@link String} paths and raw bytes.
+     *
+     * <p>Without a request method, only a node with a method agnostic handler ends the search: a route
+     * having method specific handlers only is passed over like a node without handlers, so that a
+     * parameterized or wildcard sibling may match the path instead.
+     *
+     * @param method the HTTP request method, or {@code null} to resolve method agnostic handlers only
+     * @param requestPath the HTTP request path to route
+     * @param reader the segment operations of the path type
+     * @param startIndex start index (inclusive) of the path without the leading delimiter
+     * @param endIndex end index (exclusive) of the path without the trailing delimiter
+     * @param shift the value subtracted from the captured offsets, mapping them back to the caller's buffer
+     * @param match the match receiving the captured parameters and providing the backtracking stack
+     * @return the node of the matched route, or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    private <P> Node<T> search(HttpMethod method, P requestPath, PathReader<P> reader, int startIndex, int endIndex, int shift, RouteMatch<T> match)
+    {
+        Node<T> current = this.root;
+        int sOffset = startIndex;
+        int alternative = STATIC;
+        int depth = 0;
 
-            if (Objects.nonNull(next))
+        // Deepest node entered, to which a miss is attributed, only tracked if instrumentation is enabled.
+        Node<T> deepest = this.root;
+        int deepestOffset = startIndex;
+
+        while (true)
+        {
+            int segmentEnd = reader.indexOfDelimiter(requestPath, sOffset, endIndex);
+            int eOffset = segmentEnd;
+            Node<T> next = null;
+
+            if (alternative == STATIC)
+            {
+                alternative = current.patternChildren.length != 0 ? PATTERN : PARAMETERIZED;
+                next = reader.chooseStatic(current, sOffset, segmentEnd, requestPath);
+
+                if (next != null && (eOffset = reader.matchTail(next, requestPath, segmentEnd, endIndex)) == -1)
+                {
+                    next = null;
+                }
+            }
+
+            while (next == null && alternative >= PATTERN)
+            {
+                Node<T> pattern = current.patternChildren[alternative - PATTERN];
+                int firstIndex = pattern.parameterNames.length - pattern.segmentPattern.names().length;
+
+                alternative = alternative - PATTERN + 1 < current.patternChildren.length ? alternative + 1 : PARAMETERIZED;
+                eOffset = segmentEnd;
+
+                if (reader.match(pattern.segmentPattern, requestPath, sOffset, segmentEnd, match, firstIndex, shift))
+                {
+                    next = pattern;
+                }
+            }
+
+            if (next == null && alternative == PARAMETERIZED)
+            {
+                alternative = WILDCARD;
+                next = NodeChooser.pickParameterized(current.children);
+                eOffset = segmentEnd;
+
+                if (next != null && !reader.accepts(next, requestPath, sOffset, eOffset))
+                {
+                    next = null;
+                } else if (next != null)
+                {
+                    match.capture(next.parameterNames.length - 1, sOffset - shift, eOffset - shift);
+                }
+            }
+
+            if (next == null && alternative == WILDCARD)
             {
-                if (next.isParameterized)
+                alternative = EXHAUSTED;
+
+                if (current.wildcard != null && HttpRouter.isRoute(current.wildcard, method))
+                {
+                    match.capture(current.wildcard.parameterNames.length - 1, sOffset - shift, endIndex - shift);
+                    return current.wildcard;
+                }
+            }
+
+            if (next == null)
+            {
+                if (depth == 0)
                 {
-                    if (parameters == Collections.EMPTY_MAP)
+                    if (RouteMetrics.IS_ENABLED)
                     {
-                        // Optimistic initial capacity:
-                        // Most route patterns contain no more than 3 parameters (e.g. /users/{id}/posts/{postId}),
-                        // so we preallocate a small map to avoid resizing in common cases.
-                        parameters = new HashMap<>(3);
+                        RouteMetrics.miss(deepest);
                     }
-                    parameters.put(next.pathSegment, requestPath.substring(sOffset, eOffset));
+
+                    return null;
                 }
 
-                boolean isLastPathSegment = (eOffset == endIndex);
+                long state = match.backtrackState(--depth);
+                current = (Node<T>) match.backtrackNode(depth);
+                sOffset = (int) (state >>> 32);
+                alternative = (int) state;
+                continue;
+            }
 
-                if (!isLastPathSegment)
+            if (eOffset == endIndex)
+            {
+                if (HttpRouter.isRoute(next, method))
                 {
-                    current = next;
-                } else
+                    return next;
+                }
+
+                if (RouteMetrics.IS_ENABLED && endIndex + 1 > deepestOffset)
                 {
-                    routeResult = new RouteResult<>(next.handler, parameters);
-                    break;
+                    deepest = next;
+                    deepestOffset = endIndex + 1;
                 }
-            } else
+
+                // The branch consumed the whole path without reaching a route, try the next alternative.
+                continue;
+            }
+
+            if (HttpRouter.hasAlternative(current, alternative))
+            {
+                match.push(depth++, current, (long) sOffset << 32 | alternative);
+            }
+
+            current = next;
+            sOffset = eOffset + 1;
+            alternative = STATIC;
+
+            if (RouteMetrics.IS_ENABLED && sOffset > deepestOffset)
             {
-                routeResult = new RouteResult<>(null, Collections.emptyMap());
-                break;
+                deepest = current;
+                deepestOffset = sOffset;
             }
         }
+    }
 
-        return routeResult;
+    /**
+     * @return {@code true} if the node ends the search: any route if a method is given, otherwise a route with a method agnostic handler
+     */
+    private static <T> boolean isRoute(Node<T> node, HttpMethod method)
+    {
+        return method != null ? node.hasHandlers() : node.handler != null;
+    }
+
+    /**
+     * @return {@code true} if the node has a child left to try once the branch taken before {@code alternative} fails
+     */
+    private static <T> boolean hasAlternative(Node<T> node, int alternative)
+    {
+        if (alternative >= PATTERN)
+        {
+            // The pattern child at alternative - PATTERN is yet to be tried.
+            return true;
+        }
+
+        return switch (alternative)
+        {
+            case PARAMETERIZED -> node.wildcard != null || NodeChooser.pickParameterized(node.children) != null;
+            case WILDCARD -> node.wildcard != null;
+            default -> false;
+        };
+    }
+
+    /**
+     * Routes the given request path to a handler, filling the caller-owned {@link RouteMatch}.
+     *
+     * <p>This is the allocation-free counterpart of {@link #route(String)}: the match is reset
+     * and populated in place, and parameterized segments are recorded as {@code (start, end)}
+     * offsets into {@code requestPath} rather than as substring copies.
+     *
+     * <p>If no matching route is found, the match is left empty, i.e. without a handler
+     * and without parameters. The result cache is not consulted, as filling the match
+     * from the tree is already allocation-free.
+     *
+     * @param requestPath the HTTP request path to route (must not be null or empty)
+     * @param match       the reusable match to fill
+     * @return {@code true} if a handler was found, {@code false} otherwise
+     * @throws NullPointerException if {@code requestPath} or {@code match} is null
+     */
+    public boolean route(String requestPath, RouteMatch<T> match)
+    {
+        Objects.requireNonNull(requestPath, "'requestPath' cannot be null or empty");
+        Objects.requireNonNull(match, "'match' cannot be null");
+
+        match.reset(requestPath);
+
+        int pathLength = requestPath.length();
+
+        boolean isDelimiterLeading = pathLength > 1 && requestPath.charAt(0) == '/';
+        boolean isDelimiterTrailing = requestPath.charAt(pathLength - 1) == '/';
+
+        int startIndex = isDelimiterLeading ? 1 : 0;
+        int endIndex = isDelimiterTrailing ? pathLength - 1 : pathLength;
+
+        if (this.staticRoutes != null)
+        {
+            RouteResult<T> staticResult = this.staticRoutes.find(requestPath, startIndex, endIndex);
+            if (staticResult != null)
+            {
+                match.complete(staticResult.getHandler(), Node.EMPTY_PARAMETER_NAMES);
+                return match.isMatched();
+            }
+        }
+
+        Node<T> node = this.search(null, requestPath, startIndex, endIndex, match);
+        match.release();
+
+        if (RouteMetrics.IS_ENABLED && node != null)
+        {
+            RouteMetrics.record(node, node.handler);
+        }
+
+        if (node == null || node.handler == null)
+        {
+            match.reset(requestPath);
+            return false;
+        }
+
+        match.complete(node.handler, node.parameterNames);
+        return true;
+    }
+
+    /**
+     * Routes the raw request path bytes to a handler, filling the caller-owned {@link RouteMatch}.
+     *
+     * <p>This is the byte-level counterpart of {@link #route(String, RouteMatch)} for front ends that
+     * receive the request target as bytes: segments are matched in place, every byte being read as an
+     * ISO-8859-1 character, so no {@link String} is decoded. Parameters are recorded as
+     * {@code (start, end)} offsets into {@code buffer}.
+     *
+     * @param buffer the bytes containing the request path
+     * @param offset the index of the first byte of the request path
+     * @param length the number of bytes of the request path
+     * @param match  the reusable match to fill
+     * @return {@code true} if a handler was found, {@code false} otherwise
+     * @throws NullPointerException if {@code buffer} or {@code match} is null
+     * @throws IndexOutOfBoundsException if the region is out of the buffer bounds
+     * @throws IllegalArgumentException if {@code length} is zero
+     */
+    public boolean route(byte[] buffer, int offset, int length, RouteMatch<T> match)
+    {
+        Objects.requireNonNull(buffer, "'buffer' cannot be null");
+        Objects.requireNonNull(match, "'match' cannot be null");
+        Objects.checkFromIndexSize(offset, length, buffer.length);
+
+        if (length == 0)
+        {
+            throw new IllegalArgumentException("'length' cannot be zero");
+        }
+
+        return this.resolve(buffer, offset, length, 0, match);
+    }
+
+    /**
+     * Routes the raw request path bytes to a handler, filling the caller-owned {@link RouteMatch}.
+     *
+     * <p>The buffer is read with absolute indexes, so its position and limit are left untouched.
+     * Heap buffers are matched in place; direct buffers are first copied into the scratch storage
+     * of the match, which is retained between lookups. Parameters are recorded as
+     * {@code (start, end)} offsets into {@code buffer} in both cases.
+     *
+     * @param buffer the buffer containing the request path
+     * @param offset the index of the first byte of the request path
+     * @param length the number of bytes of the request path
+     * @param match  the reusable match to fill
+     * @return {@code true} if a handler was found, {@code false} otherwise
+     * @throws NullPointerException if {@code buffer} or {@code match} is null
+     * @throws IndexOutOfBoundsException if the region is out of the buffer limit
+     * @throws IllegalArgumentException if {@code length} is zero
+     * @see #route(byte[], int, int, RouteMatch)
+     */
+    public boolean route(ByteBuffer buffer, int offset, int length, RouteMatch<T> match)
+    {
+        Objects.requireNonNull(buffer, "'buffer' cannot be null");
+        Objects.requireNonNull(match, "'match' cannot be null");
+        Objects.checkFromIndexSize(offset, length, buffer.limit());
+
+        if (length == 0)
+        {
+            throw new IllegalArgumentException("'length' cannot be zero");
+        }
+
+        if (buffer.hasArray())
+        {
+            int arrayOffset = buffer.arrayOffset();
+            return this.resolve(buffer.array(), arrayOffset + offset, length, arrayOffset, match);
+        }
+
+        byte[] scratch = match.scratch(length);
+        buffer.get(offset, scratch, 0, length);
+        return this.resolve(scratch, 0, length, -offset, match);
+    }
+
+    /**
+     * Searches the routing tree for the request path bytes, filling the match.
+     *
+     * @param requestPath the bytes containing the request path
+     * @param offset      the index of the first byte of the request path
+     * @param length      the number of bytes of the request path
+     * @param shift       the value subtracted from the captured offsets, mapping them back to the caller's buffer
+     * @param match       the reusable match to fill
+     * @return {@code true} if a handler was found, {@code false} otherwise
+     */
+    private boolean resolve(byte[] requestPath, int offset, int length, int shift, RouteMatch<T> match)
+    {
+        match.reset(null);
+
+        boolean isDelimiterLeading = length > 1 && requestPath[offset] == '/';
+        boolean isDelimiterTrailing = requestPath[offset + length - 1] == '/';
+
+        int startIndex = isDelimiterLeading ? offset + 1 : offset;
+        int endIndex = isDelimiterTrailing ? offset + length - 1 : offset + length;
+
+        if (this.staticRoutes != null)
+        {
+            RouteResult<T> staticResult = this.staticRoutes.find(requestPath, startIndex, endIndex);
+            if (staticResult != null)
+            {
+                match.complete(staticResult.getHandler(), Node.EMPTY_PARAMETER_NAMES);
+                return match.isMatched();
+            }
+        }
+
+        Node<T> node = this.search(requestPath, startIndex, endIndex, shift, match);
+        match.release();
+
+        if (RouteMetrics.IS_ENABLED && node != null)
+        {
+            RouteMetrics.record(node, node.handler);
+        }
+
+        if (node == null || node.handler == null)
+        {
+            match.reset(null);
+            return false;
+        }
+
+        match.complete(node.handler, node.parameterNames);
+        return true;
+    }
+
+    /**
+     * Returns a new router with the given route added, leaving this router unchanged.
+     *
+     * <p>The new router shares every subtree not on the path of the route with this one, so the update
+     * costs O(depth) nodes rather than a full rebuild. It is meant for frequent incremental updates,
+     * e.g. published through {@link ReloadableHttpRouter#compareAndSet(HttpRouter, HttpRouter)}. The static
+     * route table of this router is copied with only the entry of the route path updated.
+     *
+     * <p>As with {@link HttpRouterConfiguration#add(String, Object)}, the handler of an already
+     * registered route is never replaced. The handler serves every request method the route has no
+     * method specific handler for, see {@link #withRoute(HttpMethod, String, Object)}.
+     *
+     * @param targetPath the route path, e.g. "/user/:id"
+     * @param handler the handler for the route
+     * @return the router with the route, or this router if the route already has a handler
+     * @throws NullPointerException if the path or handler is {@code null}
+     * @throws IllegalArgumentException if the path contains disallowed characters
+     */
+    public HttpRouter<T> withRoute(String targetPath, T handler)
+    {
+        Objects.requireNonNull(targetPath, "'targetPath' cannot be null");
+        Objects.requireNonNull(handler, "'handler' cannot be null");
+
+        return this.insert(null, targetPath, handler);
+    }
+
+    /**
+     * Returns a new router with the given route added for a request method, leaving this router unchanged.
+     *
+     * <p>This is the incremental counterpart of {@link HttpRouterConfiguration#add(HttpMethod, String, Object)}:
+     * the allowed methods of the route are updated accordingly, and the handler of the method is never replaced.
+     *
+     * @param method the request method served by the handler
+     * @param targetPath the route path, e.g. "/user/:id"
+     * @param handler the handler for the route
+     * @return the router with the route, or this router if the route already has a handler for the method
+     * @throws NullPointerException if the method, path or handler is {@code null}
+     * @throws IllegalArgumentException if the path contains disallowed characters
+     * @see #withRoute(String, Object)
+     */
+    public HttpRouter<T> withRoute(HttpMethod method, String targetPath, T handler)
+    {
+        Objects.requireNonNull(method, "'method' cannot be null");
+        Objects.requireNonNull(targetPath, "'targetPath' cannot be null");
+        Objects.requireNonNull(handler, "'handler' cannot be null");
+
+        return this.insert(method, targetPath, handler);
+    }
+
+    /**
+     * Returns a new router without the given route, leaving this router unchanged.
+     *
+     * <p>Parameterized segments match regardless of their names, i.e. {@code /user/:id} removes a route
+     * registered as {@code /user/:user_id}. Routes below the removed one are kept.
+     *
+     * <p>Only the method agnostic handler of the route is removed: handlers registered for a specific
+     * method are kept, and keep serving their methods, until removed by {@link #withoutRoute(HttpMethod, String)}.
+     *
+     * @param targetPath the route path, e.g. "/user/:id"
+     * @return the router without the route, or this router if the route has no method agnostic handler
+     * @throws NullPointerException if the path is {@code null}
+     * @see #withRoute(String, Object)
+     */
+    public HttpRouter<T> withoutRoute(String targetPath)
+    {
+        Objects.requireNonNull(targetPath, "'targetPath' cannot be null");
+
+        return this.remove(null, targetPath);
+    }
+
+    /**
+     * Returns a new router without the handler of the given route for a request method, leaving this router unchanged.
+     *
+     * <p>The other handlers of the route are kept, and the allowed methods of the route are updated accordingly.
+     * The route is removed once it has no handler left.
+     *
+     * @param method the request method of the handler to remove
+     * @param targetPath the route path, e.g. "/user/:id"
+     * @return the router without the handler, or this router if the route has no handler for the method
+     * @throws NullPointerException if the method or path is {@code null}
+     * @see #withoutRoute(String)
+     */
+    public HttpRouter<T> withoutRoute(HttpMethod method, String targetPath)
+    {
+        Objects.requireNonNull(method, "'method' cannot be null");
+        Objects.requireNonNull(targetPath, "'targetPath' cannot be null");
+
+        return this.remove(method, targetPath);
+    }
+
+    /**
+     * Inserts the route into a copy of the tree, see {@link Node#insert(Node, String, int, int, HttpMethod, Object)}.
+     *
+     * @param method the request method served by the handler, or {@code null} for a method agnostic handler
+     * @param targetPath the route path, e.g. "/user/:id"
+     * @param handler the handler for the route
+     * @return the router with the route, or this router if the route already has a handler for the method
+     */
+    private HttpRouter<T> insert(HttpMethod method, String targetPath, T handler)
+    {
+        HttpRouterConfiguration.validatePath(targetPath);
+
+        int pathLength = targetPath.length();
+
+        boolean isDelimiterLeading = pathLength > 1 && targetPath.charAt(0) == '/';
+        boolean isDelimiterTrailing = targetPath.charAt(pathLength - 1) == '/';
+
+        int startIndex = isDelimiterLeading ? 1 : 0;
+        int endIndex = isDelimiterTrailing ? pathLength - 1 : pathLength;
+
+        Node<T> root = Node.insert(this.root, targetPath, startIndex, endIndex, method, handler);
+
+        if (root == this.root)
+        {
+            return this;
+        }
+
+        int maxParameterCount = Math.max(this.maxParameterCount, HttpRouterConfiguration.countParameters(targetPath));
+        return new HttpRouter<>(root, this.staticRoutes(root, targetPath, startIndex, endIndex), this.resultCache, maxParameterCount);
+    }
+
+    /**
+     * Removes the route from a copy of the tree, see {@link Node#remove(Node, String, int, int, HttpMethod, boolean)}.
+     *
+     * @param method the request method of the handler to remove, or {@code null} for the method agnostic handler
+     * @param targetPath the route path, e.g. "/user/:id"
+     * @return the router without the handler, or this router if the route has no such handler
+     */
+    private HttpRouter<T> remove(HttpMethod method, String targetPath)
+    {
+        int pathLength = targetPath.length();
+
+        boolean isDelimiterLeading = pathLength > 1 && targetPath.charAt(0) == '/';
+        boolean isDelimiterTrailing = targetPath.charAt(pathLength - 1) == '/';
+
+        int startIndex = isDelimiterLeading ? 1 : 0;
+        int endIndex = isDelimiterTrailing ? pathLength - 1 : pathLength;
+
+        Node<T> root = Node.remove(this.root, targetPath, startIndex, endIndex, method, true);
+
+        if (root == this.root)
+        {
+            return this;
+        }
+
+        // The parameter count is kept as an upper bound, it only sizes the offsets of a lookup.
+        return new HttpRouter<>(root, this.staticRoutes(root, targetPath, startIndex, endIndex), this.resultCache, this.maxParameterCount);
+    }
+
+    /**
+     * Derives the static routes of the updated tree from the ones of this router.
+     *
+     * @param root the root of the updated tree
+     * @param targetPath the path of the updated route
+     * @param startIndex start index (inclusive) of the path without the leading delimiter
+     * @param endIndex end index (exclusive) of the path without the trailing delimiter
+     * @return the static routes of the updated tree, may be null
+     */
+    private StaticRouteTable<T> staticRoutes(Node<T> root, String targetPath, int startIndex, int endIndex)
+    {
+        return StaticRouteTable.with(this.staticRoutes, root, targetPath.substring(startIndex, endIndex));
+    }
+
+    /**
+     * Walks the routing tree and reports its shape and estimated footprint, see {@link RouterStats}.
+     *
+     * <p>The walk visits every node of the router, so it is meant for diagnostics rather than the request path.
+     *
+     * @return a new footprint snapshot of this router
+     */
+    public RouterStats stats()
+    {
+        return RouterStats.of(this.root, this.staticRoutes);
+    }
+
+    /**
+     * Snapshots the lookup counters of the routes of this router, see {@link RouteMetrics}.
+     *
+     * @return the counters of every route and of every node a lookup failed at,
+     *         or an empty list if instrumentation is disabled
+     */
+    public List<RouteMetrics> metrics()
+    {
+        return RouteMetrics.of(this.root);
+    }
+
+    /**
+     * @return the number of lookups served by the result cache, or {@code 0} if the cache is disabled
+     */
+    public long getCacheHitCount()
+    {
+        return this.resultCache != null ? this.resultCache.hitCount() : 0;
+    }
+
+    /**
+     * @return the number of lookups that missed the result cache, or {@code 0} if the cache is disabled
+     */
+    public long getCacheMissCount()
+    {
+        return this.resultCache != null ? this.resultCache.missCount() : 0;
+    }
+
+    /**
+     * Segment operations of a request path type, dispatching to the {@link String} or {@code byte[]}
+     * overloads of {@link Node}, {@link NodeChooser} and {@link SegmentPattern}.
+     *
+     * @param <P> the type of the request path
+     */
+    private abstract static class PathReader<P>
+    {
+        static final PathReader<String> STRING = new StringReader();
+        static final PathReader<byte[]> BYTES = new ByteReader();
+
+        /**
+         * @see Node#indexOfDelimiter(String, int, int)
+         */
+        abstract int indexOfDelimiter(P path, int startOffset, int endOffset);
+
+        /**
+         * @see NodeChooser#chooseStatic(Node, int, int, String)
+         */
+        abstract <T> Node<T> chooseStatic(Node<T> node, int startOffset, int endOffset, P path);
+
+        /**
+         * @see NodeChooser#matchTail(Node, String, int, int)
+         */
+        abstract <T> int matchTail(Node<T> node, P path, int endOffset, int endIndex);
+
+        /**
+         * @see Node#accepts(String, int, int)
+         */
+        abstract boolean accepts(Node<?> node, P path, int startOffset, int endOffset);
+
+        /**
+         * @see SegmentPattern#match(String, int, int, RouteMatch, int)
+         */
+        abstract boolean match(SegmentPattern pattern, P path, int startOffset, int endOffset, RouteMatch<?> match, int firstIndex, int shift);
+    }
+
+    /**
+     * Reader of request paths given as strings, captured offsets are never shifted.
+     */
+    private static final class StringReader extends PathReader<String>
+    {
+        @Override
+        int indexOfDelimiter(String path, int startOffset, int endOffset)
+        {
+            return Node.indexOfDelimiter(path, startOffset, endOffset);
+        }
+
+        @Override
+        <T> Node<T> chooseStatic(Node<T> node, int startOffset, int endOffset, String path)
+        {
+            return NodeChooser.chooseStatic(node, startOffset, endOffset, path);
+        }
+
+        @Override
+        <T> int matchTail(Node<T> node, String path, int endOffset, int endIndex)
+        {
+            return NodeChooser.matchTail(node, path, endOffset, endIndex);
+        }
+
+        @Override
+        boolean accepts(Node<?> node, String path, int startOffset, int endOffset)
+        {
+            return node.accepts(path, startOffset, endOffset);
+        }
+
+        @Override
+        boolean match(SegmentPattern pattern, String path, int startOffset, int endOffset, RouteMatch<?> match, int firstIndex, int shift)
+        {
+            return pattern.match(path, startOffset, endOffset, match, firstIndex);
+        }
+    }
+
+    /**
+     * Reader of raw request path bytes, every byte being read as an ISO-8859-1 character.
+     */
+    private static final class ByteReader extends PathReader<byte[]>
+    {
+        @Override
+        int indexOfDelimiter(byte[] path, int startOffset, int endOffset)
+        {
+            return Node.indexOfDelimiter(path, startOffset, endOffset);
+        }
+
+        @Override
+        <T> Node<T> chooseStatic(Node<T> node, int startOffset, int endOffset, byte[] path)
+        {
+            return NodeChooser.chooseStatic(node, startOffset, endOffset, path);
+        }
+
+        @Override
+        <T> int matchTail(Node<T> node, byte[] path, int endOffset, int endIndex)
+        {
+            return NodeChooser.matchTail(node, path, endOffset, endIndex);
+        }
+
+        @Override
+        boolean accepts(Node<?> node, byte[] path, int startOffset, int endOffset)
+        {
+            return node.accepts(path, startOffset, endOffset);
+        }
+
+        @Override
+        boolean match(SegmentPattern pattern, byte[] path, int startOffset, int endOffset, RouteMatch<?> match, int firstIndex, int shift)
+        {
+            return pattern.match(path, startOffset, endOffset, match, firstIndex, shift);
+        }
     }
-}
\ No newline at end of file
+}
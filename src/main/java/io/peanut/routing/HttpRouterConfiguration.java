@@ -1,5 +1,8 @@
 package io.peanut.routing;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -45,9 +48,45 @@ import java.util.Objects;
  *       <strong>Only one parameter segment is allowed per level</strong>; defining multiple parameter names under the same
  *       parent path is not allowed.
  *   </li>
+ *
+ *   <li><b>Parameter constraints:</b> A parameter name may be followed by a constraint between angle brackets,
+ *       restricting the segments it matches: <code>:id&lt;int&gt;</code> matches decimal numbers fitting a
+ *       {@code long}, <code>:id&lt;uuid&gt;</code> matches hyphenated UUIDs and <code>:lang&lt;en|de|fr&gt;</code>
+ *       matches one of the listed values only.
+ *       <br>
+ *       A segment rejected by the constraint is not captured, so the path may still match a wildcard of the same level.
+ *       As only one parameter segment is allowed per level, all the routes sharing it must declare the same constraint.
+ *   </li>
+ *
+ *   <li><b>Pattern syntax:</b> A segment mixing literal text and parameters (e.g. <code>:name.json</code>,
+ *       <code>v:version</code>, <code>:w-x:h.png</code>) matches the segments with the same literal text
+ *       and captures every parameter in between. A parameter name is made of letters, digits and underscores, the
+ *       literal following it starts at the first other character, and two parameters must be separated by a literal.
+ *       <br>
+ *       For example, <code>/files/:name.json</code> matches <code>/files/report.json</code> with <code>name = report</code>.
+ *       Several patterns are allowed per level: they are tried after the static segments and before the parameter
+ *       segment, from the one with the longest literal text to the one with the shortest.
+ *   </li>
+ *
+ *   <li><b>Wildcard syntax:</b> A last path segment starting with an asterisk (e.g. <code>*filepath</code>)
+ *       captures the rest of the path, i.e. one or more segments, as a single parameter named after the asterisk.
+ *       The name must not be empty nor contain another asterisk, except for <code>**</code>, which is a shorthand
+ *       for <code>*path</code>.
+ *       <br>
+ *       For example, <code>/static/*filepath</code> matches <code>/static/css/site.css</code> with
+ *       <code>filepath = css/site.css</code>. Static segments take priority over parameters, which take priority over
+ *       wildcards: a wildcard matches only if no more specific route matches the path.
+ *       Only one wildcard is allowed per level, and it must be the last segment of the route.
+ *   </li>
  * </ul>
  *
  * <p>
+ * Routes are registered into a mutable tree with in-place inserts, so adding a route costs O(depth) regardless
+ * of the number of routes already registered. The immutable, lookup-optimized {@link Node} tree is produced
+ * once, in a single pass, when a router is created from the configuration, see {@link #freeze()}.
+ * </p>
+ *
+ * <p>
  * Users should ensure consistent structure in route definitions. Although slashes and empty segments are flexible,
  * careless use may lead to ambiguous or unintended matches.
  * </p>
@@ -57,20 +96,28 @@ import java.util.Objects;
 
 public final class HttpRouterConfiguration<T>
 {
-    Node<T> root = new Node<>(Node.ROOT_CLASSIFIER, false, Node.EMPTY_CHILDREN, null);
+    private final MutableNode<T> root = new MutableNode<>(Node.ROOT_CLASSIFIER, false);
+    private Node<T> frozen;
+
+    int maxParameterCount = 0;
+    int resultCacheCapacity = 0;
+    boolean shareSubtrees = false;
+
+    /**
+     * Parameter name of the {@code **} wildcard shorthand.
+     */
+    static final String CATCH_ALL_NAME = "path";
 
     /**
-     * Recursively adds a new route to the node tree.
+     * Adds a new route to the mutable tree, creating the missing nodes in place.
      *
-     * @param root the root node of the current route tree
+     * @param root the root node of the mutable route tree
      * @param targetPath the route path string, e.g. "/user/:id/profile"
-     * @param handler the handler associated with the route (assigned to the last segment)
-     * @return the updated root node of the tree with the added route
+     * @return the node of the last segment of the route
      */
-    private static <T> Node<T> addRoute(Node<T> root, String targetPath, T handler)
+    private static <T> MutableNode<T> addRoute(MutableNode<T> root, String targetPath)
     {
-        Node<T> current = root;
-        Node<T> ancestor = root;
+        MutableNode<T> current = root;
 
         int pathLength = targetPath.length();
 
@@ -84,26 +131,67 @@ public final class HttpRouterConfiguration<T>
              sOffset <= endIndex;
              sOffset = eOffset + 1, eOffset = Node.indexOfDelimiter(targetPath, sOffset, endIndex))
         {
-            boolean isParameterized = targetPath.charAt(sOffset) == ':';
+            if (targetPath.charAt(sOffset) == '*')
+            {
+                return current.wildcard(HttpRouterConfiguration.wildcardName(targetPath, sOffset, endIndex));
+            }
 
-            Node<T> next = NodeChooser.choose(current.children, sOffset, eOffset, targetPath);
-            boolean isLastPathSegment = (eOffset == endIndex);
+            if (SegmentPattern.isPattern(targetPath, sOffset, eOffset))
+            {
+                current = current.pattern(targetPath.substring(sOffset, eOffset));
+                continue;
+            }
 
-            if (Objects.isNull(next))
+            if (targetPath.charAt(sOffset) == ':')
             {
-                T currentHandler = isLastPathSegment ? handler : null;
-                String pathSegment = targetPath.substring(isParameterized ? sOffset + 1 : sOffset, eOffset);
-                Node<T> candidate = new Node<>(pathSegment, isParameterized, Node.EMPTY_CHILDREN, currentHandler);
+                current = current.parameterized(targetPath.substring(sOffset + 1, eOffset));
+                continue;
+            }
 
-                ancestor = Node.rebuildAncestor(ancestor, current, candidate);
-                current = candidate;
-            } else
+            current = current.child(targetPath.substring(sOffset, eOffset));
+        }
+
+        return current;
+    }
+
+    /**
+     * Returns the parameter name of a wildcard segment, i.e. the segment without its leading '*',
+     * or {@link #CATCH_ALL_NAME} for the {@code **} shorthand.
+     *
+     * @param targetPath the route path string, e.g. "/static/*filepath"
+     * @param startOffset start index of the wildcard segment, i.e. of its '*' character
+     * @param endIndex end index (exclusive) of the route path, without trailing delimiter
+     * @return the parameter name of the wildcard
+     */
+    static String wildcardName(String targetPath, int startOffset, int endIndex)
+    {
+        if (endIndex - startOffset == 2 && targetPath.charAt(startOffset + 1) == '*')
+        {
+            return CATCH_ALL_NAME;
+        }
+
+        return targetPath.substring(startOffset + 1, endIndex);
+    }
+
+    /**
+     * Counts the parameterized segments of the path.
+     *
+     * @param targetPath the route path string, e.g. "/user/:id/profile"
+     * @return the number of ':' characters and of segments starting with '*'
+     */
+    static int countParameters(String targetPath)
+    {
+        int count = 0;
+        for (int offset = 0; offset < targetPath.length(); offset++)
+        {
+            char ch = targetPath.charAt(offset);
+            if (ch == ':' || ch == '*' && (offset == 0 || targetPath.charAt(offset - 1) == '/'))
             {
-                current = next;
+                count++;
             }
         }
 
-        return ancestor;
+        return count;
     }
 
     /**
@@ -111,30 +199,117 @@ public final class HttpRouterConfiguration<T>
      * According to the RFC, certain characters are reserved or unsafe within URI paths and must be percent-encoded.
      * This method ensures that the path does not contain such characters un-encoded.
      * <p>
-     * Disallowed characters: {@code < > # % { } | \ ^ [ ] `}.
+     * Disallowed characters: {@code < > # % { } | \ ^ [ ] `}, except for the constraint closing a parameterized
+     * segment, e.g. {@code :lang<en|de>}. A wildcard segment (starting with '*') is only allowed as the last segment of the path
+     * and must be named, see {@link #wildcardName(String, int, int)}, and a pattern segment must be well-formed,
+     * see {@link SegmentPattern#of(String)}.
      *
      * @param path the path to validate
-     * @throws IllegalArgumentException if the path contains invalid characters
+     * @throws IllegalArgumentException if the path contains invalid characters, a malformed constraint or pattern, or a misplaced or unnamed wildcard segment
      */
-    private static void validatePath(String path)
+    static void validatePath(String path)
     {
+        int lastIndex = path.length() - 1;
+        boolean isWildcard = false;
+        boolean isParameterized = false;
+        int constraintOffset = -1;
+        int segmentOffset = 0;
+
         for (int offset = 0; offset < path.length(); offset++)
         {
             char ch = path.charAt(offset);
             switch (ch)
             {
-                case '<': case '>': case '#': case '%': case '{': case '}':
-                case '|': case '\\': case '^': case '[': case ']': case '`': case ' ':
+                case '<':
+                    // Opens the constraint of a named parameter, e.g. ":id<".
+                    if (!isParameterized || constraintOffset != -1 || path.charAt(offset - 1) == ':')
+                    {
+                        throw new IllegalArgumentException("Unable to proceed invalid path '" + path + "'");
+                    }
+                    constraintOffset = offset;
+                    break;
+                case '>':
+                    // Closes a non-empty constraint at the end of its segment.
+                    if (constraintOffset == -1 || offset == constraintOffset + 1 || offset != lastIndex && path.charAt(offset + 1) != '/')
+                    {
+                        throw new IllegalArgumentException("Unable to proceed invalid path '" + path + "'");
+                    }
+                    constraintOffset = -1;
+                    break;
+                case '|':
+                    if (constraintOffset == -1)
+                    {
+                        throw new IllegalArgumentException("Unable to proceed invalid path '" + path + "'");
+                    }
+                    break;
+                case '#': case '%': case '{': case '}':
+                case '\\': case '^': case '[': case ']': case '`': case ' ':
                     throw new IllegalArgumentException("Unable to proceed invalid path '" + path + "'");
+                case '/':
+                    if (constraintOffset != -1)
+                    {
+                        throw new IllegalArgumentException("Unable to proceed path '" + path + "' with an unclosed constraint");
+                    }
+                    if (isWildcard && offset != lastIndex)
+                    {
+                        throw new IllegalArgumentException("Unable to proceed path '" + path + "' with a wildcard before its last segment");
+                    }
+                    HttpRouterConfiguration.validateSegment(path, segmentOffset, offset);
+                    isParameterized = false;
+                    segmentOffset = offset + 1;
+                    break;
+                case ':':
+                    isParameterized |= offset == 0 || path.charAt(offset - 1) == '/';
+                    break;
+                case '*':
+                    isWildcard |= offset == 0 || path.charAt(offset - 1) == '/';
+                    break;
             }
         }
+
+        if (constraintOffset != -1)
+        {
+            throw new IllegalArgumentException("Unable to proceed path '" + path + "' with an unclosed constraint");
+        }
+
+        HttpRouterConfiguration.validateSegment(path, segmentOffset, path.length());
+    }
+
+    /**
+     * Checks the name of the {@code [startOffset, endOffset)} segment of the path if it is a wildcard, or compiles it
+     * if it is a pattern, so that a malformed one is rejected before the route tree is updated.
+     */
+    private static void validateSegment(String path, int startOffset, int endOffset)
+    {
+        if (startOffset == endOffset)
+        {
+            return;
+        }
+
+        if (path.charAt(startOffset) == '*')
+        {
+            String name = HttpRouterConfiguration.wildcardName(path, startOffset, endOffset);
+
+            if (name.isEmpty() || name.indexOf('*') != -1)
+            {
+                throw new IllegalArgumentException("Unable to proceed path '" + path + "' with an unnamed wildcard");
+            }
+            return;
+        }
+
+        if (SegmentPattern.isPattern(path, startOffset, endOffset))
+        {
+            SegmentPattern.of(path.substring(startOffset, endOffset));
+        }
     }
 
     /**
      * Adds a new route with a handler to the router configuration.
      * <p>
      * The path must be valid and not contain disallowed characters.
-     * The handler will be associated with the last segment of the path.
+     * The handler will be associated with the last segment of the path and serves every request method,
+     * unless a handler is registered for the method with {@link #add(HttpMethod, String, Object)}.
+     * If the route already has a handler, the first registered one is kept.
      * </p>
      *
      * @param targetPath the route path, e.g. "/user/:id"
@@ -150,7 +325,335 @@ public final class HttpRouterConfiguration<T>
 
         HttpRouterConfiguration.validatePath(targetPath);
 
-        this.root = HttpRouterConfiguration.addRoute(this.root, targetPath, handler);
+        MutableNode<T> node = HttpRouterConfiguration.addRoute(this.root, targetPath);
+
+        if (node.handler == null)
+        {
+            node.handler = handler;
+        }
+
+        this.frozen = null;
+        this.maxParameterCount = Math.max(this.maxParameterCount, HttpRouterConfiguration.countParameters(targetPath));
+        return this;
+    }
+
+    /**
+     * Adds a new route with a handler serving the given request method only.
+     * <p>
+     * A request matching the path with another method is resolved by the method agnostic handler
+     * of the route, if any, see {@link #add(String, Object)}; otherwise it is reported as a disallowed
+     * method by {@link HttpRouter#route(HttpMethod, String)}.
+     * If the route already has a handler for the method, the first registered one is kept.
+     * </p>
+     *
+     * @param method the request method served by the handler
+     * @param targetPath the route path, e.g. "/user/:id"
+     * @param handler the handler for the route
+     * @return this configuration instance for method chaining
+     * @throws NullPointerException if the method, path or handler is {@code null}
+     * @throws IllegalArgumentException if the path contains disallowed characters
+     */
+    public HttpRouterConfiguration<T> add(HttpMethod method, String targetPath, T handler)
+    {
+        Objects.requireNonNull(method, "'method' cannot be null");
+        Objects.requireNonNull(targetPath, "'targetPath' cannot be null");
+        Objects.requireNonNull(handler, "'handler' cannot be null");
+
+        HttpRouterConfiguration.validatePath(targetPath);
+
+        MutableNode<T> node = HttpRouterConfiguration.addRoute(this.root, targetPath);
+
+        if (node.methodHandlers == null)
+        {
+            node.methodHandlers = new Object[HttpMethod.count()];
+        }
+
+        if (node.methodHandlers[method.ordinal()] == null)
+        {
+            node.methodHandlers[method.ordinal()] = handler;
+        }
+
+        this.frozen = null;
+        this.maxParameterCount = Math.max(this.maxParameterCount, HttpRouterConfiguration.countParameters(targetPath));
+        return this;
+    }
+
+    /**
+     * Enables a bounded cache of routing results in front of {@link HttpRouter#route(String)}.
+     * <p>
+     * The cache is disabled by default. It pays off when a small set of parameterized paths dominates traffic,
+     * as a hit skips the tree walk and reuses an already materialized {@link RouteResult}. Fully static routes
+     * are resolved by a dedicated table and never take space in the cache.
+     * </p>
+     *
+     * @param capacity the maximum number of cached results, rounded up to a power of two
+     * @return this configuration instance for method chaining
+     * @throws IllegalArgumentException if {@code capacity} is not positive or above {@code 2^30}
+     */
+    public HttpRouterConfiguration<T> resultCache(int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("'capacity' must be positive");
+        }
+
+        if (capacity > RouteResultCache.MAX_CAPACITY)
+        {
+            throw new IllegalArgumentException("'capacity' cannot be above " + RouteResultCache.MAX_CAPACITY);
+        }
+
+        this.resultCacheCapacity = capacity;
+        return this;
+    }
+
+    /**
+     * Enables sharing of structurally equal subtrees in the routing tree of an {@link HttpRouter}.
+     * <p>
+     * Sharing is disabled by default. It pays off when the same routes are registered under many prefixes with the
+     * same handler instances, e.g. <code>/tenant_N/items/:id</code> and <code>/tenant_N/items/:id/state</code>
+     * for every tenant: the subtrees below the prefixes are stored once, and routers derived by
+     * {@link HttpRouter#withRoute(String, Object)} keep sharing the subtrees they do not update. It costs one more
+     * hash lookup per node when the router is created, and compiled routers never share subtrees.
+     * </p>
+     *
+     * @param enabled whether structurally equal subtrees are shared
+     * @return this configuration instance for method chaining
+     */
+    public HttpRouterConfiguration<T> shareSubtrees(boolean enabled)
+    {
+        this.shareSubtrees = enabled;
         return this;
     }
+
+    /**
+     * Produces the immutable routing tree of the configured routes.
+     *
+     * <p>The mutable tree is converted in a single pass: every node is visited once and its children
+     * are sorted once, with the parameterized child last, see {@link Node}. The result is reused
+     * until the next route is added.
+     *
+     * @return the root of the immutable, uncompressed routing tree
+     */
+    Node<T> freeze()
+    {
+        Node<T> frozen = this.frozen;
+
+        if (frozen == null)
+        {
+            frozen = this.frozen = HttpRouterConfiguration.freeze(this.root, Node.EMPTY_PARAMETER_NAMES);
+        }
+
+        return frozen;
+    }
+
+    /**
+     * Finds a parameter declared under several names at the same level, e.g. {@code /user/:id} and
+     * {@code /user/:name/posts}. Every route sharing it captures it under the first registered name, so the
+     * route patterns of the tree differ from the registered ones, see {@link RouteIndex}.
+     *
+     * @return the first registered name of such a parameter, or {@code null} if every parameter has a single name
+     */
+    String aliasedParameter()
+    {
+        return HttpRouterConfiguration.aliasedParameter(this.root);
+    }
+
+    private static String aliasedParameter(MutableNode<?> node)
+    {
+        if (node.isAliased)
+        {
+            return node.pathSegment;
+        }
+
+        for (MutableNode<?> child : node.staticChildren.values())
+        {
+            String aliased = HttpRouterConfiguration.aliasedParameter(child);
+            if (aliased != null)
+            {
+                return aliased;
+            }
+        }
+
+        for (MutableNode<?> child : node.patternChildren.values())
+        {
+            String aliased = HttpRouterConfiguration.aliasedParameter(child);
+            if (aliased != null)
+            {
+                return aliased;
+            }
+        }
+
+        return node.parameterizedChild != null ? HttpRouterConfiguration.aliasedParameter(node.parameterizedChild) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T> freeze(MutableNode<T> node, String[] parentNames)
+    {
+        String[] parameterNames = node.pattern != null
+                ? Node.appendParameterNames(parentNames, node.pattern.names())
+                : Node.appendParameterName(parentNames, node.pathSegment, node.isParameterized);
+        Node<T> wildcard = node.wildcardChild != null ? HttpRouterConfiguration.freeze(node.wildcardChild, parameterNames) : null;
+
+        Node<T>[] patterns = HttpRouterConfiguration.freeze(node.patternChildren, parameterNames);
+
+        int staticCount = node.staticChildren.size();
+        int childCount = node.parameterizedChild != null ? staticCount + 1 : staticCount;
+
+        if (childCount == 0)
+        {
+            return new Node<>(node.pathSegment, node.isParameterized, parameterNames, Node.EMPTY_CHILDREN, node.handler, node.frozenMethodHandlers(), wildcard, node.constraint, patterns);
+        }
+
+        Node<T>[] children = (Node<T>[]) new Node<?>[childCount];
+
+        int offset = 0;
+        for (MutableNode<T> child : node.staticChildren.values())
+        {
+            children[offset++] = HttpRouterConfiguration.freeze(child, parameterNames);
+        }
+
+        Arrays.sort(children, 0, staticCount, Node::compareHeads);
+
+        if (node.parameterizedChild != null)
+        {
+            children[staticCount] = HttpRouterConfiguration.freeze(node.parameterizedChild, parameterNames);
+        }
+
+        return new Node<>(node.pathSegment, node.isParameterized, parameterNames, children, node.handler, node.frozenMethodHandlers(), wildcard, node.constraint, patterns);
+    }
+
+    /**
+     * Freezes the pattern children of a node, ordered from the most to the least specific.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] freeze(Map<String, MutableNode<T>> patternChildren, String[] parentNames)
+    {
+        if (patternChildren.isEmpty())
+        {
+            return (Node<T>[]) Node.EMPTY_CHILDREN;
+        }
+
+        Node<T>[] patterns = (Node<T>[]) new Node<?>[patternChildren.size()];
+
+        int offset = 0;
+        for (MutableNode<T> child : patternChildren.values())
+        {
+            patterns[offset++] = HttpRouterConfiguration.freeze(child, parentNames);
+        }
+
+        Arrays.sort(patterns, SegmentPattern::compare);
+        return patterns;
+    }
+
+    /**
+     * Growable node of the route tree used while routes are being registered.
+     *
+     * @param <T> the type of handler associated with a route
+     */
+    private static final class MutableNode<T>
+    {
+        final String pathSegment;
+        final boolean isParameterized;
+        final ParameterConstraint constraint;
+        final SegmentPattern pattern;
+        final Map<String, MutableNode<T>> staticChildren = new HashMap<>();
+        final Map<String, MutableNode<T>> patternChildren = new HashMap<>();
+
+        MutableNode<T> parameterizedChild;
+        MutableNode<T> wildcardChild;
+        T handler;
+        Object[] methodHandlers;
+        boolean isAliased;
+
+        MutableNode(String pathSegment, boolean isParameterized)
+        {
+            this(pathSegment, isParameterized, null);
+        }
+
+        MutableNode(String pathSegment, boolean isParameterized, ParameterConstraint constraint)
+        {
+            this(pathSegment, isParameterized, constraint, null);
+        }
+
+        MutableNode(String pathSegment, boolean isParameterized, ParameterConstraint constraint, SegmentPattern pattern)
+        {
+            this.pathSegment = pathSegment;
+            this.isParameterized = isParameterized;
+            this.constraint = constraint;
+            this.pattern = pattern;
+        }
+
+        /**
+         * @return a copy of the method handlers table, as the mutable one may still be updated, or {@code null} if there is none
+         */
+        Object[] frozenMethodHandlers()
+        {
+            return this.methodHandlers != null ? this.methodHandlers.clone() : null;
+        }
+
+        /**
+         * Returns the static child representing the segment, creating it if missing.
+         *
+         * @param pathSegment the static segment
+         * @return the child node
+         */
+        MutableNode<T> child(String pathSegment)
+        {
+            return this.staticChildren.computeIfAbsent(pathSegment, segment -> new MutableNode<>(segment, false));
+        }
+
+        /**
+         * Returns the parameterized child, creating it if missing.
+         *
+         * <p>Only one parameterized child is allowed per node, so a parameterized segment
+         * resolves to the existing parameterized child regardless of its name, provided it has the same constraint.
+         * The child is then marked as aliased if the name differs, see {@link #aliasedParameter()}.
+         *
+         * @param segment the segment without the leading ':', e.g. "id&lt;int&gt;"
+         * @return the parameterized child node
+         * @throws IllegalArgumentException if the existing parameterized child has another constraint
+         */
+        MutableNode<T> parameterized(String segment)
+        {
+            if (this.parameterizedChild == null)
+            {
+                this.parameterizedChild = new MutableNode<>(ParameterConstraint.nameOf(segment), true, ParameterConstraint.of(segment));
+            } else
+            {
+                ParameterConstraint.checkSame(this.parameterizedChild.pathSegment, this.parameterizedChild.constraint, segment);
+                this.parameterizedChild.isAliased |= !this.parameterizedChild.pathSegment.equals(ParameterConstraint.nameOf(segment));
+            }
+
+            return this.parameterizedChild;
+        }
+
+        /**
+         * Returns the pattern child representing the segment, creating it if missing.
+         *
+         * @param segment the pattern segment, e.g. "v:version"
+         * @return the pattern child node
+         */
+        MutableNode<T> pattern(String segment)
+        {
+            return this.patternChildren.computeIfAbsent(segment, key -> new MutableNode<>(key, false, null, SegmentPattern.of(key)));
+        }
+
+        /**
+         * Returns the wildcard child, creating it if missing.
+         *
+         * <p>Only one wildcard child is allowed per node, so the name of the first registered one is kept.
+         *
+         * @param name the wildcard segment without the leading '*'
+         * @return the wildcard child node
+         */
+        MutableNode<T> wildcard(String name)
+        {
+            if (this.wildcardChild == null)
+            {
+                this.wildcardChild = new MutableNode<>(name, true);
+            }
+
+            return this.wildcardChild;
+        }
+    }
 }
@@ -71,4 +71,115 @@ public final class HttpRouterFactory
 
         return new HttpRouter<>(configuration);
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates and configures a new {@link CompiledHttpRouter} instance using the provided configuration lambda.
+     *
+     * <p>The configured route tree is flattened into contiguous primitive arrays, see {@link CompiledHttpRouter}.
+     *
+     * <pre>{@code
+     * CompiledHttpRouter<Handler> router = HttpRouterFactory.compile(config -> {
+     *     config.add("/api/v1/users", new UsersHandler());
+     *     config.add("/api/v1/posts/:id", new PostHandler());
+     * });
+     * }</pre>
+     *
+     * @param config a {@link Consumer} that accepts a {@link HttpRouterConfiguration} to define routes
+     * @param <T>    the type of the route handler
+     * @return a compiled {@code CompiledHttpRouter} instance
+     * @throws NullPointerException if {@code config} is {@code null}
+     * @throws IllegalArgumentException if a route path contains characters outside of ISO-8859-1
+     */
+    public static <T> CompiledHttpRouter<T> compile(Consumer<HttpRouterConfiguration<T>> config)
+    {
+        Objects.requireNonNull(config, "'config' cannot be null");
+
+        HttpRouterConfiguration<T> configuration = new HttpRouterConfiguration<>();
+        config.accept(configuration);
+
+        return new CompiledHttpRouter<>(configuration);
+    }
+
+    /**
+     * Creates a new {@link CompiledHttpRouter} using an already prepared configuration.
+     *
+     * @param configuration the prepared {@link HttpRouterConfiguration} containing routes
+     * @param <T>           the type of the route handler
+     * @return a compiled {@code CompiledHttpRouter} instance
+     * @throws NullPointerException if {@code configuration} is {@code null}
+     * @throws IllegalArgumentException if a route path contains characters outside of ISO-8859-1
+     */
+    public static <T> CompiledHttpRouter<T> compile(HttpRouterConfiguration<T> configuration)
+    {
+        Objects.requireNonNull(configuration, "'configuration' cannot be null");
+
+        return new CompiledHttpRouter<>(configuration);
+    }
+
+    /**
+     * Creates and configures a new {@link OffHeapHttpRouter} instance using the provided configuration lambda.
+     *
+     * <p>The configured route tree is flattened the same way as for {@link #compile(Consumer)}
+     * and stored in direct memory, see {@link OffHeapHttpRouter}.
+     *
+     * @param config a {@link Consumer} that accepts a {@link HttpRouterConfiguration} to define routes
+     * @param <T>    the type of the route handler
+     * @return a compiled {@code OffHeapHttpRouter} instance
+     * @throws NullPointerException if {@code config} is {@code null}
+     * @throws IllegalArgumentException if a route path contains characters outside of ISO-8859-1
+     */
+    public static <T> OffHeapHttpRouter<T> compileOffHeap(Consumer<HttpRouterConfiguration<T>> config)
+    {
+        Objects.requireNonNull(config, "'config' cannot be null");
+
+        HttpRouterConfiguration<T> configuration = new HttpRouterConfiguration<>();
+        config.accept(configuration);
+
+        return new OffHeapHttpRouter<>(configuration);
+    }
+
+    /**
+     * Creates a new {@link OffHeapHttpRouter} using an already prepared configuration.
+     *
+     * @param configuration the prepared {@link HttpRouterConfiguration} containing routes
+     * @param <T>           the type of the route handler
+     * @return a compiled {@code OffHeapHttpRouter} instance
+     * @throws NullPointerException if {@code configuration} is {@code null}
+     * @throws IllegalArgumentException if a route path contains characters outside of ISO-8859-1
+     */
+    public static <T> OffHeapHttpRouter<T> compileOffHeap(HttpRouterConfiguration<T> configuration)
+    {
+        Objects.requireNonNull(configuration, "'configuration' cannot be null");
+
+        return new OffHeapHttpRouter<>(configuration);
+    }
+
+    /**
+     * Creates and configures a new {@link ReloadableHttpRouter} instance using the provided configuration lambda.
+     *
+     * <p>The configured routes are the initial snapshot, which may be replaced at runtime,
+     * see {@link ReloadableHttpRouter#reload(Consumer)}.
+     *
+     * @param config a {@link Consumer} that accepts a {@link HttpRouterConfiguration} to define routes
+     * @param <T>    the type of the route handler
+     * @return a configured {@code ReloadableHttpRouter} instance
+     * @throws NullPointerException if {@code config} is {@code null}
+     */
+    public static <T> ReloadableHttpRouter<T> createReloadable(Consumer<HttpRouterConfiguration<T>> config)
+    {
+        return new ReloadableHttpRouter<>(HttpRouterFactory.create(config));
+    }
+
+    /**
+     * Creates a new {@link ReloadableHttpRouter} using an already prepared configuration as the initial snapshot.
+     *
+     * @param configuration the prepared {@link HttpRouterConfiguration} containing routes
+     * @param <T>           the type of the route handler
+     * @return a configured {@code ReloadableHttpRouter} instance
+     * @throws NullPointerException if {@code configuration} is {@code null}
+     */
+    public static <T> ReloadableHttpRouter<T> createReloadable(HttpRouterConfiguration<T> configuration)
+    {
+        return new ReloadableHttpRouter<>(HttpRouterFactory.create(configuration));
+    }
+}
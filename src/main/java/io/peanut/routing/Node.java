@@ -1,6 +1,14 @@
 package io.peanut.routing;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Represents a node in the HTTP routing tree.
@@ -9,10 +17,20 @@ import java.util.Arrays;
  * <ul>
  *   <li>a path segment string,</li>
  *   <li>a flag indicating if the segment is parameterized (e.g., ":id"),</li>
+ *   <li>an optional constraint of a parameterized segment (e.g., ":id&lt;int&gt;"),</li>
+ *   <li>the ordered names of all parameters captured on the path from the root to this node,</li>
  *   <li>an array of child nodes representing subsequent path segments,</li>
- *   <li>and an optional handler associated with this route.</li>
+ *   <li>an optional handler associated with this route regardless of the request method,</li>
+ *   <li>an optional table of handlers indexed by {@link HttpMethod} ordinal,</li>
+ *   <li>an array of pattern children mixing literal text and parameters (e.g. "v:version", ":name.json"),</li>
+ *   <li>an optional wildcard child (e.g. "*filepath") capturing the rest of the path,</li>
+ *   <li>and the lookup counters of the node if instrumentation is enabled, see {@link RouteMetrics}.</li>
  * </ul>
  *
+ * <p>A segment is matched by the static child of the same head first, then by the pattern children
+ * from the most to the least specific, see {@link SegmentPattern}, then by the parameterized child,
+ * and the rest of the path is finally matched by the wildcard child.
+ *
  * <p><b>Children storage visualization:</b><br>
  * The {@code children} array is kept sorted lexicographically by {@code pathSegment}.
  * Parameterized child nodes (e.g. representing "{id}") are always stored
@@ -27,11 +45,21 @@ import java.util.Arrays;
  * </pre>
  *
  * <p>This ordering facilitates efficient searching with optimizations
- * such as binary search on the non-parameterized children.
+ * such as binary search on the non-parameterized children. Nodes with many
+ * static children additionally keep them in a precomputed hash table.
+ * The lookup strategy is picked once per node, see {@link NodeChooser}.
  *
  * <p>Nodes are immutable once created. Modifications to the tree are done
  * by creating new nodes with updated children arrays.
  *
+ * <p><b>Compressed edges:</b><br>
+ * When a router is created, chains of static nodes that have neither a handler nor siblings
+ * below them are collapsed into a single node whose {@code pathSegment} spans several
+ * segments, e.g. {@code "api/v1/internal"}, see {@link #compress(Node)}. The first segment
+ * of such an edge ({@code "api"}) is its <i>head</i>: children are ordered and looked up by
+ * their heads, and the remaining <i>tail</i> ({@code "/v1/internal"}) is matched with a single
+ * region comparison.
+ *
  * @param <T> the type of the handler associated with the route node
  */
 final class Node<T>
@@ -44,11 +72,27 @@ final class Node<T>
      * Empty children array shared as a constant to avoid unnecessary allocations.
      */
     public static final Node<?>[] EMPTY_CHILDREN = new Node<?>[0];
+    /**
+     * Empty parameter names array shared by every node without parameters on its path.
+     */
+    public static final String[] EMPTY_PARAMETER_NAMES = new String[0];
 
     final String pathSegment;
+    final int headLength;
+    final int headHash;
     final boolean isParameterized;
+    final ParameterConstraint constraint;
+    final String[] parameterNames;
     final Node<T>[] children;
+    final byte lookupStrategy;
+    final Node<T>[] hashedChildren;
     final T handler;
+    final Object[] methodHandlers;
+    final Set<HttpMethod> allowedMethods;
+    final Node<T> wildcard;
+    final Node<T>[] patternChildren;
+    final SegmentPattern segmentPattern;
+    final RouteMetrics.Counters counters;
 
     /**
      * Finds the next '/' character in the given {@code path} starting from {@code startOffset}.
@@ -66,49 +110,64 @@ final class Node<T>
     }
 
     /**
-     * Rebuilds the ancestor node in the routing tree with a replacement node inserted
-     * in place of the target node.
+     * Computes the same polynomial hash as {@link String#hashCode()} over the
+     * {@code [startOffset, endOffset)} region of the path, without allocating a substring.
      *
-     * <p>This method recursively walks down the tree from the ancestor node until it
-     * reaches the target node, then inserts the replacement node in order among the children.
-     * It creates new nodes on the path back to maintain immutability.
-     *
-     * @param currentAncestor the current ancestor node to rebuild
-     * @param current the target node to replace
-     * @param newNode the replacement node to insert
-     * @param <T> the handler type
-     * @return a new node with the replacement inserted, or the original ancestor if no changes were made
+     * @param path the string containing the region
+     * @param startOffset start index (inclusive) of the region
+     * @param endOffset end index (exclusive) of the region
+     * @return the hash of the region
      */
-    static <T> Node<T> rebuildAncestor(Node<T> currentAncestor, Node<T> current, Node<T> newNode)
+    static int hashRegion(String path, int startOffset, int endOffset)
     {
-        if (currentAncestor == current)
+        int hash = 0;
+        for (int offset = startOffset; offset < endOffset; offset++)
         {
-            Node<T>[] ancestorChildren = Node.insertChildrenOrdered(currentAncestor.children, newNode);
-            return new Node<>(currentAncestor.pathSegment, currentAncestor.isParameterized, ancestorChildren, currentAncestor.handler);
+            hash = 31 * hash + path.charAt(offset);
         }
 
-        Node<T>[] oldChildren = currentAncestor.children;
-        Node<T>[] newChildren = Arrays.copyOf(oldChildren, oldChildren.length);
+        return hash;
+    }
 
-        boolean isChildModified = false;
-        for (int offset = 0; offset < oldChildren.length; offset++)
+    /**
+     * Byte-level counterpart of {@link #indexOfDelimiter(String, int, int)}.
+     *
+     * @param path the bytes to search in
+     * @param startOffset the index to start searching from
+     * @param endOffset end index (exclusive) of the searched region, returned if no '/' is found
+     * @return index of the next '/' delimiter, or {@code endOffset} if none found
+     */
+    static int indexOfDelimiter(byte[] path, int startOffset, int endOffset)
+    {
+        for (int offset = startOffset; offset < endOffset; offset++)
         {
-            Node<T> child = oldChildren[offset];
-            Node<T> updated = rebuildAncestor(child, current, newNode);
-            if (updated != child)
+            if (path[offset] == '/')
             {
-                newChildren[offset] = updated;
-                isChildModified = true;
-                break;
+                return offset;
             }
         }
 
-        if (!isChildModified)
+        return endOffset;
+    }
+
+    /**
+     * Byte-level counterpart of {@link #hashRegion(String, int, int)}, every byte being read
+     * as an ISO-8859-1 character so that ASCII regions hash the same as their {@link String} form.
+     *
+     * @param path the bytes containing the region
+     * @param startOffset start index (inclusive) of the region
+     * @param endOffset end index (exclusive) of the region
+     * @return the hash of the region
+     */
+    static int hashRegion(byte[] path, int startOffset, int endOffset)
+    {
+        int hash = 0;
+        for (int offset = startOffset; offset < endOffset; offset++)
         {
-            return currentAncestor;
+            hash = 31 * hash + (path[offset] & 0xFF);
         }
 
-        return new Node<>(currentAncestor.pathSegment, currentAncestor.isParameterized, newChildren, currentAncestor.handler);
+        return hash;
     }
 
     /**
@@ -127,11 +186,12 @@ final class Node<T>
         int oldLength = oldChildren.length;
         Node<T>[] newArray = (Node<T>[]) new Node<?>[oldLength + 1];
 
-        int insertOffset = 0;
+        // Parameterized child is appended to the tail regardless of its name.
+        int insertOffset = child.isParameterized ? oldLength : 0;
         for (; insertOffset < oldLength; insertOffset++)
         {
             Node<T> current = oldChildren[insertOffset];
-            if (current.isParameterized || child.pathSegment.compareTo(current.pathSegment) < 0)
+            if (current.isParameterized || Node.compareHeads(child, current) < 0)
             {
                 break;
             }
@@ -153,20 +213,1145 @@ final class Node<T>
     }
 
     /**
-     * Constructs a new routing tree node.
+     * Compares the heads (first segments) of two static nodes lexicographically,
+     * the same way {@link String#compareTo(String)} would compare them.
      *
-     * @param pathSegment the path segment string this node represents
-     * @param isParameterized true if this path segment is parameterized
-     * @param children the child nodes of this node
-     * @param handler the handler associated with this node, may be null
+     * @param left the first node
+     * @param right the second node
+     * @param <T> the handler type
+     * @return a negative, zero or positive value as the left head is less than, equal to or greater than the right one
+     */
+    static <T> int compareHeads(Node<T> left, Node<T> right)
+    {
+        int limit = Math.min(left.headLength, right.headLength);
+
+        for (int offset = 0; offset < limit; offset++)
+        {
+            int difference = left.pathSegment.charAt(offset) - right.pathSegment.charAt(offset);
+            if (difference != 0)
+            {
+                return difference;
+            }
+        }
+
+        return left.headLength - right.headLength;
+    }
+
+    /**
+     * Collapses chains of single-child, handler-less static nodes of the tree into multi-segment edges.
+     *
+     * <p>For example, with routes {@code /api/v1/internal/health} and {@code /api/v1/internal/status}
+     * the nodes {@code api -> v1 -> internal} are merged into a single {@code api/v1/internal} node,
+     * so matching them costs one child lookup and one region comparison instead of three lookups
+     * and three delimiter scans. Parameterized nodes, nodes with a handler or a wildcard child and nodes
+     * with several children are never merged, which keeps the matching semantics identical to the uncompressed tree.
+     *
+     * <p>The root node itself is never merged with its children.
+     *
+     * <p>Equal segments and parameter names of the compressed tree are shared, see {@link Symbols}.
+     *
+     * @param root the root of an uncompressed tree
+     * @param <T> the handler type
+     * @return the root of the compressed tree
+     */
+    static <T> Node<T> compress(Node<T> root)
+    {
+        return Node.compress(root, false);
+    }
+
+    /**
+     * Compresses the tree, optionally sharing its structurally equal subtrees.
+     *
+     * <p>With {@code shareSubtrees}, subtrees having the same segments, constraints, parameter names and
+     * handler instances are replaced by a single instance, turning the tree into a directed acyclic graph.
+     * Nodes being immutable, lookups and path copying updates behave the same either way.
+     *
+     * @param root the root of an uncompressed tree
+     * @param shareSubtrees whether structurally equal subtrees are shared
+     * @param <T> the handler type
+     * @return the root of the compressed tree
+     * @see HttpRouterConfiguration#shareSubtrees(boolean)
      */
+    static <T> Node<T> compress(Node<T> root, boolean shareSubtrees)
+    {
+        Symbols symbols = new Symbols(shareSubtrees);
+        return Node.compact(root, root.pathSegment, Node.compressChildren(root.children, symbols), Node.compressPatterns(root.patternChildren, symbols), symbols);
+    }
+
     @SuppressWarnings("unchecked")
-    public Node(String pathSegment, boolean isParameterized, Node<?>[] children, T handler)
+    private static <T> Node<T>[] compressChildren(Node<T>[] children, Symbols symbols)
     {
-        this.pathSegment = pathSegment;
-        this.isParameterized = isParameterized;
-        this.children = (Node<T>[]) children;
-        this.handler = handler;
+        if (children.length == 0)
+        {
+            return children;
+        }
+
+        Node<T>[] compressed = (Node<T>[]) new Node<?>[children.length];
+
+        for (int offset = 0; offset < children.length; offset++)
+        {
+            Node<T> child = children[offset];
+            StringBuilder pathSegment = null;
+
+            while (!child.isParameterized && !child.hasHandlers() && child.wildcard == null && child.patternChildren.length == 0
+                    && child.children.length == 1 && !child.children[0].isParameterized)
+            {
+                if (pathSegment == null)
+                {
+                    pathSegment = new StringBuilder(child.pathSegment);
+                }
+
+                child = child.children[0];
+                pathSegment.append('/').append(child.pathSegment);
+            }
+
+            Node<T>[] grandChildren = Node.compressChildren(child.children, symbols);
+            String segment = pathSegment != null ? pathSegment.toString() : child.pathSegment;
+
+            compressed[offset] = Node.compact(child, segment, grandChildren, Node.compressPatterns(child.patternChildren, symbols), symbols);
+        }
+
+        // Merged edges are ordered by their heads, which may differ from the order of the full segments.
+        Arrays.sort(compressed, 0, NodeChooser.countStatic(compressed), Node::compareHeads);
+
+        return compressed;
+    }
+
+    /**
+     * Compresses the subtrees below pattern children, the pattern nodes themselves being never merged nor reordered.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] compressPatterns(Node<T>[] patterns, Symbols symbols)
+    {
+        if (patterns.length == 0)
+        {
+            return patterns;
+        }
+
+        Node<T>[] compressed = (Node<T>[]) new Node<?>[patterns.length];
+
+        for (int offset = 0; offset < patterns.length; offset++)
+        {
+            Node<T> pattern = patterns[offset];
+            compressed[offset] = Node.compact(pattern, pattern.pathSegment, Node.compressChildren(pattern.children, symbols),
+                    Node.compressPatterns(pattern.patternChildren, symbols), symbols);
+        }
+
+        return compressed;
+    }
+
+    /**
+     * Copies a node of the tree being compressed, sharing its segment and parameter names with the rest of the tree.
+     *
+     * @param node the uncompressed node
+     * @param pathSegment the segment of the copy, possibly spanning several merged segments
+     * @param children the compressed children of the copy
+     * @param patternChildren the compressed pattern children of the copy
+     * @param symbols the symbol table of the tree
+     * @param <T> the handler type
+     * @return the compact copy of the node
+     */
+    private static <T> Node<T> compact(Node<T> node, String pathSegment, Node<T>[] children, Node<T>[] patternChildren, Symbols symbols)
+    {
+        Node<T> wildcard = node.wildcard != null ? Node.compact(node.wildcard, node.wildcard.pathSegment, node.wildcard.children, node.wildcard.patternChildren, symbols) : null;
+
+        return symbols.subtree(new Node<>(symbols.segment(pathSegment), node.isParameterized, symbols.names(node.parameterNames), children, node.handler, node.methodHandlers,
+                wildcard, node.constraint, patternChildren));
+    }
+
+    /**
+     * Symbol table of a tree being compressed.
+     *
+     * <p>Route segments are cut out of their route paths, so the same segment or parameter name registered by
+     * thousands of routes, e.g. {@code api} or {@code id}, would otherwise be held as thousands of equal strings.
+     * The table keeps a single instance of every segment, parameter name and parameter names array, so that
+     * subtrees sharing the same vocabulary also share the same memory. It only lives while the tree is compressed.
+     *
+     * <p>If enabled, it also keeps a single instance of every subtree. The tree is compressed bottom-up, so the
+     * children of a node are already shared when the node is looked up, and two subtrees are equal if their roots
+     * are equal and their children are the same instances.
+     */
+    private static final class Symbols
+    {
+        private final Map<String, String> segments = new HashMap<>();
+        private final Map<List<String>, String[]> names = new HashMap<>();
+        private final Map<String[], String[]> internedNames = new IdentityHashMap<>();
+        private final Map<Subtree, Node<?>> subtrees;
+
+        Symbols(boolean shareSubtrees)
+        {
+            this.subtrees = shareSubtrees ? new HashMap<>() : null;
+
+            this.names.put(List.of(), Node.EMPTY_PARAMETER_NAMES);
+            this.internedNames.put(Node.EMPTY_PARAMETER_NAMES, Node.EMPTY_PARAMETER_NAMES);
+        }
+
+        String segment(String segment)
+        {
+            String interned = this.segments.putIfAbsent(segment, segment);
+            return interned != null ? interned : segment;
+        }
+
+        /**
+         * Interns the names array, a child without parameters of its own sharing the same array as its parent.
+         */
+        String[] names(String[] names)
+        {
+            String[] interned = this.internedNames.get(names);
+
+            if (interned == null)
+            {
+                String[] copy = names.clone();
+                for (int index = 0; index < copy.length; index++)
+                {
+                    copy[index] = this.segment(copy[index]);
+                }
+
+                interned = this.names.computeIfAbsent(Arrays.asList(copy), key -> copy);
+                this.internedNames.put(names, interned);
+            }
+
+            return interned;
+        }
+
+        /**
+         * @return the shared instance of the subtree equal to the node, the node itself if it is the first one
+         */
+        @SuppressWarnings("unchecked")
+        <T> Node<T> subtree(Node<T> node)
+        {
+            if (this.subtrees == null)
+            {
+                return node;
+            }
+
+            Node<?> shared = this.subtrees.putIfAbsent(new Subtree(node), node);
+            return shared != null ? (Node<T>) shared : node;
+        }
+    }
+
+    /**
+     * Key of a subtree whose children are already shared, comparing the nodes it references by identity.
+     */
+    private static final class Subtree
+    {
+        private final Node<?> node;
+        private final int hash;
+
+        Subtree(Node<?> node)
+        {
+            this.node = node;
+
+            int hash = node.pathSegment.hashCode();
+            hash = 31 * hash + Boolean.hashCode(node.isParameterized);
+            hash = 31 * hash + Objects.hashCode(node.constraint);
+            hash = 31 * hash + System.identityHashCode(node.parameterNames);
+            hash = 31 * hash + System.identityHashCode(node.handler);
+            hash = 31 * hash + Subtree.identityHash(node.methodHandlers);
+            hash = 31 * hash + System.identityHashCode(node.wildcard);
+            hash = 31 * hash + Subtree.identityHash(node.children);
+            hash = 31 * hash + Subtree.identityHash(node.patternChildren);
+            this.hash = hash;
+        }
+
+        private static int identityHash(Object[] array)
+        {
+            if (array == null)
+            {
+                return 0;
+            }
+
+            int hash = 1;
+            for (Object element : array)
+            {
+                hash = 31 * hash + System.identityHashCode(element);
+            }
+
+            return hash;
+        }
+
+        private static boolean identityEquals(Object[] left, Object[] right)
+        {
+            if (left == right)
+            {
+                return true;
+            }
+
+            if (left == null || right == null || left.length != right.length)
+            {
+                return false;
+            }
+
+            for (int index = 0; index < left.length; index++)
+            {
+                if (left[index] != right[index])
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof Subtree subtree) || this.hash != subtree.hash)
+            {
+                return false;
+            }
+
+            Node<?> left = this.node;
+            Node<?> right = subtree.node;
+
+            // Parameter names are interned before subtrees, so equal names are the same array.
+            return left.pathSegment.equals(right.pathSegment) && left.isParameterized == right.isParameterized
+                    && Objects.equals(left.constraint, right.constraint) && left.parameterNames == right.parameterNames
+                    && left.handler == right.handler && Subtree.identityEquals(left.methodHandlers, right.methodHandlers)
+                    && left.wildcard == right.wildcard && Subtree.identityEquals(left.children, right.children)
+                    && Subtree.identityEquals(left.patternChildren, right.patternChildren);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hash;
+        }
+    }
+
+    /**
+     * Inserts a route into a compressed tree by path copying.
+     *
+     * <p>Only the nodes on the path of the route are copied, every other subtree is shared with the
+     * original tree. Compressed edges that diverge from the route are split at the last common segment,
+     * and the missing part of the route is added as a chain that is compressed the same way as
+     * {@link #compress(Node)} would compress it.
+     *
+     * @param node the node that matched the route up to {@code startOffset}
+     * @param path the route path, e.g. "/user/:id/profile"
+     * @param startOffset start index of the next route segment, greater than {@code endIndex} if the route ends at {@code node}
+     * @param endIndex end index (exclusive) of the route path, without trailing delimiter
+     * @param method the request method served by the handler, or {@code null} for a method agnostic handler
+     * @param handler the handler of the route
+     * @param <T> the handler type
+     * @return the copy of {@code node} containing the route, or {@code node} itself if the route already has a handler
+     *         for the method
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Node<T> insert(Node<T> node, String path, int startOffset, int endIndex, HttpMethod method, T handler)
+    {
+        if (startOffset > endIndex)
+        {
+            return Node.withHandler(node, method, handler);
+        }
+
+        if (path.charAt(startOffset) == '*')
+        {
+            Node<T> wildcard = node.wildcard;
+
+            if (wildcard != null && Node.hasHandler(wildcard, method))
+            {
+                return node;
+            }
+
+            wildcard = wildcard != null
+                    ? Node.withHandler(wildcard, method, handler)
+                    : Node.wildcard(path, startOffset, endIndex, method, handler, node.parameterNames);
+
+            return Node.copy(node, node.children, node.handler, node.methodHandlers, wildcard, node.patternChildren);
+        }
+
+        int endOffset = Node.indexOfDelimiter(path, startOffset, endIndex);
+
+        if (SegmentPattern.isPattern(path, startOffset, endOffset))
+        {
+            int patternOffset = Node.indexOfPattern(node.patternChildren, path, startOffset, endOffset);
+            Node<T>[] patterns;
+
+            if (patternOffset == -1)
+            {
+                patterns = Node.insertPatternOrdered(node.patternChildren, Node.chain(path, startOffset, endIndex, method, handler, node.parameterNames));
+            } else
+            {
+                Node<T> pattern = node.patternChildren[patternOffset];
+                Node<T> updated = Node.insert(pattern, path, endOffset + 1, endIndex, method, handler);
+
+                if (updated == pattern)
+                {
+                    return node;
+                }
+
+                patterns = Arrays.copyOf(node.patternChildren, node.patternChildren.length);
+                patterns[patternOffset] = updated;
+            }
+
+            return Node.copy(node, node.children, node.handler, node.methodHandlers, node.wildcard, patterns);
+        }
+
+        boolean isParameterized = path.charAt(startOffset) == ':';
+        int childOffset = isParameterized ? Node.indexOfParameterized(node.children) : Node.indexOfStatic(node.children, path, startOffset, endOffset);
+
+        if (childOffset == -1)
+        {
+            Node<T> chain = Node.chain(path, startOffset, endIndex, method, handler, node.parameterNames);
+            return Node.copy(node, Node.insertChildrenOrdered(node.children, chain), node.handler, node.methodHandlers, node.wildcard, node.patternChildren);
+        }
+
+        Node<T> child = node.children[childOffset];
+
+        if (isParameterized)
+        {
+            ParameterConstraint.checkSame(child.pathSegment, child.constraint, path.substring(startOffset + 1, endOffset));
+        }
+        String edge = child.pathSegment;
+
+        // Follows the tail segments of a compressed edge, the head already matched.
+        int edgeOffset = child.headLength;
+        while (edgeOffset < edge.length())
+        {
+            if (endOffset == endIndex)
+            {
+                break;
+            }
+
+            int nextEndOffset = Node.indexOfDelimiter(path, endOffset + 1, endIndex);
+            int nextEdgeOffset = Node.indexOfDelimiter(edge, edgeOffset + 1, edge.length());
+            int length = nextEndOffset - endOffset - 1;
+
+            if (Node.isCapturing(path.charAt(endOffset + 1)) || nextEdgeOffset - edgeOffset - 1 != length
+                    || !path.regionMatches(endOffset + 1, edge, edgeOffset + 1, length))
+            {
+                break;
+            }
+
+            edgeOffset = nextEdgeOffset;
+            endOffset = nextEndOffset;
+        }
+
+        Node<T> updated;
+
+        if (edgeOffset == edge.length())
+        {
+            updated = Node.insert(child, path, endOffset + 1, endIndex, method, handler);
+
+            if (updated == child)
+            {
+                return node;
+            }
+        } else
+        {
+            // The route leaves the edge in the middle: split it into the common prefix and the remaining suffix.
+            Node<T> suffix = new Node<>(edge.substring(edgeOffset + 1), false, child.parameterNames, child.children, child.handler, child.methodHandlers, child.wildcard, null,
+                    child.patternChildren, child.counters);
+            String prefix = edge.substring(0, edgeOffset);
+
+            if (endOffset == endIndex)
+            {
+                updated = Node.withHandler(new Node<>(prefix, false, child.parameterNames, new Node<?>[]{suffix}, null), method, handler);
+            } else if (path.charAt(endOffset + 1) == '*')
+            {
+                Node<T> wildcard = Node.wildcard(path, endOffset + 1, endIndex, method, handler, child.parameterNames);
+                updated = new Node<>(prefix, false, child.parameterNames, new Node<?>[]{suffix}, null, null, wildcard);
+            } else
+            {
+                Node<T> chain = Node.chain(path, endOffset + 1, endIndex, method, handler, child.parameterNames);
+                updated = chain.segmentPattern != null
+                        ? new Node<>(prefix, false, child.parameterNames, new Node<?>[]{suffix}, null, null, null, null, new Node<?>[]{chain})
+                        : new Node<>(prefix, false, child.parameterNames, Node.insertChildrenOrdered((Node<T>[]) new Node<?>[]{suffix}, chain), null);
+            }
+        }
+
+        Node<T>[] children = Arrays.copyOf(node.children, node.children.length);
+        children[childOffset] = updated;
+
+        return Node.copy(node, children, node.handler, node.methodHandlers, node.wildcard, node.patternChildren);
+    }
+
+    /**
+     * Removes a route from a compressed tree by path copying.
+     *
+     * <p>Only the nodes on the path of the route are copied. Nodes left without a handler and without
+     * children are dropped, and a static node left without a handler and with a single static child
+     * is merged with it, so the result is compressed the same way as {@link #compress(Node)} would do.
+     * The root node is never dropped nor merged.
+     *
+     * @param node the node that matched the route up to {@code startOffset}
+     * @param path the route path, e.g. "/user/:id/profile", parameterized segments match regardless of their names
+     * @param startOffset start index of the next route segment, greater than {@code endIndex} if the route ends at {@code node}
+     * @param endIndex end index (exclusive) of the route path, without trailing delimiter
+     * @param method the request method of the handler to remove, or {@code null} for the method agnostic handler;
+     *               the other handlers of the route are kept
+     * @param isRoot true if {@code node} is the root of the tree
+     * @param <T> the handler type
+     * @return the copy of {@code node} without the route, {@code null} if {@code node} must be dropped,
+     *         or {@code node} itself if there is no such route
+     */
+    static <T> Node<T> remove(Node<T> node, String path, int startOffset, int endIndex, HttpMethod method, boolean isRoot)
+    {
+        if (startOffset > endIndex)
+        {
+            if (!Node.hasHandler(node, method))
+            {
+                return node;
+            }
+
+            return method == null
+                    ? Node.normalize(node, node.children, null, node.methodHandlers, node.wildcard, node.patternChildren, isRoot)
+                    : Node.normalize(node, node.children, node.handler, Node.withoutMethod(node.methodHandlers, method), node.wildcard, node.patternChildren, isRoot);
+        }
+
+        if (path.charAt(startOffset) == '*')
+        {
+            Node<T> wildcard = node.wildcard;
+
+            if (wildcard == null || !Node.hasHandler(wildcard, method))
+            {
+                return node;
+            }
+
+            T handler = method == null ? null : wildcard.handler;
+            Object[] methodHandlers = method == null ? wildcard.methodHandlers : Node.withoutMethod(wildcard.methodHandlers, method);
+
+            wildcard = handler != null || methodHandlers != null
+                    ? Node.copy(wildcard, wildcard.children, handler, methodHandlers, null, wildcard.patternChildren)
+                    : null;
+
+            return Node.normalize(node, node.children, node.handler, node.methodHandlers, wildcard, node.patternChildren, isRoot);
+        }
+
+        int endOffset = Node.indexOfDelimiter(path, startOffset, endIndex);
+
+        if (SegmentPattern.isPattern(path, startOffset, endOffset))
+        {
+            int patternOffset = Node.indexOfPattern(node.patternChildren, path, startOffset, endOffset);
+
+            if (patternOffset == -1)
+            {
+                return node;
+            }
+
+            Node<T> pattern = node.patternChildren[patternOffset];
+            Node<T> updated = Node.remove(pattern, path, endOffset + 1, endIndex, method, false);
+
+            if (updated == pattern)
+            {
+                return node;
+            }
+
+            Node<T>[] patterns;
+
+            if (updated != null)
+            {
+                patterns = Arrays.copyOf(node.patternChildren, node.patternChildren.length);
+                patterns[patternOffset] = updated;
+            } else
+            {
+                patterns = Node.removeChild(node.patternChildren, patternOffset);
+            }
+
+            return Node.normalize(node, node.children, node.handler, node.methodHandlers, node.wildcard, patterns, isRoot);
+        }
+
+        boolean isParameterized = path.charAt(startOffset) == ':';
+        int childOffset = isParameterized ? Node.indexOfParameterized(node.children) : Node.indexOfStatic(node.children, path, startOffset, endOffset);
+
+        if (childOffset == -1)
+        {
+            return node;
+        }
+
+        Node<T> child = node.children[childOffset];
+        String edge = child.pathSegment;
+
+        for (int edgeOffset = child.headLength; edgeOffset < edge.length(); )
+        {
+            if (endOffset == endIndex || Node.isCapturing(path.charAt(endOffset + 1)))
+            {
+                return node;
+            }
+
+            int nextEndOffset = Node.indexOfDelimiter(path, endOffset + 1, endIndex);
+            int nextEdgeOffset = Node.indexOfDelimiter(edge, edgeOffset + 1, edge.length());
+            int length = nextEndOffset - endOffset - 1;
+
+            if (nextEdgeOffset - edgeOffset - 1 != length || !path.regionMatches(endOffset + 1, edge, edgeOffset + 1, length))
+            {
+                return node;
+            }
+
+            edgeOffset = nextEdgeOffset;
+            endOffset = nextEndOffset;
+        }
+
+        Node<T> updated = Node.remove(child, path, endOffset + 1, endIndex, method, false);
+
+        if (updated == child)
+        {
+            return node;
+        }
+
+        Node<T>[] children;
+
+        if (updated != null)
+        {
+            children = Arrays.copyOf(node.children, node.children.length);
+            children[childOffset] = updated;
+        } else
+        {
+            children = Node.removeChild(node.children, childOffset);
+        }
+
+        return Node.normalize(node, children, node.handler, node.methodHandlers, node.wildcard, node.patternChildren, isRoot);
+    }
+
+    /**
+     * Creates a copy of the node with the given children and handler, keeping the tree compressed.
+     *
+     * @param node the node to copy
+     * @param children the children of the copy
+     * @param handler the method agnostic handler of the copy, may be null
+     * @param methodHandlers the method specific handlers of the copy, may be null
+     * @param wildcard the wildcard child of the copy, may be null
+     * @param patternChildren the pattern children of the copy
+     * @param isRoot true if {@code node} is the root of the tree, which is never dropped nor merged
+     * @param <T> the handler type
+     * @return the copy, possibly merged with its single child, or {@code null} if it must be dropped
+     */
+    private static <T> Node<T> normalize(Node<T> node, Node<T>[] children, T handler, Object[] methodHandlers, Node<T> wildcard, Node<T>[] patternChildren,
+                                         boolean isRoot)
+    {
+        if (!isRoot && handler == null && methodHandlers == null && wildcard == null && patternChildren.length == 0)
+        {
+            if (children.length == 0)
+            {
+                return null;
+            }
+
+            if (!node.isParameterized && node.segmentPattern == null && children.length == 1 && !children[0].isParameterized)
+            {
+                Node<T> child = children[0];
+                return new Node<>(node.pathSegment + '/' + child.pathSegment, false, child.parameterNames, child.children, child.handler, child.methodHandlers, child.wildcard, null,
+                        child.patternChildren, child.counters);
+            }
+        }
+
+        return Node.copy(node, children, handler, methodHandlers, wildcard, patternChildren);
+    }
+
+    /**
+     * @param node the node terminating a route
+     * @param method the request method, or {@code null} for the method agnostic handler
+     * @return {@code true} if the node has a handler for the method, without falling back to the method agnostic one
+     */
+    private static <T> boolean hasHandler(Node<T> node, HttpMethod method)
+    {
+        return method == null ? node.handler != null : node.methodHandlers != null && node.methodHandlers[method.ordinal()] != null;
+    }
+
+    /**
+     * Creates a copy of the node with the handler for the method, keeping its other handlers.
+     *
+     * @param node the node terminating the route
+     * @param method the request method served by the handler, or {@code null} for a method agnostic handler
+     * @param handler the handler of the route
+     * @param <T> the handler type
+     * @return the copy, or {@code node} itself if it already has a handler for the method
+     */
+    private static <T> Node<T> withHandler(Node<T> node, HttpMethod method, T handler)
+    {
+        if (Node.hasHandler(node, method))
+        {
+            return node;
+        }
+
+        if (method == null)
+        {
+            return Node.copy(node, node.children, handler, node.methodHandlers, node.wildcard, node.patternChildren);
+        }
+
+        Object[] methodHandlers = node.methodHandlers != null ? node.methodHandlers.clone() : new Object[HttpMethod.count()];
+        methodHandlers[method.ordinal()] = handler;
+
+        return Node.copy(node, node.children, node.handler, methodHandlers, node.wildcard, node.patternChildren);
+    }
+
+    /**
+     * @param methodHandlers the handlers indexed by {@link HttpMethod} ordinal
+     * @param method the request method whose handler is removed
+     * @return a copy of the handlers without the one of the method, or {@code null} if no handler is left
+     */
+    private static Object[] withoutMethod(Object[] methodHandlers, HttpMethod method)
+    {
+        Object[] remaining = methodHandlers.clone();
+        remaining[method.ordinal()] = null;
+
+        for (Object handler : remaining)
+        {
+            if (handler != null)
+            {
+                return remaining;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates a copy of the node with the given children and handlers, keeping its segment, constraint and lookup counters,
+     * so the counters of a route survive the updates of the tree, see {@link RouteMetrics}.
+     *
+     * @param node the node to copy
+     * @param children the children of the copy
+     * @param handler the method agnostic handler of the copy, may be null
+     * @param methodHandlers the method specific handlers of the copy, may be null
+     * @param wildcard the wildcard child of the copy, may be null
+     * @param patternChildren the pattern children of the copy
+     * @param <T> the handler type
+     * @return the copy
+     */
+    private static <T> Node<T> copy(Node<T> node, Node<T>[] children, T handler, Object[] methodHandlers, Node<T> wildcard, Node<T>[] patternChildren)
+    {
+        return new Node<>(node.pathSegment, node.isParameterized, node.parameterNames, children, handler, methodHandlers, wildcard, node.constraint, patternChildren,
+                node.counters);
+    }
+
+    /**
+     * Creates the compressed chain of nodes for the {@code [startOffset, endIndex)} part of a route:
+     * every run of static segments becomes a single edge and every parameterized or pattern segment a node of its own.
+     * A trailing wildcard segment becomes the wildcard child of the last node, so the chain cannot start with one.
+     *
+     * @param path the route path
+     * @param startOffset start index of the first segment of the chain
+     * @param endIndex end index (exclusive) of the route path, without trailing delimiter
+     * @param method the request method served by the handler, or {@code null} for a method agnostic handler
+     * @param handler the handler of the route, assigned to the last node of the chain
+     * @param parentNames the parameter names on the path to the parent of the chain
+     * @param <T> the handler type
+     * @return the first node of the chain
+     */
+    private static <T> Node<T> chain(String path, int startOffset, int endIndex, HttpMethod method, T handler, String[] parentNames)
+    {
+        int endOffset = Node.indexOfDelimiter(path, startOffset, endIndex);
+        boolean isPattern = SegmentPattern.isPattern(path, startOffset, endOffset);
+        boolean isParameterized = !isPattern && path.charAt(startOffset) == ':';
+        String[] parameterNames = parentNames;
+        ParameterConstraint constraint = null;
+        String pathSegment;
+
+        if (isPattern)
+        {
+            pathSegment = path.substring(startOffset, endOffset);
+            parameterNames = Node.appendParameterNames(parentNames, SegmentPattern.of(pathSegment).names());
+        } else if (isParameterized)
+        {
+            String segment = path.substring(startOffset + 1, endOffset);
+            pathSegment = ParameterConstraint.nameOf(segment);
+            constraint = ParameterConstraint.of(segment);
+            parameterNames = Node.appendParameterName(parentNames, pathSegment, true);
+        } else
+        {
+            while (endOffset != endIndex && !Node.isCapturing(path.charAt(endOffset + 1)))
+            {
+                int nextEndOffset = Node.indexOfDelimiter(path, endOffset + 1, endIndex);
+
+                if (SegmentPattern.isPattern(path, endOffset + 1, nextEndOffset))
+                {
+                    break;
+                }
+
+                endOffset = nextEndOffset;
+            }
+
+            pathSegment = path.substring(startOffset, endOffset);
+        }
+
+        if (endOffset == endIndex)
+        {
+            return Node.withHandler(new Node<>(pathSegment, isParameterized, parameterNames, Node.EMPTY_CHILDREN, null, null, null, constraint), method, handler);
+        }
+
+        if (path.charAt(endOffset + 1) == '*')
+        {
+            Node<T> wildcard = Node.wildcard(path, endOffset + 1, endIndex, method, handler, parameterNames);
+            return new Node<>(pathSegment, isParameterized, parameterNames, Node.EMPTY_CHILDREN, null, null, wildcard, constraint);
+        }
+
+        Node<T> child = Node.chain(path, endOffset + 1, endIndex, method, handler, parameterNames);
+
+        if (child.segmentPattern != null)
+        {
+            return new Node<>(pathSegment, isParameterized, parameterNames, Node.EMPTY_CHILDREN, null, null, null, constraint, new Node<?>[]{child});
+        }
+
+        return new Node<>(pathSegment, isParameterized, parameterNames, new Node<?>[]{child}, null, null, null, constraint);
+    }
+
+    /**
+     * Creates the wildcard child for the trailing {@code [startOffset, endIndex)} segment of a route, e.g. "*filepath".
+     *
+     * @param path the route path
+     * @param startOffset start index of the wildcard segment, i.e. of its '*' character
+     * @param endIndex end index (exclusive) of the route path, without trailing delimiter
+     * @param method the request method served by the handler, or {@code null} for a method agnostic handler
+     * @param handler the handler of the route
+     * @param parentNames the parameter names on the path to the parent of the wildcard
+     * @param <T> the handler type
+     * @return the wildcard node
+     */
+    private static <T> Node<T> wildcard(String path, int startOffset, int endIndex, HttpMethod method, T handler, String[] parentNames)
+    {
+        String name = HttpRouterConfiguration.wildcardName(path, startOffset, endIndex);
+        return Node.withHandler(new Node<>(name, true, Node.appendParameterName(parentNames, name, true), Node.EMPTY_CHILDREN, null), method, handler);
+    }
+
+    /**
+     * @return {@code true} if a route segment starting with the character captures a parameter, i.e. starts with ':' or '*'
+     */
+    private static boolean isCapturing(char ch)
+    {
+        return ch == ':' || ch == '*';
+    }
+
+    /**
+     * Finds the static child whose head equals the {@code [startOffset, endOffset)} region of the path.
+     *
+     * @param children the ordered children of a node
+     * @param path the path containing the region
+     * @param startOffset start index (inclusive) of the region
+     * @param endOffset end index (exclusive) of the region
+     * @param <T> the handler type
+     * @return the position of the child, or {@code -1} if there is none
+     */
+    private static <T> int indexOfStatic(Node<T>[] children, String path, int startOffset, int endOffset)
+    {
+        int low = 0;
+        int high = NodeChooser.countStatic(children) - 1;
+
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            Node<T> child = children[middle];
+            int comparison = NodeChooser.compareRegion(child.pathSegment, child.headLength, path, startOffset, endOffset);
+
+            if (comparison < 0)
+            {
+                low = middle + 1;
+            } else if (comparison > 0)
+            {
+                high = middle - 1;
+            } else
+            {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return the position of the parameterized child, which is always the last one, or {@code -1} if there is none
+     */
+    private static <T> int indexOfParameterized(Node<T>[] children)
+    {
+        int length = children.length;
+        return length != 0 && children[length - 1].isParameterized ? length - 1 : -1;
+    }
+
+    /**
+     * Finds the pattern child whose segment equals the {@code [startOffset, endOffset)} region of the route path.
+     *
+     * @return the position of the pattern child, or {@code -1} if there is none
+     */
+    private static <T> int indexOfPattern(Node<T>[] patterns, String path, int startOffset, int endOffset)
+    {
+        for (int offset = 0; offset < patterns.length; offset++)
+        {
+            String pathSegment = patterns[offset].pathSegment;
+
+            if (pathSegment.length() == endOffset - startOffset && path.startsWith(pathSegment, startOffset))
+            {
+                return offset;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Inserts a new pattern child while keeping the patterns ordered from the most to the least specific.
+     *
+     * @param patterns the existing pattern children
+     * @param pattern the new pattern child
+     * @param <T> the handler type
+     * @return a new array containing the old pattern children plus the inserted one
+     * @see SegmentPattern#compare(Node, Node)
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Node<T>[] insertPatternOrdered(Node<T>[] patterns, Node<T> pattern)
+    {
+        int insertOffset = 0;
+        while (insertOffset < patterns.length && SegmentPattern.compare(patterns[insertOffset], pattern) < 0)
+        {
+            insertOffset++;
+        }
+
+        Node<T>[] inserted = (Node<T>[]) new Node<?>[patterns.length + 1];
+        System.arraycopy(patterns, 0, inserted, 0, insertOffset);
+        inserted[insertOffset] = pattern;
+        System.arraycopy(patterns, insertOffset, inserted, insertOffset + 1, patterns.length - insertOffset);
+        return inserted;
+    }
+
+    /**
+     * @return a copy of the children without the one at {@code offset}
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] removeChild(Node<T>[] children, int offset)
+    {
+        if (children.length == 1)
+        {
+            return (Node<T>[]) Node.EMPTY_CHILDREN;
+        }
+
+        Node<T>[] remaining = (Node<T>[]) new Node<?>[children.length - 1];
+        System.arraycopy(children, 0, remaining, 0, offset);
+        System.arraycopy(children, offset + 1, remaining, offset, children.length - offset - 1);
+        return remaining;
+    }
+
+    /**
+     * Resolves the parameter names of a child node from the names of its parent.
+     *
+     * <p>Static children share the parent array as is, so the array is only copied
+     * when a new parameter is introduced on the path.
+     *
+     * @param parentNames the parameter names on the path to the parent node
+     * @param pathSegment the path segment of the child node
+     * @param isParameterized true if the child path segment is parameterized
+     * @return the parameter names on the path to the child node
+     */
+    static String[] appendParameterName(String[] parentNames, String pathSegment, boolean isParameterized)
+    {
+        if (!isParameterized)
+        {
+            return parentNames;
+        }
+
+        String[] names = Arrays.copyOf(parentNames, parentNames.length + 1);
+        names[parentNames.length] = pathSegment;
+        return names;
+    }
+
+    /**
+     * Resolves the parameter names of a pattern child from the names of its parent.
+     *
+     * @param parentNames the parameter names on the path to the parent node
+     * @param names the names of the parameters captured by the pattern
+     * @return the parameter names on the path to the pattern child
+     */
+    static String[] appendParameterNames(String[] parentNames, String[] names)
+    {
+        String[] appended = Arrays.copyOf(parentNames, parentNames.length + names.length);
+        System.arraycopy(names, 0, appended, parentNames.length, names.length);
+        return appended;
+    }
+
+    /**
+     * Constructs a new routing tree node without method specific handlers.
+     *
+     * @param pathSegment the path segment string this node represents
+     * @param isParameterized true if this path segment is parameterized
+     * @param parameterNames the ordered names of the parameters on the path to this node
+     * @param children the child nodes of this node
+     * @param handler the handler associated with this node, may be null
+     */
+    public Node(String pathSegment, boolean isParameterized, String[] parameterNames, Node<?>[] children, T handler)
+    {
+        this(pathSegment, isParameterized, parameterNames, children, handler, null);
+    }
+
+    /**
+     * Constructs a new routing tree node.
+     *
+     * @param pathSegment the path segment string this node represents
+     * @param isParameterized true if this path segment is parameterized
+     * @param parameterNames the ordered names of the parameters on the path to this node
+     * @param children the child nodes of this node
+     * @param handler the handler associated with this node regardless of the request method, may be null
+     * @param methodHandlers the handlers indexed by {@link HttpMethod} ordinal, may be null
+     */
+    public Node(String pathSegment, boolean isParameterized, String[] parameterNames, Node<?>[] children, T handler, Object[] methodHandlers)
+    {
+        this(pathSegment, isParameterized, parameterNames, children, handler, methodHandlers, null);
+    }
+
+    /**
+     * Constructs a new routing tree node with a wildcard child.
+     *
+     * @param pathSegment the path segment string this node represents
+     * @param isParameterized true if this path segment is parameterized
+     * @param parameterNames the ordered names of the parameters on the path to this node
+     * @param children the child nodes of this node
+     * @param handler the handler associated with this node regardless of the request method, may be null
+     * @param methodHandlers the handlers indexed by {@link HttpMethod} ordinal, may be null
+     * @param wildcard the leaf capturing the rest of the path when no child matches, may be null
+     */
+    public Node(String pathSegment, boolean isParameterized, String[] parameterNames, Node<?>[] children, T handler, Object[] methodHandlers, Node<T> wildcard)
+    {
+        this(pathSegment, isParameterized, parameterNames, children, handler, methodHandlers, wildcard, null);
+    }
+
+    /**
+     * Constructs a new routing tree node, restricting the values of a parameterized segment.
+     *
+     * @param pathSegment the path segment string this node represents, the parameter name if parameterized
+     * @param isParameterized true if this path segment is parameterized
+     * @param parameterNames the ordered names of the parameters on the path to this node
+     * @param children the child nodes of this node
+     * @param handler the handler associated with this node regardless of the request method, may be null
+     * @param methodHandlers the handlers indexed by {@link HttpMethod} ordinal, may be null
+     * @param wildcard the leaf capturing the rest of the path when no child matches, may be null
+     * @param constraint the constraint of the parameterized segment, may be null
+     */
+    public Node(String pathSegment, boolean isParameterized, String[] parameterNames, Node<?>[] children, T handler, Object[] methodHandlers, Node<T> wildcard,
+                ParameterConstraint constraint)
+    {
+        this(pathSegment, isParameterized, parameterNames, children, handler, methodHandlers, wildcard, constraint, EMPTY_CHILDREN);
+    }
+
+    /**
+     * Constructs a new routing tree node with pattern children.
+     *
+     * <p>A static node whose segment mixes literal text and parameters, e.g. "v:version", is a pattern node:
+     * its {@link SegmentPattern} is compiled from the segment here, once.
+     *
+     * @param pathSegment the path segment string this node represents, the parameter name if parameterized
+     * @param isParameterized true if this path segment is parameterized
+     * @param parameterNames the ordered names of the parameters on the path to this node
+     * @param children the child nodes of this node
+     * @param handler the handler associated with this node regardless of the request method, may be null
+     * @param methodHandlers the handlers indexed by {@link HttpMethod} ordinal, may be null
+     * @param wildcard the leaf capturing the rest of the path when no child matches, may be null
+     * @param constraint the constraint of the parameterized segment, may be null
+     * @param patternChildren the pattern child nodes of this node, ordered from the most to the least specific
+     */
+    public Node(String pathSegment, boolean isParameterized, String[] parameterNames, Node<?>[] children, T handler, Object[] methodHandlers, Node<T> wildcard,
+                ParameterConstraint constraint, Node<?>[] patternChildren)
+    {
+        this(pathSegment, isParameterized, parameterNames, children, handler, methodHandlers, wildcard, constraint, patternChildren,
+                RouteMetrics.IS_ENABLED ? new RouteMetrics.Counters() : null);
+    }
+
+    /**
+     * Constructs a new routing tree node taking over the lookup counters of the node it replaces, see {@link #copy}.
+     *
+     * @param pathSegment the path segment string this node represents, the parameter name if parameterized
+     * @param isParameterized true if this path segment is parameterized
+     * @param parameterNames the ordered names of the parameters on the path to this node
+     * @param children the child nodes of this node
+     * @param handler the handler associated with this node regardless of the request method, may be null
+     * @param methodHandlers the handlers indexed by {@link HttpMethod} ordinal, may be null
+     * @param wildcard the leaf capturing the rest of the path when no child matches, may be null
+     * @param constraint the constraint of the parameterized segment, may be null
+     * @param patternChildren the pattern child nodes of this node, ordered from the most to the least specific
+     * @param counters the lookup counters of the node, {@code null} if instrumentation is disabled
+     */
+    @SuppressWarnings("unchecked")
+    private Node(String pathSegment, boolean isParameterized, String[] parameterNames, Node<?>[] children, T handler, Object[] methodHandlers, Node<T> wildcard,
+                 ParameterConstraint constraint, Node<?>[] patternChildren, RouteMetrics.Counters counters)
+    {
+        this.pathSegment = pathSegment;
+        this.headLength = Node.indexOfDelimiter(pathSegment, 0, pathSegment.length());
+        this.headHash = Node.hashRegion(pathSegment, 0, this.headLength);
+        this.isParameterized = isParameterized;
+        this.constraint = constraint;
+        this.parameterNames = parameterNames;
+        this.children = (Node<T>[]) children;
+        this.lookupStrategy = NodeChooser.strategyOf(this.children);
+        this.hashedChildren = NodeChooser.hashChildren(this.children);
+        this.handler = handler;
+        this.methodHandlers = methodHandlers;
+        this.allowedMethods = Node.allowedMethods(methodHandlers);
+        this.wildcard = wildcard;
+        this.patternChildren = (Node<T>[]) patternChildren;
+        this.segmentPattern = !isParameterized && SegmentPattern.isPattern(pathSegment, 0, pathSegment.length()) ? SegmentPattern.of(pathSegment) : null;
+        this.counters = counters;
+    }
+
+    /**
+     * Collects the methods having a handler, computed once per node so that reporting
+     * a disallowed method does not allocate.
+     *
+     * @param methodHandlers the handlers indexed by {@link HttpMethod} ordinal, may be null
+     * @return the immutable set of methods having a handler, or {@code null} if {@code methodHandlers} is null
+     */
+    private static Set<HttpMethod> allowedMethods(Object[] methodHandlers)
+    {
+        if (methodHandlers == null)
+        {
+            return null;
+        }
+
+        Set<HttpMethod> methods = EnumSet.noneOf(HttpMethod.class);
+        for (int ordinal = 0; ordinal < methodHandlers.length; ordinal++)
+        {
+            if (methodHandlers[ordinal] != null)
+            {
+                methods.add(HttpMethod.of(ordinal));
+            }
+        }
+
+        return Collections.unmodifiableSet(methods);
+    }
+
+    /**
+     * Resolves the handler of the node for the request method, falling back to the method agnostic handler.
+     *
+     * @param method the request method, or {@code null} to resolve the method agnostic handler only
+     * @return the handler, or {@code null} if the node has none for the method
+     */
+    @SuppressWarnings("unchecked")
+    T handler(HttpMethod method)
+    {
+        if (method != null && this.methodHandlers != null)
+        {
+            Object handler = this.methodHandlers[method.ordinal()];
+            if (handler != null)
+            {
+                return (T) handler;
+            }
+        }
+
+        return this.handler;
+    }
+
+    /**
+     * Tests if the parameterized node captures the {@code [startOffset, endOffset)} segment of the request path.
+     *
+     * @param path the request path
+     * @param startOffset start index (inclusive) of the segment
+     * @param endOffset end index (exclusive) of the segment
+     * @return {@code true} if the node has no constraint or the segment satisfies it
+     */
+    boolean accepts(String path, int startOffset, int endOffset)
+    {
+        return this.constraint == null || this.constraint.matches(path, startOffset, endOffset);
+    }
+
+    /**
+     * Byte-level counterpart of {@link #accepts(String, int, int)}.
+     */
+    boolean accepts(byte[] path, int startOffset, int endOffset)
+    {
+        return this.constraint == null || this.constraint.matches(path, startOffset, endOffset);
+    }
+
+    /**
+     * @return {@code true} if the node terminates a route, with or without method specific handlers
+     */
+    boolean hasHandlers()
+    {
+        return this.handler != null || this.methodHandlers != null;
     }
 
     @Override
@@ -1,13 +1,157 @@
 package io.peanut.routing;
 
-import java.util.Objects;
-
 /**
  * Helper class used to find the required child {@link Node} while matching a path.
+ *
+ * <p>The lookup strategy is picked per node when the node is created, based on its static children count:
+ * <ul>
+ *   <li>small nodes are scanned linearly, which is the cheapest option for a few children,</li>
+ *   <li>mid-size nodes (at least {@link #BINARY_SEARCH_THRESHOLD} static children) are binary searched,
+ *       relying on the lexicographic order of the static children and comparing the request
+ *       segment region in place,</li>
+ *   <li>wide nodes (at least {@link #HASHED_CHILDREN_THRESHOLD} static children) are probed through
+ *       an open-addressing hash table precomputed when the node is created, keyed by the same
+ *       polynomial hash as {@link String#hashCode()} so the request segment is hashed in place
+ *       without allocating a substring.</li>
+ * </ul>
+ *
+ * <p>Children are always looked up by their head, i.e. the first segment of a compressed edge;
+ * the remaining segments of the edge are verified by {@link #matchTail(Node, String, int, int)}.
+ *
+ * <p>Every lookup also has a byte-level overload matching raw request bytes, each byte being read as
+ * an ISO-8859-1 character. Request targets are ASCII per RFC 3986, so they compare the same as their
+ * decoded {@link String} form.
  * @see Node
  */
 final class NodeChooser
 {
+    static final byte LINEAR_SEARCH = 0;
+    static final byte BINARY_SEARCH = 1;
+    static final byte HASH_SEARCH = 2;
+
+    /**
+     * Minimal count of static children starting from which a node is binary searched.
+     */
+    static final int BINARY_SEARCH_THRESHOLD = 8;
+    /**
+     * Minimal count of static children starting from which a node gets a hash table.
+     */
+    static final int HASHED_CHILDREN_THRESHOLD = 32;
+
+    /**
+     * Picks the lookup strategy for a node with the given children.
+     *
+     * @param children the ordered children of the node
+     * @param <T>      handler type associated with the node
+     * @return one of {@link #LINEAR_SEARCH}, {@link #BINARY_SEARCH} or {@link #HASH_SEARCH}
+     */
+    static <T> byte strategyOf(Node<T>[] children)
+    {
+        int staticCount = NodeChooser.countStatic(children);
+
+        if (staticCount >= HASHED_CHILDREN_THRESHOLD)
+        {
+            return HASH_SEARCH;
+        }
+
+        return staticCount >= BINARY_SEARCH_THRESHOLD ? BINARY_SEARCH : LINEAR_SEARCH;
+    }
+
+    /**
+     * Builds the open-addressing hash table of the static children, if the node is wide enough.
+     *
+     * <p>The table length is a power of two at least twice the static children count,
+     * so that linear probing sequences stay short.
+     *
+     * @param children the ordered children of the node
+     * @param <T>      handler type associated with the node
+     * @return the hash table slots, or {@code null} if the node is not searched by hash
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Node<T>[] hashChildren(Node<T>[] children)
+    {
+        if (NodeChooser.strategyOf(children) != HASH_SEARCH)
+        {
+            return null;
+        }
+
+        int staticCount = NodeChooser.countStatic(children);
+
+        Node<T>[] slots = (Node<T>[]) new Node<?>[Integer.highestOneBit(staticCount) << 2];
+        int mask = slots.length - 1;
+
+        for (int offset = 0; offset < staticCount; offset++)
+        {
+            Node<T> child = children[offset];
+            int slot = NodeChooser.spread(child.headHash) & mask;
+
+            while (slots[slot] != null)
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            slots[slot] = child;
+        }
+
+        return slots;
+    }
+
+    /**
+     * Counts the static children, which are always stored before the parameterized one.
+     *
+     * @param children the ordered children of the node
+     * @param <T>      handler type associated with the node
+     * @return the count of static children
+     */
+    static <T> int countStatic(Node<T>[] children)
+    {
+        int length = children.length;
+        return length != 0 && children[length - 1].isParameterized ? length - 1 : length;
+    }
+
+    /**
+     * Spreads higher bits of the hash downwards, as the table index only uses the lower ones.
+     */
+    static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Probes the precomputed hash table of a wide node for the child {@link Node}
+     * whose {@code pathSegment} matches the selected segment of the target path.
+     *
+     * @param slots        hash table slots built by {@link #hashChildren(Node[])}
+     * @param startOffset  start index (inclusive) of the path segment in {@code targetPath}
+     * @param endOffset    end index (exclusive) of the path segment in {@code targetPath}
+     * @param targetPath   full path to extract the segment from
+     * @param <T>          handler type associated with the node
+     * @return matching {@link Node} if found, or {@code null} otherwise
+     */
+    private static <T> Node<T> hashSearch(Node<T>[] slots, int startOffset, int endOffset, String targetPath)
+    {
+        int segmentLength = endOffset - startOffset;
+
+        int hash = Node.hashRegion(targetPath, startOffset, endOffset);
+        int mask = slots.length - 1;
+
+        for (int slot = NodeChooser.spread(hash) & mask; ; slot = (slot + 1) & mask)
+        {
+            Node<T> child = slots[slot];
+
+            if (child == null)
+            {
+                return null;
+            }
+
+            if (child.headHash == hash && child.headLength == segmentLength
+                    && targetPath.regionMatches(startOffset, child.pathSegment, 0, segmentLength))
+            {
+                return child;
+            }
+        }
+    }
+
     /**
      * Performs a linear search through the child nodes to locate a {@link Node}
      * whose {@code pathSegment} matches the selected segment of the target path.
@@ -27,7 +171,7 @@ final class NodeChooser
         for (Node<T> child : children)
         {
             String childPath = child.pathSegment;
-            int childPathLength = childPath.length();
+            int childPathLength = child.headLength;
             boolean optimisticEquality;
 
             if (isPopulatedSegment)
@@ -49,6 +193,71 @@ final class NodeChooser
         return null;
     }
 
+    /**
+     * Performs a binary search through the lexicographically ordered static child nodes
+     * to locate a {@link Node} whose {@code pathSegment} matches the selected segment of the target path.
+     *
+     * @param children     array of child nodes to search
+     * @param startOffset  start index (inclusive) of the path segment in {@code targetPath}
+     * @param endOffset    end index (exclusive) of the path segment in {@code targetPath}
+     * @param targetPath   full path to extract the segment from
+     * @param <T>          handler type associated with the node
+     * @return matching {@link Node} if found, or {@code null} otherwise
+     */
+    private static <T> Node<T> binarySearch(Node<T>[] children, int startOffset, int endOffset, String targetPath)
+    {
+        int low = 0;
+        int high = NodeChooser.countStatic(children) - 1;
+
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            Node<T> child = children[middle];
+            int comparison = NodeChooser.compareRegion(child.pathSegment, child.headLength, targetPath, startOffset, endOffset);
+
+            if (comparison < 0)
+            {
+                low = middle + 1;
+            } else if (comparison > 0)
+            {
+                high = middle - 1;
+            } else
+            {
+                return child;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Compares the head of the path segment with the {@code [startOffset, endOffset)} region of the target path
+     * the same way {@link String#compareTo(String)} would compare the head with the region substring.
+     *
+     * @param pathSegment  the node path segment
+     * @param headLength   the length of the first segment of {@code pathSegment}
+     * @param targetPath   full path containing the region
+     * @param startOffset  start index (inclusive) of the region
+     * @param endOffset    end index (exclusive) of the region
+     * @return a negative, zero or positive value as the head is less than, equal to or greater than the region
+     */
+    static int compareRegion(String pathSegment, int headLength, String targetPath, int startOffset, int endOffset)
+    {
+        int regionLength = endOffset - startOffset;
+        int limit = Math.min(headLength, regionLength);
+
+        for (int offset = 0; offset < limit; offset++)
+        {
+            int difference = pathSegment.charAt(offset) - targetPath.charAt(startOffset + offset);
+            if (difference != 0)
+            {
+                return difference;
+            }
+        }
+
+        return headLength - regionLength;
+    }
+
     /**
      * Selects a parameterized child node from the given children array, if one exists.
      *
@@ -59,39 +268,242 @@ final class NodeChooser
      * @param <T>      handler type associated with the node
      * @return parameterized {@link Node} if found, or {@code null} otherwise
      */
-    private static <T> Node<T> pickParameterized(Node<T>[] children)
+    static <T> Node<T> pickParameterized(Node<T>[] children)
     {
-        Node<T> tail = children[children.length - 1];
-        return tail.isParameterized ? tail : null;
+        int length = children.length;
+        return length != 0 && children[length - 1].isParameterized ? children[length - 1] : null;
     }
 
     /**
-     * Finds the matching child {@link Node} in children list by specified segment of the path.
-     *
-     * @apiNote Parameterized nodes are conventionally stored as the last element in the array.
-     * @see Node#insertChildrenOrdered(Node[], Node)
+     * Finds the static child {@link Node} of the parent whose head matches the specified segment of the path,
+     * leaving the parameterized child out, so that a backtracking lookup can try it separately.
      *
-     * @param children     array of child nodes
+     * @param parent       the node whose children are searched
      * @param startOffset  start index (inclusive) of the path segment in {@code targetPath}
      * @param endOffset    end index (exclusive) of the path segment in {@code targetPath}
      * @param targetPath   full path from which to extract the segment
      * @param <T>          handler type associated with the node
-     * @return a matching {@link Node}, or {@code null} if no match is found
+     * @return the matching static {@link Node}, or {@code null} if no match is found
+     */
+    static <T> Node<T> chooseStatic(Node<T> parent, int startOffset, int endOffset, String targetPath)
+    {
+        Node<T>[] children = parent.children;
+
+        if (children == Node.EMPTY_CHILDREN)
+        {
+            return null;
+        }
+
+        Node<T> node = switch (parent.lookupStrategy)
+        {
+            case HASH_SEARCH -> NodeChooser.hashSearch(parent.hashedChildren, startOffset, endOffset, targetPath);
+            case BINARY_SEARCH -> NodeChooser.binarySearch(children, startOffset, endOffset, targetPath);
+            default -> NodeChooser.linearSearch(children, startOffset, endOffset, targetPath);
+        };
+
+        // The linear scan also compares the name of the parameterized child.
+        return node != null && !node.isParameterized ? node : null;
+    }
+
+    /**
+     * Matches the tail of a compressed edge, i.e. the segments following its head,
+     * against the target path right after the head region.
+     *
+     * @param node         the node whose head matched the region ending at {@code endOffset}
+     * @param targetPath   full path being matched
+     * @param endOffset    end index (exclusive) of the region matched by the node head
+     * @param endIndex     end index (exclusive) of the whole path, without trailing delimiter
+     * @param <T>          handler type associated with the node
+     * @return end index (exclusive) of the region matched by the whole edge, or {@code -1} if the tail does not match
+     */
+    static <T> int matchTail(Node<T> node, String targetPath, int endOffset, int endIndex)
+    {
+        String pathSegment = node.pathSegment;
+        int tailLength = pathSegment.length() - node.headLength;
+
+        if (tailLength == 0)
+        {
+            return endOffset;
+        }
+
+        int tailEndOffset = endOffset + tailLength;
+
+        if (tailEndOffset > endIndex || !targetPath.regionMatches(endOffset, pathSegment, node.headLength, tailLength))
+        {
+            return -1;
+        }
+
+        return tailEndOffset == endIndex || targetPath.charAt(tailEndOffset) == '/' ? tailEndOffset : -1;
+    }
+
+    /**
+     * Byte-level counterpart of {@link #hashSearch(Node[], int, int, String)}.
+     */
+    private static <T> Node<T> hashSearch(Node<T>[] slots, int startOffset, int endOffset, byte[] targetPath)
+    {
+        int segmentLength = endOffset - startOffset;
+
+        int hash = Node.hashRegion(targetPath, startOffset, endOffset);
+        int mask = slots.length - 1;
+
+        for (int slot = NodeChooser.spread(hash) & mask; ; slot = (slot + 1) & mask)
+        {
+            Node<T> child = slots[slot];
+
+            if (child == null)
+            {
+                return null;
+            }
+
+            if (child.headHash == hash && child.headLength == segmentLength
+                    && NodeChooser.regionMatches(targetPath, startOffset, child.pathSegment, 0, segmentLength))
+            {
+                return child;
+            }
+        }
+    }
+
+    /**
+     * Byte-level counterpart of {@link #linearSearch(Node[], int, int, String)}.
+     */
+    private static <T> Node<T> linearSearch(Node<T>[] children, int startOffset, int endOffset, byte[] targetPath)
+    {
+        int segmentLength = endOffset - startOffset;
+
+        for (Node<T> child : children)
+        {
+            if (child.headLength == segmentLength && NodeChooser.regionMatches(targetPath, startOffset, child.pathSegment, 0, segmentLength))
+            {
+                return child;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Byte-level counterpart of {@link #binarySearch(Node[], int, int, String)}.
+     */
+    private static <T> Node<T> binarySearch(Node<T>[] children, int startOffset, int endOffset, byte[] targetPath)
+    {
+        int low = 0;
+        int high = NodeChooser.countStatic(children) - 1;
+        int regionLength = endOffset - startOffset;
+
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            Node<T> child = children[middle];
+
+            String pathSegment = child.pathSegment;
+            int headLength = child.headLength;
+            int limit = Math.min(headLength, regionLength);
+            int comparison = headLength - regionLength;
+
+            for (int offset = 0; offset < limit; offset++)
+            {
+                int difference = pathSegment.charAt(offset) - (targetPath[startOffset + offset] & 0xFF);
+                if (difference != 0)
+                {
+                    comparison = difference;
+                    break;
+                }
+            }
+
+            if (comparison < 0)
+            {
+                low = middle + 1;
+            } else if (comparison > 0)
+            {
+                high = middle - 1;
+            } else
+            {
+                return child;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Tests if the bytes region, read as ISO-8859-1 characters, equals the region of the path segment.
+     *
+     * @param targetPath     the bytes containing the first region
+     * @param startOffset    start index (inclusive) of the first region
+     * @param pathSegment    the path segment containing the second region
+     * @param segmentOffset  start index (inclusive) of the second region
+     * @param length         the number of characters to compare
+     * @return {@code true} if both regions are equal
+     */
+    static boolean regionMatches(byte[] targetPath, int startOffset, String pathSegment, int segmentOffset, int length)
+    {
+        for (int offset = 0; offset < length; offset++)
+        {
+            if ((targetPath[startOffset + offset] & 0xFF) != pathSegment.charAt(segmentOffset + offset))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Byte-level counterpart of {@link #chooseStatic(Node, int, int, String)}.
+     *
+     * @param parent       the node whose children are searched
+     * @param startOffset  start index (inclusive) of the path segment in {@code targetPath}
+     * @param endOffset    end index (exclusive) of the path segment in {@code targetPath}
+     * @param targetPath   raw path bytes from which to extract the segment
+     * @param <T>          handler type associated with the node
+     * @return the matching static {@link Node}, or {@code null} if no match is found
      */
-    public static <T> Node<T> choose(Node<T>[] children, int startOffset, int endOffset, String targetPath)
+    static <T> Node<T> chooseStatic(Node<T> parent, int startOffset, int endOffset, byte[] targetPath)
     {
+        Node<T>[] children = parent.children;
+
         if (children == Node.EMPTY_CHILDREN)
         {
             return null;
         }
 
-        Node<T> node = NodeChooser.linearSearch(children, startOffset, endOffset, targetPath);
+        Node<T> node = switch (parent.lookupStrategy)
+        {
+            case HASH_SEARCH -> NodeChooser.hashSearch(parent.hashedChildren, startOffset, endOffset, targetPath);
+            case BINARY_SEARCH -> NodeChooser.binarySearch(children, startOffset, endOffset, targetPath);
+            default -> NodeChooser.linearSearch(children, startOffset, endOffset, targetPath);
+        };
+
+        return node != null && !node.isParameterized ? node : null;
+    }
+
+    /**
+     * Byte-level counterpart of {@link #matchTail(Node, String, int, int)}.
+     *
+     * @param node         the node whose head matched the region ending at {@code endOffset}
+     * @param targetPath   raw path bytes being matched
+     * @param endOffset    end index (exclusive) of the region matched by the node head
+     * @param endIndex     end index (exclusive) of the whole path, without trailing delimiter
+     * @param <T>          handler type associated with the node
+     * @return end index (exclusive) of the region matched by the whole edge, or {@code -1} if the tail does not match
+     */
+    static <T> int matchTail(Node<T> node, byte[] targetPath, int endOffset, int endIndex)
+    {
+        String pathSegment = node.pathSegment;
+        int tailLength = pathSegment.length() - node.headLength;
+
+        if (tailLength == 0)
+        {
+            return endOffset;
+        }
+
+        int tailEndOffset = endOffset + tailLength;
 
-        if (Objects.isNull(node))
+        if (tailEndOffset > endIndex || !NodeChooser.regionMatches(targetPath, endOffset, pathSegment, node.headLength, tailLength))
         {
-            node = NodeChooser.pickParameterized(children);
+            return -1;
         }
 
-        return node;
+        return tailEndOffset == endIndex || targetPath[tailEndOffset] == '/' ? tailEndOffset : -1;
     }
 }
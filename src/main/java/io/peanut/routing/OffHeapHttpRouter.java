@@ -0,0 +1,156 @@
+package io.peanut.routing;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * OffHeapHttpRouter is a routing engine that resolves HTTP request paths against the
+ * array-encoded form of the {@link Node} tree stored outside of the Java heap.
+ *
+ * <p>The node records, the hash tables of wide nodes and the packed segment bytes produced for
+ * {@link CompiledHttpRouter} are copied into a single native {@link MemorySegment}:
+ * <pre>
+ * [ int table: node records | hash tables ][ ISO-8859-1 segment bytes ]
+ * </pre>
+ * The lookup is the traversal of {@link CompiledHttpRouter}, reading the segment with
+ * {@link ValueLayout#JAVA_INT_UNALIGNED} in little-endian byte order, so multi-megabyte routing
+ * metadata of large generated route sets is neither scanned nor copied by the garbage collector.
+ * Only the handlers and the interned parameter names, which must be returned as objects, stay on the heap.
+ *
+ * <p>The storage is allocated by an automatic {@link Arena}, so it is released once the router is garbage
+ * collected. It may also be a memory-mapped file produced by {@link RouteIndex#write(HttpRouterConfiguration, java.nio.file.Path)}.
+ *
+ * <p>The storage is read-only once the router is created and may be shared by any number of threads.
+ * Routing semantics are those of {@link CompiledHttpRouter}: there is no static route table nor result cache,
+ * and method specific routes, wildcard routes, constrained parameters and pattern segments cannot be compiled.
+ *
+ * @param <T> the type of handler associated with the routes
+ * @see HttpRouterFactory#compileOffHeap(HttpRouterConfiguration)
+ */
+public final class OffHeapHttpRouter<T>
+{
+    /**
+     * Layout of the ints of the table, in the byte order of {@link RouteIndex} files.
+     */
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final CompiledHttpRouter<T> router;
+
+    private OffHeapHttpRouter()
+    {
+        throw new UnsupportedOperationException("Instantiation Restricted");
+    }
+
+    OffHeapHttpRouter(HttpRouterConfiguration<T> configuration)
+    {
+        this(new CompiledHttpRouter.Compiler<>(Node.compress(configuration.freeze())), configuration.maxParameterCount);
+    }
+
+    private OffHeapHttpRouter(CompiledHttpRouter.Compiler<T> compiler, int maxParameterCount)
+    {
+        this(OffHeapHttpRouter.allocate(compiler.table, compiler.segments), (long) compiler.table.length << 2,
+                compiler.handlers.toArray(), compiler.parameterNames.toArray(new String[0][]), maxParameterCount);
+    }
+
+    /**
+     * Creates a router over already populated storage, e.g. a mapped route index.
+     *
+     * @param storage           the table ints followed by the segment bytes, in little-endian byte order
+     * @param segmentsOffset    the offset of the first segment byte in {@code storage}
+     * @param handlers          the handlers, in handler order
+     * @param parameterNames    the interned parameter names, in table order
+     * @param maxParameterCount the parameter count of the deepest parameterized route
+     * @see RouteIndex#open(java.nio.file.Path, java.util.function.Function)
+     */
+    OffHeapHttpRouter(MemorySegment storage, long segmentsOffset, Object[] handlers, String[][] parameterNames, int maxParameterCount)
+    {
+        this.router = new CompiledHttpRouter<>(new SegmentStorage(storage, segmentsOffset), handlers, parameterNames, maxParameterCount);
+    }
+
+    /**
+     * Copies the compiled table and segments into a new native segment.
+     *
+     * @param table    the compiled node records and hash tables
+     * @param segments the packed segment bytes
+     * @return the off-heap storage
+     */
+    private static MemorySegment allocate(int[] table, byte[] segments)
+    {
+        long tableSize = (long) table.length << 2;
+        MemorySegment storage = Arena.ofAuto().allocate(tableSize + segments.length, Integer.BYTES);
+
+        MemorySegment.copy(table, 0, storage, INT, 0, table.length);
+        MemorySegment.copy(segments, 0, storage, ValueLayout.JAVA_BYTE, tableSize, segments.length);
+        return storage;
+    }
+
+    /**
+     * Routes the given request path to a handler.
+     *
+     * @param requestPath the HTTP request path to route (must not be null or empty)
+     * @return a {@link RouteResult} containing the matched handler and parameters
+     * @throws NullPointerException if {@code requestPath} is null
+     * @see CompiledHttpRouter#route(String)
+     */
+    public RouteResult<T> route(String requestPath)
+    {
+        return this.router.route(requestPath);
+    }
+
+    /**
+     * Routes the given request path to a handler, filling the caller-owned {@link RouteMatch}.
+     *
+     * @param requestPath the HTTP request path to route (must not be null or empty)
+     * @param match       the reusable match to fill
+     * @return {@code true} if a handler was found, {@code false} otherwise
+     * @throws NullPointerException if {@code requestPath} or {@code match} is null
+     * @see CompiledHttpRouter#route(String, RouteMatch)
+     */
+    public boolean route(String requestPath, RouteMatch<T> match)
+    {
+        return this.router.route(requestPath, match);
+    }
+
+    /**
+     * @return the number of bytes of routing metadata stored off-heap
+     */
+    public long getStorageSize()
+    {
+        return this.router.storageSize();
+    }
+
+    /**
+     * Storage navigating a native segment in place.
+     */
+    static final class SegmentStorage extends CompiledHttpRouter.Storage
+    {
+        private final MemorySegment storage;
+        private final long segmentsOffset;
+
+        SegmentStorage(MemorySegment storage, long segmentsOffset)
+        {
+            this.storage = storage;
+            this.segmentsOffset = segmentsOffset;
+        }
+
+        @Override
+        int read(int index)
+        {
+            return this.storage.get(INT, (long) index << 2);
+        }
+
+        @Override
+        int segment(int offset)
+        {
+            return this.storage.get(ValueLayout.JAVA_BYTE, this.segmentsOffset + offset) & 0xFF;
+        }
+
+        @Override
+        long size()
+        {
+            return this.storage.byteSize();
+        }
+    }
+}
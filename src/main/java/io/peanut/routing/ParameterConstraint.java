@@ -0,0 +1,350 @@
+package io.peanut.routing;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Constraint restricting the values a parameterized segment matches, e.g. {@code :id<int>}.
+ *
+ * <p>Supported constraints:
+ * <ul>
+ *   <li>{@code <int>} - an optionally negative decimal number fitting a {@code long}, e.g. {@code 42} or {@code -7},</li>
+ *   <li>{@code <uuid>} - a hyphenated hexadecimal UUID of either case, e.g. {@code 123e4567-e89b-12d3-a456-426614174000},</li>
+ *   <li>{@code <en|de|fr>} - any other text is a list of the exact values allowed, separated by '|'.</li>
+ * </ul>
+ *
+ * <p>Values are checked in place over the {@code [startOffset, endOffset)} region of the request path,
+ * by plain character range comparisons: matching never allocates, whether the path is a {@link String}
+ * or raw bytes read as ISO-8859-1 characters.
+ */
+final class ParameterConstraint
+{
+    private static final byte INT = 0;
+    private static final byte UUID = 1;
+    private static final byte ENUM = 2;
+
+    // Length of the hyphenated form, and the positions of its hyphens.
+    private static final int UUID_LENGTH = 36;
+    private static final long UUID_HYPHENS = 1L << 8 | 1L << 13 | 1L << 18 | 1L << 23;
+
+    private final byte type;
+    private final String[] options;
+    private final String expression;
+
+    private ParameterConstraint(byte type, String[] options, String expression)
+    {
+        this.type = type;
+        this.options = options;
+        this.expression = expression;
+    }
+
+    /**
+     * Parses the constraint of a parameterized route segment.
+     *
+     * @param segment the segment without the leading ':', e.g. "id&lt;int&gt;" or "id"
+     * @return the constraint, or {@code null} if the segment is not constrained
+     * @throws IllegalArgumentException if the constraint is not closed at the end of the segment, is empty,
+     *         lists an empty value or a value containing '&lt;' or '&gt;'
+     */
+    static ParameterConstraint of(String segment)
+    {
+        int startOffset = segment.indexOf('<');
+
+        if (startOffset == -1)
+        {
+            return null;
+        }
+
+        // The expression is taken up to the closing '>' of the segment, so it cannot contain another bracket.
+        int endOffset = segment.length() - 1;
+
+        if (endOffset <= startOffset || segment.charAt(endOffset) != '>' || segment.indexOf('<', startOffset + 1) != -1
+                || segment.indexOf('>', startOffset + 1) != endOffset)
+        {
+            throw new IllegalArgumentException("Unable to proceed invalid constraint of segment ':" + segment + "'");
+        }
+
+        String expression = segment.substring(startOffset + 1, endOffset);
+
+        return switch (expression)
+        {
+            case "int" -> new ParameterConstraint(INT, null, expression);
+            case "uuid" -> new ParameterConstraint(UUID, null, expression);
+            default ->
+            {
+                String[] options = expression.split("\\|", -1);
+
+                for (String option : options)
+                {
+                    if (option.isEmpty())
+                    {
+                        throw new IllegalArgumentException("Unable to proceed constraint '<" + expression + ">' with an empty value");
+                    }
+                }
+
+                yield new ParameterConstraint(ENUM, options, expression);
+            }
+        };
+    }
+
+    /**
+     * @param segment the segment without the leading ':', e.g. "id&lt;int&gt;"
+     * @return the parameter name, i.e. the segment without its constraint
+     */
+    static String nameOf(String segment)
+    {
+        int endOffset = segment.indexOf('<');
+        return endOffset != -1 ? segment.substring(0, endOffset) : segment;
+    }
+
+    /**
+     * Ensures a parameterized route segment does not redefine the constraint of the existing parameterized node
+     * of its level, as only one parameterized node is allowed per level.
+     *
+     * @param name the parameter name of the existing node
+     * @param constraint the constraint of the existing node, may be null
+     * @param segment the route segment without the leading ':', e.g. "id&lt;int&gt;"
+     * @throws IllegalArgumentException if the segment has another constraint than the existing node
+     */
+    static void checkSame(String name, ParameterConstraint constraint, String segment)
+    {
+        if (!Objects.equals(constraint, ParameterConstraint.of(segment)))
+        {
+            throw new IllegalArgumentException("Unable to proceed segment ':" + segment + "' conflicting with ':"
+                    + name + (constraint != null ? constraint : "") + "'");
+        }
+    }
+
+    /**
+     * Tests if the {@code [startOffset, endOffset)} region of the path satisfies the constraint.
+     *
+     * @param path the request path
+     * @param startOffset start index (inclusive) of the segment
+     * @param endOffset end index (exclusive) of the segment
+     * @return {@code true} if the segment is accepted
+     */
+    boolean matches(String path, int startOffset, int endOffset)
+    {
+        int length = endOffset - startOffset;
+
+        switch (this.type)
+        {
+            case INT:
+                return ParameterConstraint.isLong(path, startOffset, endOffset);
+            case UUID:
+                if (length != UUID_LENGTH)
+                {
+                    return false;
+                }
+
+                for (int offset = 0; offset < UUID_LENGTH; offset++)
+                {
+                    if (!ParameterConstraint.isUuidChar(path.charAt(startOffset + offset), offset))
+                    {
+                        return false;
+                    }
+                }
+
+                return true;
+            default:
+                for (String option : this.options)
+                {
+                    if (option.length() == length && path.startsWith(option, startOffset))
+                    {
+                        return true;
+                    }
+                }
+
+                return false;
+        }
+    }
+
+    /**
+     * Byte-level counterpart of {@link #matches(String, int, int)}, every byte being read as an ISO-8859-1 character.
+     *
+     * @param path the raw request path bytes
+     * @param startOffset start index (inclusive) of the segment
+     * @param endOffset end index (exclusive) of the segment
+     * @return {@code true} if the segment is accepted
+     */
+    boolean matches(byte[] path, int startOffset, int endOffset)
+    {
+        int length = endOffset - startOffset;
+
+        switch (this.type)
+        {
+            case INT:
+                return ParameterConstraint.isLong(path, startOffset, endOffset);
+            case UUID:
+                if (length != UUID_LENGTH)
+                {
+                    return false;
+                }
+
+                for (int offset = 0; offset < UUID_LENGTH; offset++)
+                {
+                    if (!ParameterConstraint.isUuidChar((char) (path[startOffset + offset] & 0xFF), offset))
+                    {
+                        return false;
+                    }
+                }
+
+                return true;
+            default:
+                for (String option : this.options)
+                {
+                    if (option.length() == length && NodeChooser.regionMatches(path, startOffset, option, 0, length))
+                    {
+                        return true;
+                    }
+                }
+
+                return false;
+        }
+    }
+
+    /**
+     * @return {@code true} if the character is valid at {@code offset} of a hyphenated UUID
+     */
+    private static boolean isUuidChar(char ch, int offset)
+    {
+        if ((UUID_HYPHENS >>> offset & 1) != 0)
+        {
+            return ch == '-';
+        }
+
+        return ch >= '0' && ch <= '9' || ch >= 'a' && ch <= 'f' || ch >= 'A' && ch <= 'F';
+    }
+
+    /**
+     * Tests if the {@code [startOffset, endOffset)} region of the path is an optionally negative decimal {@code long}.
+     *
+     * <p>Digits are accumulated negatively, the same way {@link Long#parseLong(String)} does,
+     * so that {@link Long#MIN_VALUE} is accepted while any overflowing value is not.
+     *
+     * @param path the string containing the region
+     * @param startOffset start index (inclusive) of the region
+     * @param endOffset end index (exclusive) of the region
+     * @return {@code true} if the region can be parsed by {@link #parseLong(String, int, int)}
+     */
+    static boolean isLong(String path, int startOffset, int endOffset)
+    {
+        boolean isNegative = startOffset < endOffset && path.charAt(startOffset) == '-';
+        int offset = isNegative ? startOffset + 1 : startOffset;
+        long value = 0;
+
+        if (offset == endOffset)
+        {
+            return false;
+        }
+
+        for (; offset < endOffset; offset++)
+        {
+            int digit = path.charAt(offset) - '0';
+
+            if (digit < 0 || digit > 9 || value < Long.MIN_VALUE / 10 || value * 10 < Long.MIN_VALUE + digit)
+            {
+                return false;
+            }
+
+            value = value * 10 - digit;
+        }
+
+        return isNegative || value != Long.MIN_VALUE;
+    }
+
+    /**
+     * Byte-level counterpart of {@link #isLong(String, int, int)}, every byte being read as an ISO-8859-1 character.
+     */
+    private static boolean isLong(byte[] path, int startOffset, int endOffset)
+    {
+        boolean isNegative = startOffset < endOffset && path[startOffset] == '-';
+        int offset = isNegative ? startOffset + 1 : startOffset;
+        long value = 0;
+
+        if (offset == endOffset)
+        {
+            return false;
+        }
+
+        for (; offset < endOffset; offset++)
+        {
+            int digit = path[offset] - '0';
+
+            if (digit < 0 || digit > 9 || value < Long.MIN_VALUE / 10 || value * 10 < Long.MIN_VALUE + digit)
+            {
+                return false;
+            }
+
+            value = value * 10 - digit;
+        }
+
+        return isNegative || value != Long.MIN_VALUE;
+    }
+
+    /**
+     * Parses the {@code [startOffset, endOffset)} region of the path as an optionally negative decimal {@code long},
+     * without creating an intermediate {@link String}.
+     *
+     * @param path the string containing the region
+     * @param startOffset start index (inclusive) of the region
+     * @param endOffset end index (exclusive) of the region
+     * @return the parsed value
+     * @throws NumberFormatException if the region is not a valid {@code long}
+     */
+    static long parseLong(String path, int startOffset, int endOffset)
+    {
+        if (!ParameterConstraint.isLong(path, startOffset, endOffset))
+        {
+            throw new NumberFormatException("Unable to parse '" + path.substring(startOffset, endOffset) + "' as a long");
+        }
+
+        boolean isNegative = path.charAt(startOffset) == '-';
+        long value = 0;
+
+        for (int offset = isNegative ? startOffset + 1 : startOffset; offset < endOffset; offset++)
+        {
+            value = value * 10 - (path.charAt(offset) - '0');
+        }
+
+        return isNegative ? value : -value;
+    }
+
+    /**
+     * Counts the constraint and its values into the footprint of a routing tree, see {@link RouterStats}.
+     *
+     * @param footprint the footprint of the tree
+     */
+    void footprint(RouterStats.Footprint footprint)
+    {
+        if (footprint.object(this) != 0)
+        {
+            footprint.string(this.expression);
+            footprint.array(this.options);
+
+            for (String option : this.options != null ? this.options : Node.EMPTY_PARAMETER_NAMES)
+            {
+                footprint.string(option);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return this == other || other instanceof ParameterConstraint constraint
+                && this.type == constraint.type && Arrays.equals(this.options, constraint.options);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * this.type + Arrays.hashCode(this.options);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "<" + this.expression + ">";
+    }
+}
@@ -0,0 +1,194 @@
+package io.peanut.routing;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * ReloadableHttpRouter is a routing engine whose routes can be replaced at runtime
+ * without restarting and without blocking requests.
+ *
+ * <p>The router holds an immutable {@link HttpRouter} snapshot behind a single volatile reference.
+ * Every lookup reads the reference once and completes on that snapshot, so a lookup in flight
+ * while new routes are published finishes on the old routes, and readers never take a lock.
+ * Publishing builds the new snapshot first and then swaps the reference atomically:
+ *
+ * <pre>{@code
+ * ReloadableHttpRouter<Handler> router = HttpRouterFactory.createReloadable(config -> {
+ *     config.add("/api/v1/users", new UsersHandler());
+ * });
+ *
+ * router.reload(config -> {
+ *     config.add("/api/v1/users", new UsersHandler());
+ *     config.add("/api/v2/users", new UsersV2Handler());
+ * });
+ * }</pre>
+ *
+ * <p>Concurrent writers deriving a snapshot from the current one, e.g. to add a single route,
+ * should publish it with {@link #compareAndSet(HttpRouter, HttpRouter)} to avoid losing updates.
+ *
+ * @param <T> the type of handler associated with the routes
+ * @see HttpRouterFactory#createReloadable(HttpRouterConfiguration)
+ */
+public final class ReloadableHttpRouter<T>
+{
+    private static final VarHandle SNAPSHOT;
+
+    static
+    {
+        try
+        {
+            SNAPSHOT = MethodHandles.lookup().findVarHandle(ReloadableHttpRouter.class, "snapshot", HttpRouter.class);
+        } catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile HttpRouter<T> snapshot;
+
+    private ReloadableHttpRouter()
+    {
+        throw new UnsupportedOperationException("Instantiation Restricted");
+    }
+
+    ReloadableHttpRouter(HttpRouter<T> snapshot)
+    {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Routes the given request path to a handler using the current snapshot.
+     *
+     * @param requestPath the HTTP request path to route (must not be null or empty)
+     * @return a {@link RouteResult} containing the matched handler and parameters
+     * @throws NullPointerException if {@code requestPath} is null
+     * @see HttpRouter#route(String)
+     */
+    public RouteResult<T> route(String requestPath)
+    {
+        return this.snapshot.route(requestPath);
+    }
+
+    /**
+     * Routes the given request method and path to a handler using the current snapshot.
+     *
+     * @param method the HTTP request method
+     * @param requestPath the HTTP request path to route (must not be null or empty)
+     * @return a {@link RouteResult} containing the matched handler and parameters, or the allowed methods of the route
+     * @throws NullPointerException if {@code method} or {@code requestPath} is null
+     * @see HttpRouter#route(HttpMethod, String)
+     */
+    public RouteResult<T> route(HttpMethod method, String requestPath)
+    {
+        return this.snapshot.route(method, requestPath);
+    }
+
+    /**
+     * Routes the given request path to a handler using the current snapshot, filling the caller-owned {@link RouteMatch}.
+     *
+     * @param requestPath the HTTP request path to route (must not be null or empty)
+     * @param match       the reusable match to fill
+     * @return {@code true} if a handler was found, {@code false} otherwise
+     * @throws NullPointerException if {@code requestPath} or {@code match} is null
+     * @see HttpRouter#route(String, RouteMatch)
+     */
+    public boolean route(String requestPath, RouteMatch<T> match)
+    {
+        return this.snapshot.route(requestPath, match);
+    }
+
+    /**
+     * Routes the raw request path bytes to a handler using the current snapshot.
+     *
+     * @param buffer the bytes containing the request path
+     * @param offset the index of the first byte of the request path
+     * @param length the number of bytes of the request path
+     * @param match  the reusable match to fill
+     * @return {@code true} if a handler was found, {@code false} otherwise
+     * @see HttpRouter#route(byte[], int, int, RouteMatch)
+     */
+    public boolean route(byte[] buffer, int offset, int length, RouteMatch<T> match)
+    {
+        return this.snapshot.route(buffer, offset, length, match);
+    }
+
+    /**
+     * Routes the raw request path bytes to a handler using the current snapshot.
+     *
+     * @param buffer the bytes containing the request path
+     * @param offset the index of the first byte of the request path
+     * @param length the number of bytes of the request path
+     * @param match  the reusable match to fill
+     * @return {@code true} if a handler was found, {@code false} otherwise
+     * @see HttpRouter#route(ByteBuffer, int, int, RouteMatch)
+     */
+    public boolean route(ByteBuffer buffer, int offset, int length, RouteMatch<T> match)
+    {
+        return this.snapshot.route(buffer, offset, length, match);
+    }
+
+    /**
+     * @return the snapshot lookups are currently routed by
+     */
+    public HttpRouter<T> getSnapshot()
+    {
+        return this.snapshot;
+    }
+
+    /**
+     * Builds a router from the configuration and publishes it as the new snapshot.
+     *
+     * @param config a {@link Consumer} that accepts a {@link HttpRouterConfiguration} to define routes
+     * @return the previous snapshot
+     * @throws NullPointerException if {@code config} is {@code null}
+     */
+    public HttpRouter<T> reload(Consumer<HttpRouterConfiguration<T>> config)
+    {
+        return this.publish(HttpRouterFactory.create(config));
+    }
+
+    /**
+     * Builds a router from the prepared configuration and publishes it as the new snapshot.
+     *
+     * @param configuration the prepared {@link HttpRouterConfiguration} containing routes
+     * @return the previous snapshot
+     * @throws NullPointerException if {@code configuration} is {@code null}
+     */
+    public HttpRouter<T> reload(HttpRouterConfiguration<T> configuration)
+    {
+        return this.publish(HttpRouterFactory.create(configuration));
+    }
+
+    /**
+     * Publishes an already built router as the new snapshot.
+     *
+     * @param snapshot the router to route subsequent lookups by
+     * @return the previous snapshot
+     * @throws NullPointerException if {@code snapshot} is {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public HttpRouter<T> publish(HttpRouter<T> snapshot)
+    {
+        Objects.requireNonNull(snapshot, "'snapshot' cannot be null");
+
+        return (HttpRouter<T>) SNAPSHOT.getAndSet(this, snapshot);
+    }
+
+    /**
+     * Publishes the new snapshot only if the current one is still {@code expected}.
+     *
+     * @param expected the snapshot the new one was derived from
+     * @param snapshot the router to route subsequent lookups by
+     * @return {@code true} if the snapshot was published, {@code false} if another one was published meanwhile
+     * @throws NullPointerException if {@code snapshot} is {@code null}
+     */
+    public boolean compareAndSet(HttpRouter<T> expected, HttpRouter<T> snapshot)
+    {
+        Objects.requireNonNull(snapshot, "'snapshot' cannot be null");
+
+        return SNAPSHOT.compareAndSet(this, expected, snapshot);
+    }
+}
@@ -0,0 +1,271 @@
+package io.peanut.routing;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Prebuilt, memory-mapped route index.
+ *
+ * <p>Creating a router parses every route, builds, compresses and compiles the tree, which makes cold start
+ * noticeable with tens of thousands of routes. A route index is the compiled form of the tree, see
+ * {@link CompiledHttpRouter}, written once to a file, e.g. at build time:
+ * <pre>
+ * [ header ][ int table: node records | hash tables ][ segment bytes ][ route patterns | parameter names ]
+ * </pre>
+ * Opening the index maps the file with {@link FileChannel#map(FileChannel.MapMode, long, long, Arena)} and validates the header; the table and
+ * the segment bytes are navigated in place by an {@link OffHeapHttpRouter}. Handlers cannot be stored in a
+ * file, so they are bound afterwards by route pattern, e.g. {@code /user/:id/profile}: the route patterns and
+ * the parameter names are decoded into strings when the index is opened, which is the only work it costs
+ * proportionally to the number of routes. Since a route is bound by the pattern of the tree, a parameter must
+ * keep the same name in every route declaring it at the same level, e.g. {@code /user/:id} and
+ * {@code /user/:id/posts} rather than {@code /user/:name/posts}.
+ *
+ * <pre>{@code
+ * RouteIndex.write(configuration, Path.of("routes.idx"));
+ *
+ * OffHeapHttpRouter<Handler> router = RouteIndex.open(Path.of("routes.idx"), handlersByRoute::get);
+ * }</pre>
+ *
+ * <p>All values are stored in little-endian byte order.
+ */
+public final class RouteIndex
+{
+    private static final int MAGIC = 0x50524958;
+    private static final int VERSION = 1;
+
+    // Header layout, one int per field.
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int MAX_PARAMETER_COUNT_OFFSET = 8;
+    private static final int TABLE_LENGTH_OFFSET = 12;
+    private static final int SEGMENTS_LENGTH_OFFSET = 16;
+    private static final int HANDLER_COUNT_OFFSET = 20;
+    private static final int PARAMETER_NAMES_COUNT_OFFSET = 24;
+    private static final int STRINGS_LENGTH_OFFSET = 28;
+    private static final int HEADER_SIZE = 32;
+
+    private RouteIndex()
+    {
+        throw new UnsupportedOperationException("Instantiation Restricted");
+    }
+
+    /**
+     * Compiles the configured routes and writes them to the index file, replacing it if it exists.
+     *
+     * @param configuration the configuration containing the routes
+     * @param file          the index file to write
+     * @param <T>           the type of the route handler
+     * @throws NullPointerException if {@code configuration} or {@code file} is {@code null}
+     * @throws IllegalArgumentException if a route path contains characters outside of ISO-8859-1, or if a parameter
+     *         is declared under several names at the same level
+     * @throws IOException if the file cannot be written
+     */
+    public static <T> void write(HttpRouterConfiguration<T> configuration, Path file) throws IOException
+    {
+        Objects.requireNonNull(configuration, "'configuration' cannot be null");
+        Objects.requireNonNull(file, "'file' cannot be null");
+
+        // The routes sharing the parameter would be bound by the name of another route, see aliasedParameter().
+        String aliasedParameter = configuration.aliasedParameter();
+        if (aliasedParameter != null)
+        {
+            throw new IllegalArgumentException("Unable to write parameter '" + aliasedParameter + "' declared under several names at the same level");
+        }
+
+        CompiledHttpRouter.Compiler<T> compiler = new CompiledHttpRouter.Compiler<>(Node.compress(configuration.freeze()));
+
+        int[] table = compiler.table;
+        byte[] segments = compiler.segments;
+        byte[] strings = RouteIndex.encodeStrings(compiler);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (table.length << 2) + segments.length + strings.length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(configuration.maxParameterCount)
+                .putInt(table.length)
+                .putInt(segments.length)
+                .putInt(compiler.handlers.size())
+                .putInt(compiler.parameterNames.size())
+                .putInt(strings.length);
+
+        buffer.asIntBuffer().put(table);
+        buffer.position(HEADER_SIZE + (table.length << 2));
+        buffer.put(segments).put(strings);
+
+        Files.write(file, buffer.array());
+    }
+
+    /**
+     * Maps the index file and binds a handler to every route of it.
+     *
+     * <p>Every route pattern is decoded and passed to the binder, and every parameter name is decoded once,
+     * to be returned by the lookups. The table and the segment bytes are neither copied nor decoded.
+     *
+     * <p>The mapping stays valid after this method returns and is released once the router is garbage collected.
+     * Only the header, the section lengths and the encoding of the strings are validated, so the file must have been produced by
+     * {@link #write(HttpRouterConfiguration, Path)} and must not be modified while mapped.
+     *
+     * @param file   the index file to open
+     * @param binder resolves the handler of a route pattern, e.g. {@code /user/:id/profile}
+     * @param <T>    the type of the route handler
+     * @return a router navigating the mapped index
+     * @throws NullPointerException if {@code file} or {@code binder} is {@code null}
+     * @throws IllegalArgumentException if {@code binder} resolves no handler for a route
+     * @throws IOException if the file cannot be read or is not a valid route index
+     */
+    public static <T> OffHeapHttpRouter<T> open(Path file, Function<String, ? extends T> binder) throws IOException
+    {
+        Objects.requireNonNull(file, "'file' cannot be null");
+        Objects.requireNonNull(binder, "'binder' cannot be null");
+
+        MemorySegment index;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE)
+            {
+                throw new IOException("Unable to open invalid route index '" + file + "'");
+            }
+
+            // The automatic arena unmaps the file once the router is unreachable.
+            index = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, Arena.ofAuto());
+        }
+
+        int tableLength = index.get(OffHeapHttpRouter.INT, TABLE_LENGTH_OFFSET);
+        int segmentsLength = index.get(OffHeapHttpRouter.INT, SEGMENTS_LENGTH_OFFSET);
+        int handlerCount = index.get(OffHeapHttpRouter.INT, HANDLER_COUNT_OFFSET);
+        int parameterNamesCount = index.get(OffHeapHttpRouter.INT, PARAMETER_NAMES_COUNT_OFFSET);
+        int stringsLength = index.get(OffHeapHttpRouter.INT, STRINGS_LENGTH_OFFSET);
+
+        boolean isValid = index.get(OffHeapHttpRouter.INT, MAGIC_OFFSET) == MAGIC
+                && index.get(OffHeapHttpRouter.INT, VERSION_OFFSET) == VERSION
+                && tableLength >= CompiledHttpRouter.NODE_SIZE && segmentsLength >= 0 && stringsLength >= 0
+                && handlerCount >= 0 && parameterNamesCount > 0
+                && (long) HEADER_SIZE + ((long) tableLength << 2) + segmentsLength + stringsLength == index.byteSize();
+
+        if (!isValid)
+        {
+            throw new IOException("Unable to open invalid route index '" + file + "'");
+        }
+
+        int storageLength = (tableLength << 2) + segmentsLength;
+        MemorySegment storage = index.asSlice(HEADER_SIZE, storageLength);
+        ByteBuffer strings = index.asSlice(HEADER_SIZE + storageLength, stringsLength).asByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+
+        Object[] handlers = new Object[handlerCount];
+        String[][] parameterNames = new String[parameterNamesCount][];
+
+        try
+        {
+            for (int handler = 0; handler < handlerCount; handler++)
+            {
+                String route = RouteIndex.readString(strings);
+                handlers[handler] = binder.apply(route);
+
+                if (handlers[handler] == null)
+                {
+                    throw new IllegalArgumentException("Unable to bind handler of route '" + route + "'");
+                }
+            }
+
+            for (int names = 0; names < parameterNamesCount; names++)
+            {
+                // Every name takes at least its length prefix, which bounds the allocated table.
+                int count = strings.getInt();
+                if (count < 0 || count > strings.remaining() / 4)
+                {
+                    throw new IOException("Unable to open corrupted route index '" + file + "'");
+                }
+
+                parameterNames[names] = count != 0 ? new String[count] : Node.EMPTY_PARAMETER_NAMES;
+
+                for (int name = 0; name < count; name++)
+                {
+                    parameterNames[names][name] = RouteIndex.readString(strings);
+                }
+            }
+        } catch (BufferUnderflowException e)
+        {
+            throw new IOException("Unable to open corrupted route index '" + file + "'", e);
+        }
+
+        if (strings.hasRemaining())
+        {
+            throw new IOException("Unable to open corrupted route index '" + file + "'");
+        }
+
+        return new OffHeapHttpRouter<>(storage, (long) tableLength << 2, handlers, parameterNames, index.get(OffHeapHttpRouter.INT, MAX_PARAMETER_COUNT_OFFSET));
+    }
+
+    /**
+     * Encodes the route patterns of the handlers followed by the parameter names tables,
+     * every string being prefixed by its UTF-8 length.
+     *
+     * @param compiler the compiled routes
+     * @return the encoded strings section
+     */
+    private static byte[] encodeStrings(CompiledHttpRouter.Compiler<?> compiler)
+    {
+        int length = 0;
+        for (String route : compiler.routes)
+        {
+            length += 4 + route.getBytes(StandardCharsets.UTF_8).length;
+        }
+        for (String[] names : compiler.parameterNames)
+        {
+            length += 4;
+            for (String name : names)
+            {
+                length += 4 + name.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        for (String route : compiler.routes)
+        {
+            RouteIndex.writeString(buffer, route);
+        }
+        for (String[] names : compiler.parameterNames)
+        {
+            buffer.putInt(names.length);
+            for (String name : names)
+            {
+                RouteIndex.writeString(buffer, name);
+            }
+        }
+
+        return buffer.array();
+    }
+
+    private static void writeString(ByteBuffer buffer, String value)
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException
+    {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining())
+        {
+            throw new IOException("Unable to read corrupted route index string");
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,399 @@
+package io.peanut.routing;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Caller-owned, reusable holder for the outcome of a routing lookup.
+ *
+ * <p>Unlike {@link RouteResult}, a {@code RouteMatch} is created once by the caller
+ * (typically one per worker thread or per connection) and refilled by
+ * {@link HttpRouter#route(String, RouteMatch)} on every lookup. Parameters are recorded
+ * as {@code (start, end)} offsets into the original request path instead of substring copies,
+ * so neither static nor parameterized lookups allocate on the heap once the internal
+ * offsets storage has grown to the deepest parameterized route.
+ *
+ * <p>Byte-level lookups, see {@link HttpRouter#route(byte[], int, int, RouteMatch)}, report parameters
+ * as offsets into the caller's buffer only: the match has no {@link String} path to materialize values from.
+ *
+ * <p>Instances are not thread-safe and must not be shared between concurrent lookups.
+ *
+ * <pre>{@code
+ * RouteMatch<Handler> match = new RouteMatch<>();
+ *
+ * if (router.route("/api/v1/users/42", match))
+ * {
+ *     int userIdStart = match.getParameterStart(0);
+ *     int userIdEnd = match.getParameterEnd(0);
+ *     match.getHandler().handle(request, userIdStart, userIdEnd);
+ * }
+ * }</pre>
+ *
+ * @param <T> the type of the handler associated with the matched route
+ */
+public final class RouteMatch<T>
+{
+    /**
+     * Default number of parameters the match can hold before growing its storage.
+     * Most route patterns contain no more than 3 parameters (e.g. /users/{id}/posts/{postId}).
+     */
+    private static final int DEFAULT_PARAMETER_CAPACITY = 3;
+    /**
+     * Default number of backtracking points the match can hold before growing its stack.
+     */
+    private static final int DEFAULT_BACKTRACK_CAPACITY = 8;
+    /**
+     * Matches lent to the lookups that return a {@link RouteResult}, one per thread and shared by every router,
+     * so that router snapshots do not leave a match of their own behind in the worker threads.
+     */
+    private static final ThreadLocal<RouteMatch<?>> POOL = ThreadLocal.withInitial(RouteMatch::new);
+
+    private T handler;
+    private String path;
+
+    private String[] parameterNames = Node.EMPTY_PARAMETER_NAMES;
+    private int[] parameterOffsets;
+
+    private byte[] scratch;
+
+    private Object[] backtrackNodes = new Object[DEFAULT_BACKTRACK_CAPACITY];
+    private long[] backtrackStates = new long[DEFAULT_BACKTRACK_CAPACITY];
+    private int backtrackDepth;
+
+    /**
+     * Creates a new empty match with the default parameter capacity.
+     */
+    public RouteMatch()
+    {
+        this(DEFAULT_PARAMETER_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty match able to hold {@code parameterCapacity} parameters without growing.
+     *
+     * @param parameterCapacity the initial number of parameters the match can hold
+     * @throws IllegalArgumentException if {@code parameterCapacity} is negative
+     */
+    public RouteMatch(int parameterCapacity)
+    {
+        if (parameterCapacity < 0)
+        {
+            throw new IllegalArgumentException("'parameterCapacity' cannot be negative");
+        }
+
+        this.parameterOffsets = new int[parameterCapacity << 1];
+    }
+
+    /**
+     * Returns the match of the current thread, able to hold {@code parameterCapacity} parameters without growing.
+     * The match must be released with {@link #release()} once the lookup is done.
+     *
+     * @param parameterCapacity the number of parameters of the deepest route of the router
+     * @param <T> the handler type
+     * @return the pooled match of the current thread
+     */
+    @SuppressWarnings("unchecked")
+    static <T> RouteMatch<T> pooled(int parameterCapacity)
+    {
+        RouteMatch<T> match = (RouteMatch<T>) POOL.get();
+
+        if (match.parameterOffsets.length < parameterCapacity << 1)
+        {
+            match.parameterOffsets = new int[parameterCapacity << 1];
+        }
+
+        return match;
+    }
+
+    /**
+     * Clears the nodes of the backtracking points pushed since the last release, so the match
+     * does not retain the routing tree of a router after the lookup.
+     */
+    void release()
+    {
+        if (this.backtrackDepth != 0)
+        {
+            Arrays.fill(this.backtrackNodes, 0, this.backtrackDepth, null);
+            this.backtrackDepth = 0;
+        }
+    }
+
+    /**
+     * Clears the match so it can be reused for the next lookup.
+     * The internal storage is retained.
+     *
+     * @param requestPath the path that is going to be matched, may be null
+     * @return this match instance
+     */
+    RouteMatch<T> reset(String requestPath)
+    {
+        this.handler = null;
+        this.path = requestPath;
+        this.parameterNames = Node.EMPTY_PARAMETER_NAMES;
+        return this;
+    }
+
+    /**
+     * Clears the match so it can be reused. The internal storage is retained.
+     *
+     * @return this match instance
+     */
+    public RouteMatch<T> reset()
+    {
+        return this.reset(null);
+    }
+
+    /**
+     * Records the parameter at position {@code index} captured from the
+     * {@code [startOffset, endOffset)} region of the request path.
+     *
+     * @param index       the parameter position in the matched route
+     * @param startOffset start index (inclusive) of the value in the request path
+     * @param endOffset   end index (exclusive) of the value in the request path
+     */
+    void capture(int index, int startOffset, int endOffset)
+    {
+        int offset = index << 1;
+
+        if (offset >= this.parameterOffsets.length)
+        {
+            int capacity = Math.max(DEFAULT_PARAMETER_CAPACITY, (index + 1) << 1);
+            this.parameterOffsets = Arrays.copyOf(this.parameterOffsets, capacity << 1);
+        }
+
+        this.parameterOffsets[offset] = startOffset;
+        this.parameterOffsets[offset + 1] = endOffset;
+    }
+
+    /**
+     * Completes the lookup with the matched node's handler and parameter names.
+     *
+     * @param handler        the handler of the matched node, may be null
+     * @param parameterNames the ordered parameter names of the matched node
+     */
+    void complete(T handler, String[] parameterNames)
+    {
+        this.handler = handler;
+        this.parameterNames = parameterNames;
+    }
+
+    /**
+     * @return the internal storage of the parameter offsets, two entries per parameter, not copied
+     */
+    int[] parameterOffsets()
+    {
+        return this.parameterOffsets;
+    }
+
+    /**
+     * Saves a backtracking point of the lookup, i.e. a node whose remaining alternatives are tried
+     * if the branch taken from it does not lead to a route. The stack is retained between lookups
+     * and only grows when a lookup passes more ambiguous nodes than ever before.
+     *
+     * @param depth the position of the point in the stack
+     * @param node  the node to resume from, may be null if the state identifies it
+     * @param state the router specific state to resume with, e.g. the path offset and the next alternative
+     */
+    void push(int depth, Object node, long state)
+    {
+        if (depth == this.backtrackStates.length)
+        {
+            this.backtrackNodes = Arrays.copyOf(this.backtrackNodes, depth << 1);
+            this.backtrackStates = Arrays.copyOf(this.backtrackStates, depth << 1);
+        }
+
+        this.backtrackNodes[depth] = node;
+        this.backtrackStates[depth] = state;
+
+        if (depth >= this.backtrackDepth)
+        {
+            this.backtrackDepth = depth + 1;
+        }
+    }
+
+    /**
+     * @param depth the position of a point pushed by {@link #push(int, Object, long)}
+     * @return the node of the backtracking point
+     */
+    Object backtrackNode(int depth)
+    {
+        return this.backtrackNodes[depth];
+    }
+
+    /**
+     * @param depth the position of a point pushed by {@link #push(int, Object, long)}
+     * @return the state of the backtracking point
+     */
+    long backtrackState(int depth)
+    {
+        return this.backtrackStates[depth];
+    }
+
+    /**
+     * Returns a reusable array able to hold at least {@code length} bytes,
+     * used to match request paths that are not backed by a heap array.
+     *
+     * @param length the required number of bytes
+     * @return the scratch array, its content is unspecified
+     */
+    byte[] scratch(int length)
+    {
+        byte[] scratch = this.scratch;
+
+        if (scratch == null || scratch.length < length)
+        {
+            scratch = this.scratch = new byte[Math.max(length, 256)];
+        }
+
+        return scratch;
+    }
+
+    /**
+     * @return {@code true} if the last lookup resolved a handler
+     */
+    public boolean isMatched()
+    {
+        return this.handler != null;
+    }
+
+    /**
+     * @return the handler resolved by the last lookup, or {@code null} if there was no match
+     */
+    public T getHandler()
+    {
+        return this.handler;
+    }
+
+    /**
+     * @return the request path of the last lookup, or {@code null} if the match was reset or filled by a byte-level lookup
+     */
+    public String getPath()
+    {
+        return this.path;
+    }
+
+    /**
+     * @return the number of parameters captured by the last lookup
+     */
+    public int getParameterCount()
+    {
+        return this.parameterNames.length;
+    }
+
+    /**
+     * Returns the name of the parameter at the given position, in path order.
+     *
+     * @param index the parameter position, from {@code 0} to {@link #getParameterCount()} exclusive
+     * @return the parameter name without the leading ':'
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public String getParameterName(int index)
+    {
+        return this.parameterNames[this.checkIndex(index)];
+    }
+
+    /**
+     * Returns the start index (inclusive) of the parameter value in the request path.
+     *
+     * @param index the parameter position, from {@code 0} to {@link #getParameterCount()} exclusive
+     * @return the start offset of the value
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public int getParameterStart(int index)
+    {
+        return this.parameterOffsets[this.checkIndex(index) << 1];
+    }
+
+    /**
+     * Returns the end index (exclusive) of the parameter value in the request path.
+     *
+     * @param index the parameter position, from {@code 0} to {@link #getParameterCount()} exclusive
+     * @return the end offset of the value
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public int getParameterEnd(int index)
+    {
+        return this.parameterOffsets[(this.checkIndex(index) << 1) + 1];
+    }
+
+    /**
+     * Materializes the value of the parameter at the given position.
+     *
+     * @apiNote This method allocates a new {@link String}; prefer the offset accessors on hot paths.
+     *
+     * @param index the parameter position, from {@code 0} to {@link #getParameterCount()} exclusive
+     * @return the parameter value
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     * @throws IllegalStateException if the match was filled by a byte-level lookup
+     */
+    public String getParameter(int index)
+    {
+        int offset = this.checkIndex(index) << 1;
+
+        if (this.path == null)
+        {
+            throw new IllegalStateException("Parameters of a byte-level lookup are only available as offsets");
+        }
+
+        return this.path.substring(this.parameterOffsets[offset], this.parameterOffsets[offset + 1]);
+    }
+
+    /**
+     * Parses the value of the parameter at the given position as a {@code long}, without materializing it.
+     *
+     * @param index the parameter position, from {@code 0} to {@link #getParameterCount()} exclusive
+     * @return the parameter value
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     * @throws NumberFormatException if the value is not an optionally negative decimal {@code long}
+     * @throws IllegalStateException if the match was filled by a byte-level lookup
+     * @see RouteResult#getLong(int)
+     */
+    public long getLong(int index)
+    {
+        int offset = this.checkIndex(index) << 1;
+
+        if (this.path == null)
+        {
+            throw new IllegalStateException("Parameters of a byte-level lookup are only available as offsets");
+        }
+
+        return ParameterConstraint.parseLong(this.path, this.parameterOffsets[offset], this.parameterOffsets[offset + 1]);
+    }
+
+    /**
+     * Materializes the value of the parameter with the given name.
+     *
+     * @apiNote This method allocates a new {@link String}; prefer the offset accessors on hot paths.
+     *
+     * @param name the parameter name without the leading ':'
+     * @return the parameter value, or {@code null} if the last lookup did not capture such parameter
+     */
+    public String getParameter(String name)
+    {
+        int index = this.indexOf(name);
+        return index != -1 ? this.getParameter(index) : null;
+    }
+
+    /**
+     * Resolves the position of the parameter with the given name in the matched route.
+     *
+     * @param name the parameter name without the leading ':'
+     * @return the parameter position, or {@code -1} if the last lookup did not capture such parameter
+     * @see RouteResult#indexOf(String)
+     */
+    public int indexOf(String name)
+    {
+        return RouteResult.indexOf(this.parameterNames, name);
+    }
+
+    private int checkIndex(int index)
+    {
+        return Objects.checkIndex(index, this.parameterNames.length);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RouteMatch (path=" + this.path + ", parameter_count=" + this.parameterNames.length + ", handler=" + this.handler + ")";
+    }
+}
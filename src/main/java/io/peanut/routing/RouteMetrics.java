@@ -0,0 +1,189 @@
+package io.peanut.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lookup counters of a route of an {@link HttpRouter}, see {@link HttpRouter#metrics()}.
+ *
+ * <p>Instrumentation is disabled by default and enabled for the whole JVM by the
+ * {@code io.peanut.routing.metrics} system property, e.g. {@code -Dio.peanut.routing.metrics=true}.
+ * The property is read once into a {@code static final} switch, so when it is disabled the JIT folds
+ * every recording branch away and lookups pay nothing, while nodes only hold a {@code null} reference.
+ *
+ * <p>When enabled, every node of a routing tree owns striped {@link LongAdder} counters, which threads
+ * increment without contending on a single cache line:
+ * <ul>
+ *   <li>hits - lookups that resolved a handler of the node,</li>
+ *   <li>misses - lookups that failed with the node as the deepest one reached, i.e. the deepest matched
+ *       prefix of the path, or with the node matching the whole path but having no handler for it,</li>
+ *   <li>captures - parameters captured by the hits of the node.</li>
+ * </ul>
+ *
+ * <p>Counters belong to the nodes, so nodes shared by several routers keep counting for all of them, and
+ * nodes copied by {@link HttpRouter#withRoute(String, Object)} or {@link HttpRouter#withoutRoute(String)}
+ * take over the counters of the nodes they replace, shared with the original router; only the nodes of
+ * new routes start from zero. Structurally equal subtrees shared through {@link HttpRouterConfiguration#shareSubtrees(boolean)}
+ * count the lookups of every prefix they are shared by, and are reported once per prefix with the same
+ * counters, so that no route of the tree is missing from {@link HttpRouter#metrics()}. Lookups served by the result cache of
+ * {@link HttpRouterConfiguration#resultCache(int)} are reported by {@link HttpRouter#getCacheHitCount()} only.
+ */
+public final class RouteMetrics
+{
+    /**
+     * Whether lookups are instrumented, constant for the lifetime of the JVM.
+     */
+    static final boolean IS_ENABLED = Boolean.getBoolean("io.peanut.routing.metrics");
+
+    private final String route;
+    private final long hitCount;
+    private final long missCount;
+    private final long captureCount;
+
+    private RouteMetrics(String route, Counters counters)
+    {
+        this.route = route;
+        this.hitCount = counters.hits.sum();
+        this.missCount = counters.misses.sum();
+        this.captureCount = counters.captures.sum();
+    }
+
+    /**
+     * Records a lookup that resolved a handler of the node.
+     *
+     * @param node the matched node
+     */
+    static void hit(Node<?> node)
+    {
+        Counters counters = node.counters;
+        counters.hits.increment();
+
+        if (node.parameterNames.length != 0)
+        {
+            counters.captures.add(node.parameterNames.length);
+        }
+    }
+
+    /**
+     * Records a lookup that failed at the node.
+     *
+     * @param node the deepest node reached by the lookup
+     */
+    static void miss(Node<?> node)
+    {
+        node.counters.misses.increment();
+    }
+
+    /**
+     * Records the lookup of a node, a hit if a handler was resolved, a miss otherwise.
+     *
+     * @param node the node matching the whole path
+     * @param handler the resolved handler, may be null
+     */
+    static void record(Node<?> node, Object handler)
+    {
+        if (handler != null)
+        {
+            RouteMetrics.hit(node);
+        } else
+        {
+            RouteMetrics.miss(node);
+        }
+    }
+
+    /**
+     * Collects the counters of every node of the tree having a handler or a recorded lookup, once for every
+     * route a shared node is reachable by.
+     *
+     * @param root the root of the routing tree
+     * @param <T> the handler type
+     * @return the metrics in depth-first order, or an empty list if instrumentation is disabled
+     */
+    static <T> List<RouteMetrics> of(Node<T> root)
+    {
+        if (!RouteMetrics.IS_ENABLED)
+        {
+            return Collections.emptyList();
+        }
+
+        List<RouteMetrics> metrics = new ArrayList<>();
+        RouteMetrics.collect(root, "", metrics);
+        return metrics;
+    }
+
+    private static <T> void collect(Node<T> node, String route, List<RouteMetrics> metrics)
+    {
+        Counters counters = node.counters;
+
+        if (node.hasHandlers() || counters.hits.sum() != 0 || counters.misses.sum() != 0)
+        {
+            metrics.add(new RouteMetrics(route.isEmpty() ? "/" : route, counters));
+        }
+
+        for (Node<T> child : node.children)
+        {
+            String segment = child.isParameterized ? ":" + child.pathSegment + (child.constraint != null ? child.constraint : "") : child.pathSegment;
+            RouteMetrics.collect(child, route + "/" + segment, metrics);
+        }
+
+        for (Node<T> pattern : node.patternChildren)
+        {
+            RouteMetrics.collect(pattern, route + "/" + pattern.pathSegment, metrics);
+        }
+
+        if (node.wildcard != null)
+        {
+            RouteMetrics.collect(node.wildcard, route + "/*" + node.wildcard.pathSegment, metrics);
+        }
+    }
+
+    /**
+     * @return the route pattern of the node, e.g. {@code /users/:id}
+     */
+    public String getRoute()
+    {
+        return this.route;
+    }
+
+    /**
+     * @return the number of lookups that resolved a handler of the route
+     */
+    public long getHitCount()
+    {
+        return this.hitCount;
+    }
+
+    /**
+     * @return the number of lookups that failed at the route
+     */
+    public long getMissCount()
+    {
+        return this.missCount;
+    }
+
+    /**
+     * @return the number of parameters captured by the hits of the route
+     */
+    public long getCaptureCount()
+    {
+        return this.captureCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RouteMetrics (route=" + this.route + ", hits=" + this.hitCount + ", misses=" + this.missCount + ", captures=" + this.captureCount + ")";
+    }
+
+    /**
+     * Counters of a node, only allocated if instrumentation is enabled.
+     */
+    static final class Counters
+    {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder captures = new LongAdder();
+    }
+}
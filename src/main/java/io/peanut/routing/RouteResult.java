@@ -1,40 +1,231 @@
 package io.peanut.routing;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Represents the result of routing a request path to a handler.
  *
  * <p>This class encapsulates the handler matched for a given path,
- * along with a map of path parameters extracted during routing.
+ * along with the path parameters extracted during routing.
+ *
+ * <p>Parameters are stored lazily: routing only records the {@code (start, end)} offsets of every
+ * parameterized segment together with a reference to the parameter names of the matched {@link Node}.
+ * Values are materialized on first access, so handlers that never read parameters pay nothing for them.
  *
  * @param <T> the type of the handler associated with the matched route
  */
 public final class RouteResult<T>
 {
-    private final Map<String, String> parameters;
     private final T handler;
+    private final String path;
+    private final String[] parameterNames;
+    private final int[] parameterOffsets;
+    private final Set<HttpMethod> allowedMethods;
+
+    private Map<String, String> parameters;
+
+    /**
+     * Creates a new RouteResult with the given handler and lazily extracted parameters.
+     *
+     * @param handler the handler matched for the route, may be null if no match
+     * @param path the request path the parameters are extracted from
+     * @param parameterNames the ordered parameter names of the matched node, never null
+     * @param parameterOffsets the {@code (start, end)} offsets of the parameter values in {@code path},
+     *                         two entries per parameter name; may be null if there are no parameters
+     */
+    RouteResult(T handler, String path, String[] parameterNames, int[] parameterOffsets)
+    {
+        this(handler, path, parameterNames, parameterOffsets, null);
+    }
 
     /**
-     * Creates a new RouteResult with the given handler and parameters.
+     * Creates a new RouteResult, reporting the methods of the matched path if the request method is not allowed.
      *
      * @param handler the handler matched for the route, may be null if no match
-     * @param parameters the map of parameter names to values, never null;
-     *                   either {@link java.util.Collections#EMPTY_MAP} or a mutable map
+     * @param path the request path the parameters are extracted from
+     * @param parameterNames the ordered parameter names of the matched node, never null
+     * @param parameterOffsets the {@code (start, end)} offsets of the parameter values in {@code path},
+     *                         two entries per parameter name; may be null if there are no parameters
+     * @param allowedMethods the methods of the matched path if the request method has no handler, otherwise null
      */
-    RouteResult(T handler, Map<String, String> parameters)
+    RouteResult(T handler, String path, String[] parameterNames, int[] parameterOffsets, Set<HttpMethod> allowedMethods)
     {
         this.handler = handler;
-        this.parameters = parameters;
+        this.path = path;
+        this.parameterNames = parameterNames;
+        this.parameterOffsets = parameterOffsets;
+        this.allowedMethods = allowedMethods;
     }
 
+    /**
+     * Returns the map of parameter names to values, materializing it on first call.
+     *
+     * <p>The map is immutable, so a result may be shared between threads once published,
+     * e.g. by the router result cache.
+     *
+     * @return either {@link java.util.Collections#EMPTY_MAP} if the route has no parameters, or an immutable map
+     */
     public Map<String, String> getParameters()
     {
+        Map<String, String> parameters = this.parameters;
+
+        if (parameters == null)
+        {
+            int parameterCount = this.parameterNames.length;
+
+            if (parameterCount == 0)
+            {
+                parameters = Collections.emptyMap();
+            } else
+            {
+                Map<String, String> values = new HashMap<>(parameterCount);
+                for (int index = 0; index < parameterCount; index++)
+                {
+                    values.put(this.parameterNames[index], this.valueAt(index));
+                }
+
+                // Racy single-check: concurrent callers may build equal maps, the unmodifiable
+                // wrapper guarantees each of them is safely published through its final field.
+                parameters = Collections.unmodifiableMap(values);
+            }
+
+            this.parameters = parameters;
+        }
+
         return parameters;
     }
 
+    /**
+     * Returns the value of the parameter with the given name without materializing the parameters map.
+     *
+     * @param name the parameter name without the leading ':'
+     * @return the parameter value, or {@code null} if the matched route has no such parameter
+     */
+    public String getParameter(String name)
+    {
+        int index = RouteResult.indexOf(this.parameterNames, name);
+        return index != -1 ? this.valueAt(index) : null;
+    }
+
+    /**
+     * Returns the value of the parameter at the given position, in path order.
+     *
+     * <p>Positions are fixed per route when it is registered, so handlers may resolve them once
+     * with {@link #indexOf(String)} and then read values without any hashing.
+     *
+     * @param index the parameter position, from {@code 0} to {@link #getParameterCount()} exclusive
+     * @return the parameter value
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public String getParameter(int index)
+    {
+        return this.valueAt(Objects.checkIndex(index, this.parameterNames.length));
+    }
+
+    /**
+     * Parses the value of the parameter at the given position as a {@code long}, straight from the request path.
+     *
+     * <p>Neither the parameter value nor the parameters map is materialized, so reading the value
+     * of an {@code :id<int>} parameter, which is known to be valid once matched, does not allocate.
+     *
+     * @param index the parameter position, from {@code 0} to {@link #getParameterCount()} exclusive
+     * @return the parameter value
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     * @throws NumberFormatException if the value is not an optionally negative decimal {@code long}
+     */
+    public long getLong(int index)
+    {
+        int offset = Objects.checkIndex(index, this.parameterNames.length) << 1;
+        return ParameterConstraint.parseLong(this.path, this.parameterOffsets[offset], this.parameterOffsets[offset + 1]);
+    }
+
+    /**
+     * Returns the name of the parameter at the given position, in path order.
+     *
+     * @param index the parameter position, from {@code 0} to {@link #getParameterCount()} exclusive
+     * @return the parameter name without the leading ':'
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public String getParameterName(int index)
+    {
+        return this.parameterNames[Objects.checkIndex(index, this.parameterNames.length)];
+    }
+
+    /**
+     * Resolves the position of the parameter with the given name in the matched route.
+     *
+     * @param name the parameter name without the leading ':'
+     * @return the parameter position, or {@code -1} if the matched route has no such parameter
+     */
+    public int indexOf(String name)
+    {
+        return RouteResult.indexOf(this.parameterNames, name);
+    }
+
+    /**
+     * @return the number of parameters of the matched route
+     */
+    public int getParameterCount()
+    {
+        return this.parameterNames.length;
+    }
+
     public T getHandler()
     {
         return handler;
     }
-}
\ No newline at end of file
+
+    /**
+     * Tells whether the path matched a route that has no handler for the request method,
+     * i.e. whether the request should be answered with {@code 405 Method Not Allowed}.
+     *
+     * @return {@code true} if the path matched but the request method is not allowed
+     * @see HttpRouter#route(HttpMethod, String)
+     */
+    public boolean isMethodNotAllowed()
+    {
+        return this.allowedMethods != null;
+    }
+
+    /**
+     * Returns the methods the matched path can be requested with, e.g. for the {@code Allow} header of a 405 response.
+     *
+     * @return the immutable set of allowed methods if {@link #isMethodNotAllowed()}, otherwise an empty set
+     */
+    public Set<HttpMethod> getAllowedMethods()
+    {
+        return this.allowedMethods != null ? this.allowedMethods : Collections.emptySet();
+    }
+
+    /**
+     * Finds the position of {@code name} in the ordered parameter names of a route.
+     *
+     * <p>The names are scanned from the tail so that repeated names resolve to the same
+     * value as in {@link #getParameters()}.
+     *
+     * @param parameterNames the ordered parameter names
+     * @param name the parameter name to look for
+     * @return the parameter position, or {@code -1} if not found
+     */
+    static int indexOf(String[] parameterNames, String name)
+    {
+        for (int index = parameterNames.length - 1; index >= 0; index--)
+        {
+            if (parameterNames[index].equals(name))
+            {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    private String valueAt(int index)
+    {
+        return this.path.substring(this.parameterOffsets[index << 1], this.parameterOffsets[(index << 1) + 1]);
+    }
+}
@@ -0,0 +1,154 @@
+package io.peanut.routing;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, concurrent cache of routing results keyed by the raw request path.
+ *
+ * <p>The cache is a set-associative table: a path hashes to a set of {@link #WAYS} slots and can only be
+ * stored in one of them. Reads never lock and never allocate: a hit is a volatile read of at most
+ * {@link #WAYS} slots plus a {@link String#equals(Object)} check, and only marks the entry as recently used
+ * if it was not already marked. Eviction follows the CLOCK (second chance) policy within the set: an insert
+ * takes an empty slot or the first entry that was not used since the last sweep, clearing the marks of the
+ * entries it passes by.
+ *
+ * <p>Inserts are best-effort: a slot updated concurrently by another thread is simply left to the winner.
+ * Cached {@link RouteResult} instances are shared between threads, which is safe as their state is either
+ * final or an immutable parameters map.
+ *
+ * @param <T> the type of handler associated with the routes
+ */
+final class RouteResultCache<T>
+{
+    /**
+     * Number of slots a path may be stored in.
+     */
+    static final int WAYS = 4;
+
+    /**
+     * Largest capacity, as rounding a larger one up to a power of two would overflow.
+     */
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private final AtomicReferenceArray<Entry<T>> entries;
+    private final int setMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a new cache holding up to {@code capacity} results, rounded up to a power of two.
+     *
+     * @param capacity the maximum number of cached results, at most {@link #MAX_CAPACITY}
+     */
+    RouteResultCache(int capacity)
+    {
+        int sets = Math.max(WAYS, Integer.highestOneBit(capacity - 1) << 1) / WAYS;
+
+        this.entries = new AtomicReferenceArray<>(sets * WAYS);
+        this.setMask = sets - 1;
+    }
+
+    /**
+     * Returns the cached result for the path, if present.
+     *
+     * @param requestPath the raw request path
+     * @return the cached result, or {@code null} on a cache miss
+     */
+    RouteResult<T> get(String requestPath)
+    {
+        int hash = requestPath.hashCode();
+        int set = (NodeChooser.spread(hash) & this.setMask) * WAYS;
+
+        for (int way = 0; way < WAYS; way++)
+        {
+            Entry<T> entry = this.entries.get(set + way);
+
+            if (entry != null && entry.hash == hash && entry.path.equals(requestPath))
+            {
+                if (!entry.referenced)
+                {
+                    entry.referenced = true;
+                }
+
+                this.hits.increment();
+                return entry.result;
+            }
+        }
+
+        this.misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores the result for the path, evicting an entry of its set if needed.
+     *
+     * @param requestPath the raw request path
+     * @param result the routing result for the path
+     */
+    void put(String requestPath, RouteResult<T> result)
+    {
+        int hash = requestPath.hashCode();
+        int set = (NodeChooser.spread(hash) & this.setMask) * WAYS;
+        Entry<T> candidate = new Entry<>(requestPath, hash, result);
+
+        for (int way = 0; way < WAYS; way++)
+        {
+            Entry<T> entry = this.entries.get(set + way);
+
+            if (entry == null || !entry.referenced)
+            {
+                this.entries.compareAndSet(set + way, entry, candidate);
+                return;
+            }
+
+            // Second chance: the entry survives this sweep but is evicted by the next one unless used again.
+            entry.referenced = false;
+        }
+
+        // Every entry of the set was recently used, replace the one the path hashes to.
+        int victim = set + ((hash >>> 16) & (WAYS - 1));
+        this.entries.set(victim, candidate);
+    }
+
+    /**
+     * @return the maximum number of cached results
+     */
+    int capacity()
+    {
+        return this.entries.length();
+    }
+
+    /**
+     * @return the number of lookups served from the cache
+     */
+    long hitCount()
+    {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of lookups not found in the cache
+     */
+    long missCount()
+    {
+        return this.misses.sum();
+    }
+
+    private static final class Entry<T>
+    {
+        final String path;
+        final int hash;
+        final RouteResult<T> result;
+
+        volatile boolean referenced;
+
+        Entry(String path, int hash, RouteResult<T> result)
+        {
+            this.path = path;
+            this.hash = hash;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package io.peanut.routing;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Footprint snapshot of the routing tree of an {@link HttpRouter}, see {@link HttpRouter#stats()}.
+ *
+ * <p>Nodes are counted once even if they are reachable from several parents. The depth of a node is its
+ * number of edges from the root, an edge possibly spanning several compressed static segments. The fan-out
+ * of a node is its number of static, pattern, parameterized and wildcard children.
+ *
+ * <p>Retained bytes are estimated for a 64-bit JVM with compressed references and compact strings, i.e.
+ * 12 byte object headers, 16 byte array headers, 4 byte references and 8 byte alignment. Every object is
+ * counted once, whatever the number of references to it, while shared constants such as
+ * {@link Node#EMPTY_CHILDREN} and the handlers themselves are not counted at all. The estimate is meant to
+ * compare tables and to catch regressions, not to replace a heap dump.
+ */
+public final class RouterStats
+{
+    private final int nodeCount;
+    private final int routeCount;
+    private final int[] depthHistogram;
+    private final int[] fanOutHistogram;
+    private final int segmentStringCount;
+    private final int duplicatedSegmentStringCount;
+    private final long duplicatedSegmentStringBytes;
+    private final long treeBytes;
+    private final long staticTableBytes;
+
+    private RouterStats(Collector collector, long staticTableBytes)
+    {
+        this.nodeCount = collector.nodeCount;
+        this.routeCount = collector.routeCount;
+        this.depthHistogram = Arrays.copyOf(collector.depthHistogram, collector.maxDepth + 1);
+        this.fanOutHistogram = Arrays.copyOf(collector.fanOutHistogram, collector.maxFanOut + 1);
+        this.segmentStringCount = collector.segmentStrings.size();
+        this.duplicatedSegmentStringCount = collector.duplicatedSegmentStringCount;
+        this.duplicatedSegmentStringBytes = collector.duplicatedSegmentStringBytes;
+        this.treeBytes = collector.footprint.bytes;
+        this.staticTableBytes = staticTableBytes;
+    }
+
+    /**
+     * Walks the tree and the static route table of a router.
+     *
+     * @param root the root of the compressed routing tree
+     * @param staticRoutes the static route table of the router, may be null
+     * @param <T> the handler type
+     * @return the footprint snapshot
+     */
+    static <T> RouterStats of(Node<T> root, StaticRouteTable<T> staticRoutes)
+    {
+        Collector collector = new Collector();
+        collector.visit(root, 0);
+
+        return new RouterStats(collector, staticRoutes != null ? staticRoutes.footprint(new Footprint()) : 0);
+    }
+
+    /**
+     * @return the number of distinct nodes, including the root and the wildcard leaves
+     */
+    public int getNodeCount()
+    {
+        return this.nodeCount;
+    }
+
+    /**
+     * @return the number of nodes having at least one handler
+     */
+    public int getRouteCount()
+    {
+        return this.routeCount;
+    }
+
+    /**
+     * @return the depth of the deepest node, {@code 0} for a tree having only its root
+     */
+    public int getMaxDepth()
+    {
+        return this.depthHistogram.length - 1;
+    }
+
+    /**
+     * @return the number of nodes at every depth, indexed by depth
+     */
+    public int[] getDepthHistogram()
+    {
+        return this.depthHistogram.clone();
+    }
+
+    /**
+     * @return the number of nodes for every fan-out, indexed by number of children
+     */
+    public int[] getFanOutHistogram()
+    {
+        return this.fanOutHistogram.clone();
+    }
+
+    /**
+     * @return the number of distinct segment and parameter name values held by the tree
+     */
+    public int getSegmentStringCount()
+    {
+        return this.segmentStringCount;
+    }
+
+    /**
+     * @return the number of segment and parameter name {@link String} instances equal to another instance of the tree
+     */
+    public int getDuplicatedSegmentStringCount()
+    {
+        return this.duplicatedSegmentStringCount;
+    }
+
+    /**
+     * @return the estimated bytes retained by the duplicated {@link String} instances only
+     */
+    public long getDuplicatedSegmentStringBytes()
+    {
+        return this.duplicatedSegmentStringBytes;
+    }
+
+    /**
+     * @return the estimated bytes retained by the routing tree, excluding the handlers
+     */
+    public long getTreeBytes()
+    {
+        return this.treeBytes;
+    }
+
+    /**
+     * @return the estimated bytes retained by the static route table, or {@code 0} if the router has none
+     */
+    public long getStaticTableBytes()
+    {
+        return this.staticTableBytes;
+    }
+
+    /**
+     * @return the estimated bytes retained by the router, i.e. the tree and the static route table
+     */
+    public long getTotalBytes()
+    {
+        return this.treeBytes + this.staticTableBytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RouterStats (nodes=" + this.nodeCount + ", routes=" + this.routeCount + ", depths=" + Arrays.toString(this.depthHistogram)
+                + ", fanOuts=" + Arrays.toString(this.fanOutHistogram) + ", segmentStrings=" + this.segmentStringCount
+                + ", duplicatedSegmentStrings=" + this.duplicatedSegmentStringCount + ", duplicatedSegmentStringBytes=" + this.duplicatedSegmentStringBytes
+                + ", treeBytes=" + this.treeBytes + ", staticTableBytes=" + this.staticTableBytes + ")";
+    }
+
+    /**
+     * Single pass over the tree collecting the counters and the footprint of every node.
+     */
+    private static final class Collector
+    {
+        private final Footprint footprint = new Footprint();
+        private final Map<String, String> segmentStrings = new HashMap<>();
+
+        private int nodeCount;
+        private int routeCount;
+        private int[] depthHistogram = new int[8];
+        private int[] fanOutHistogram = new int[8];
+        private int maxDepth;
+        private int maxFanOut;
+        private int duplicatedSegmentStringCount;
+        private long duplicatedSegmentStringBytes;
+
+        private <T> void visit(Node<T> node, int depth)
+        {
+            if (this.footprint.object(node) == 0)
+            {
+                return;
+            }
+
+            int fanOut = node.children.length + node.patternChildren.length + (node.wildcard != null ? 1 : 0);
+
+            this.nodeCount++;
+            this.routeCount += node.hasHandlers() ? 1 : 0;
+            this.depthHistogram = Collector.increment(this.depthHistogram, depth);
+            this.fanOutHistogram = Collector.increment(this.fanOutHistogram, fanOut);
+            this.maxDepth = Math.max(this.maxDepth, depth);
+            this.maxFanOut = Math.max(this.maxFanOut, fanOut);
+
+            this.segment(node.pathSegment);
+            this.footprint.array(node.parameterNames);
+            for (String parameterName : node.parameterNames)
+            {
+                this.segment(parameterName);
+            }
+
+            this.footprint.array(node.children);
+            this.footprint.array(node.hashedChildren);
+            this.footprint.array(node.methodHandlers);
+            this.footprint.array(node.patternChildren);
+            this.footprint.allowedMethods(node.allowedMethods);
+
+            if (node.constraint != null)
+            {
+                node.constraint.footprint(this.footprint);
+            }
+
+            if (node.segmentPattern != null)
+            {
+                node.segmentPattern.footprint(this.footprint);
+            }
+
+            if (node.counters != null)
+            {
+                this.footprint.object(node.counters);
+                this.footprint.object(node.counters.hits);
+                this.footprint.object(node.counters.misses);
+                this.footprint.object(node.counters.captures);
+            }
+
+            for (Node<T> child : node.children)
+            {
+                this.visit(child, depth + 1);
+            }
+
+            for (Node<T> child : node.patternChildren)
+            {
+                this.visit(child, depth + 1);
+            }
+
+            if (node.wildcard != null)
+            {
+                this.visit(node.wildcard, depth + 1);
+            }
+        }
+
+        private void segment(String segment)
+        {
+            long bytes = this.footprint.string(segment);
+            if (bytes == 0)
+            {
+                return;
+            }
+
+            if (this.segmentStrings.putIfAbsent(segment, segment) != null)
+            {
+                this.duplicatedSegmentStringCount++;
+                this.duplicatedSegmentStringBytes += bytes;
+            }
+        }
+
+        private static int[] increment(int[] histogram, int index)
+        {
+            int[] result = index < histogram.length ? histogram : Arrays.copyOf(histogram, Math.max(index + 1, histogram.length * 2));
+            result[index]++;
+            return result;
+        }
+    }
+
+    /**
+     * Estimator of the retained bytes of an object graph, counting every object once.
+     *
+     * <p>Each method returns the estimated size of its argument if it was not counted yet, otherwise {@code 0},
+     * and adds it to the running total.
+     */
+    static final class Footprint
+    {
+        private static final int OBJECT_HEADER = 12;
+        private static final int ARRAY_HEADER = 16;
+        private static final int REFERENCE = 4;
+        private static final int ALIGNMENT = 8;
+
+        private static final Map<Class<?>, Integer> SHALLOW_SIZES = new ConcurrentHashMap<>();
+
+        private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private long bytes;
+
+        Footprint()
+        {
+            // Shared constants are retained by the classes, whatever the number of routers.
+            this.visited.add(Node.EMPTY_CHILDREN);
+            this.visited.add(Node.EMPTY_PARAMETER_NAMES);
+            this.visited.add(Node.ROOT_CLASSIFIER);
+        }
+
+        /**
+         * Counts the fields of the object, without following its references.
+         */
+        long object(Object object)
+        {
+            if (object == null || !this.visited.add(object))
+            {
+                return 0;
+            }
+
+            return this.add(Footprint.shallowSize(object.getClass()));
+        }
+
+        /**
+         * Counts the array and its references or primitive values, without following its references.
+         */
+        long array(Object array)
+        {
+            if (array == null || !this.visited.add(array))
+            {
+                return 0;
+            }
+
+            Class<?> componentType = array.getClass().getComponentType();
+            int elementSize = componentType.isPrimitive() ? Footprint.primitiveSize(componentType) : REFERENCE;
+
+            return this.add(Footprint.align(ARRAY_HEADER + (long) Array.getLength(array) * elementSize));
+        }
+
+        /**
+         * Counts the string and its value array, one byte per character if every character is Latin-1.
+         */
+        long string(String string)
+        {
+            if (string == null || !this.visited.add(string))
+            {
+                return 0;
+            }
+
+            int characterSize = 1;
+            for (int index = 0; index < string.length(); index++)
+            {
+                if (string.charAt(index) > 0xFF)
+                {
+                    characterSize = 2;
+                    break;
+                }
+            }
+
+            return this.add(Footprint.shallowSize(String.class) + Footprint.align(ARRAY_HEADER + (long) string.length() * characterSize));
+        }
+
+        /**
+         * Counts an immutable {@link EnumSet} view, as built by {@link Node} for the allowed methods.
+         */
+        long allowedMethods(Set<HttpMethod> allowedMethods)
+        {
+            if (allowedMethods == null || !this.visited.add(allowedMethods))
+            {
+                return 0;
+            }
+
+            // The wrapped set is not reachable without reflective access to java.util, so the size of a new one is used.
+            return this.add(Footprint.shallowSize(allowedMethods.getClass())
+                    + Footprint.shallowSize(EnumSet.noneOf(HttpMethod.class).getClass()));
+        }
+
+        private long add(long size)
+        {
+            this.bytes += size;
+            return size;
+        }
+
+        private static int shallowSize(Class<?> type)
+        {
+            return Footprint.SHALLOW_SIZES.computeIfAbsent(type, key -> {
+                long size = OBJECT_HEADER;
+
+                for (Class<?> current = key; current != null; current = current.getSuperclass())
+                {
+                    for (Field field : current.getDeclaredFields())
+                    {
+                        if (!Modifier.isStatic(field.getModifiers()))
+                        {
+                            size += field.getType().isPrimitive() ? Footprint.primitiveSize(field.getType()) : REFERENCE;
+                        }
+                    }
+                }
+
+                return (int) Footprint.align(size);
+            });
+        }
+
+        private static int primitiveSize(Class<?> type)
+        {
+            if (type == long.class || type == double.class)
+            {
+                return 8;
+            }
+
+            if (type == int.class || type == float.class)
+            {
+                return 4;
+            }
+
+            return type == short.class || type == char.class ? 2 : 1;
+        }
+
+        private static long align(long size)
+        {
+            return (size + ALIGNMENT - 1) & -ALIGNMENT;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package io.peanut.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matcher of a route segment mixing literal text and parameters, e.g. {@code :name.json}, {@code v:version}
+ * or {@code :w-x:h.png}.
+ *
+ * <p>A pattern is compiled once, when its route is added, into alternating literals and captures:
+ * {@code literal capture literal ... capture literal}, where the first and the last literal may be empty
+ * and every literal in between separates two captures. A parameter name is a run of letters, digits and
+ * underscores, so the literal following it starts at the first other character.
+ *
+ * <p>Matching checks the literal prefix and suffix with region comparisons, then finds every intermediate
+ * literal at its first occurrence after the previous capture. Every capture must be non-empty. No regular
+ * expression is involved and matching never allocates, whether the path is a {@link String} or raw bytes
+ * read as ISO-8859-1 characters.
+ */
+final class SegmentPattern
+{
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private SegmentPattern(String[] literals, String[] names)
+    {
+        this.literals = literals;
+        this.names = names;
+
+        int literalLength = 0;
+        for (String literal : literals)
+        {
+            literalLength += literal.length();
+        }
+
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Tests if the {@code [startOffset, endOffset)} route segment is a pattern, i.e. captures a parameter
+     * without being a plain parameterized segment such as {@code :id} or {@code :id<int>}.
+     *
+     * @param path the route path
+     * @param startOffset start index (inclusive) of the segment
+     * @param endOffset end index (exclusive) of the segment
+     * @return {@code true} if the segment must be compiled with {@link #of(String)}
+     */
+    static boolean isPattern(String path, int startOffset, int endOffset)
+    {
+        if (startOffset < endOffset && path.charAt(startOffset) == ':')
+        {
+            int offset = SegmentPattern.skipName(path, startOffset + 1, endOffset);
+            return offset != endOffset && path.charAt(offset) != '<';
+        }
+
+        int offset = path.indexOf(':', startOffset);
+        return offset != -1 && offset < endOffset;
+    }
+
+    /**
+     * Compiles a pattern segment.
+     *
+     * @param segment the route segment, e.g. "v:version"
+     * @return the compiled pattern
+     * @throws IllegalArgumentException if a parameter has no name, two parameters are not separated by a literal,
+     *                                  or a literal contains a constraint character
+     */
+    static SegmentPattern of(String segment)
+    {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        int offset = 0;
+        while (true)
+        {
+            int captureOffset = segment.indexOf(':', offset);
+            int literalEnd = captureOffset != -1 ? captureOffset : segment.length();
+
+            for (int index = offset; index < literalEnd; index++)
+            {
+                char ch = segment.charAt(index);
+                if (ch == '<' || ch == '>' || ch == '|')
+                {
+                    throw new IllegalArgumentException("Unable to proceed segment '" + segment + "' with a constrained parameter");
+                }
+            }
+
+            if (!names.isEmpty() && literalEnd == offset && captureOffset != -1)
+            {
+                throw new IllegalArgumentException("Unable to proceed segment '" + segment + "' with parameters not separated by a literal");
+            }
+
+            literals.add(segment.substring(offset, literalEnd));
+
+            if (captureOffset == -1)
+            {
+                break;
+            }
+
+            offset = SegmentPattern.skipName(segment, captureOffset + 1, segment.length());
+
+            if (offset == captureOffset + 1)
+            {
+                throw new IllegalArgumentException("Unable to proceed segment '" + segment + "' with an unnamed parameter");
+            }
+
+            names.add(segment.substring(captureOffset + 1, offset));
+        }
+
+        return new SegmentPattern(literals.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    /**
+     * @return the index of the first character after the parameter name starting at {@code startOffset}
+     */
+    private static int skipName(String path, int startOffset, int endOffset)
+    {
+        int offset = startOffset;
+        while (offset < endOffset && SegmentPattern.isNameChar(path.charAt(offset)))
+        {
+            offset++;
+        }
+
+        return offset;
+    }
+
+    private static boolean isNameChar(char ch)
+    {
+        return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch >= '0' && ch <= '9' || ch == '_';
+    }
+
+    /**
+     * @return the names of the parameters captured by the pattern, in segment order
+     */
+    String[] names()
+    {
+        return this.names;
+    }
+
+    /**
+     * Orders patterns from the most to the least specific, i.e. by descending literal length, so that
+     * {@code :name.tar.gz} is tried before {@code :name.gz}. Ties are broken by the pattern text.
+     *
+     * @param left the first pattern node
+     * @param right the second pattern node
+     * @param <T> the handler type
+     * @return a negative value if the left pattern must be tried first
+     */
+    static <T> int compare(Node<T> left, Node<T> right)
+    {
+        int difference = right.segmentPattern.literalLength - left.segmentPattern.literalLength;
+        return difference != 0 ? difference : left.pathSegment.compareTo(right.pathSegment);
+    }
+
+    /**
+     * Matches the {@code [startOffset, endOffset)} segment of the request path, capturing the parameters into the match.
+     *
+     * @param path the request path
+     * @param startOffset start index (inclusive) of the segment
+     * @param endOffset end index (exclusive) of the segment
+     * @param match the match receiving the captured parameters, possibly partially filled if the segment does not match
+     * @param firstIndex the position of the first parameter of the pattern in the route
+     * @return {@code true} if the segment matches the pattern
+     */
+    boolean match(String path, int startOffset, int endOffset, RouteMatch<?> match, int firstIndex)
+    {
+        String[] literals = this.literals;
+        String prefix = literals[0];
+        String suffix = literals[literals.length - 1];
+
+        if (endOffset - startOffset < this.literalLength + this.names.length
+                || !path.startsWith(prefix, startOffset) || !path.startsWith(suffix, endOffset - suffix.length()))
+        {
+            return false;
+        }
+
+        int offset = startOffset + prefix.length();
+        int limit = endOffset - suffix.length();
+
+        for (int index = 1; index < literals.length - 1; index++)
+        {
+            String literal = literals[index];
+            int literalOffset = path.indexOf(literal, offset + 1);
+
+            if (literalOffset == -1 || literalOffset + literal.length() >= limit)
+            {
+                return false;
+            }
+
+            match.capture(firstIndex + index - 1, offset, literalOffset);
+            offset = literalOffset + literal.length();
+        }
+
+        match.capture(firstIndex + this.names.length - 1, offset, limit);
+        return true;
+    }
+
+    /**
+     * Byte-level counterpart of {@link #match(String, int, int, RouteMatch, int)}.
+     *
+     * @param path the raw request path bytes
+     * @param startOffset start index (inclusive) of the segment
+     * @param endOffset end index (exclusive) of the segment
+     * @param match the match receiving the captured parameters, possibly partially filled if the segment does not match
+     * @param firstIndex the position of the first parameter of the pattern in the route
+     * @param shift the value subtracted from the captured offsets, mapping them back to the caller's buffer
+     * @return {@code true} if the segment matches the pattern
+     */
+    boolean match(byte[] path, int startOffset, int endOffset, RouteMatch<?> match, int firstIndex, int shift)
+    {
+        String[] literals = this.literals;
+        String prefix = literals[0];
+        String suffix = literals[literals.length - 1];
+
+        if (endOffset - startOffset < this.literalLength + this.names.length
+                || !NodeChooser.regionMatches(path, startOffset, prefix, 0, prefix.length())
+                || !NodeChooser.regionMatches(path, endOffset - suffix.length(), suffix, 0, suffix.length()))
+        {
+            return false;
+        }
+
+        int offset = startOffset + prefix.length();
+        int limit = endOffset - suffix.length();
+
+        for (int index = 1; index < literals.length - 1; index++)
+        {
+            String literal = literals[index];
+            int literalOffset = SegmentPattern.indexOf(path, literal, offset + 1, limit);
+
+            if (literalOffset == -1)
+            {
+                return false;
+            }
+
+            match.capture(firstIndex + index - 1, offset - shift, literalOffset - shift);
+            offset = literalOffset + literal.length();
+        }
+
+        match.capture(firstIndex + this.names.length - 1, offset - shift, limit - shift);
+        return true;
+    }
+
+    /**
+     * Finds the first occurrence of the literal in the bytes, leaving at least one byte before {@code limit}.
+     *
+     * @return the index of the occurrence, or {@code -1} if there is none
+     */
+    private static int indexOf(byte[] path, String literal, int startOffset, int limit)
+    {
+        for (int offset = startOffset; offset + literal.length() < limit; offset++)
+        {
+            if (NodeChooser.regionMatches(path, offset, literal, 0, literal.length()))
+            {
+                return offset;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Counts the pattern and its literals into the footprint of a routing tree, see {@link RouterStats}.
+     *
+     * @param footprint the footprint of the tree
+     */
+    void footprint(RouterStats.Footprint footprint)
+    {
+        if (footprint.object(this) != 0)
+        {
+            footprint.array(this.literals);
+            footprint.array(this.names);
+
+            for (String literal : this.literals)
+            {
+                footprint.string(literal);
+            }
+
+            for (String name : this.names)
+            {
+                footprint.string(name);
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SegmentPattern (literals=" + String.join("|", this.literals) + ", names=" + String.join("|", this.names) + ")";
+    }
+}
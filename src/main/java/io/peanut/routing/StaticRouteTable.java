@@ -0,0 +1,455 @@
+package io.peanut.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exact-match table of all fully static routes of a routing tree.
+ *
+ * <p>Every route whose segments are all static (e.g. {@code /health}, {@code /api/v2/external/metrics})
+ * is stored under its normalized path, i.e. without leading and trailing delimiters, in an
+ * open-addressing hash table built once when the router is created. A lookup hashes the request
+ * path region in place and confirms the candidate with a single {@code regionMatches}, so the
+ * majority of static traffic never walks the tree. Parameterized and unknown paths fall back
+ * to the tree walk.
+ *
+ * <p>The table of a router derived by {@link HttpRouter#withRoute(String, Object)} or
+ * {@link HttpRouter#withoutRoute(String)} is a copy of the original one where only the entry of the
+ * updated route is replaced, see {@link #with(StaticRouteTable, Node, String)}.
+ *
+ * <p>Matched entries hold a precomputed {@link RouteResult}, which is immutable for
+ * static routes and therefore shared between all lookups. Routes with method specific handlers
+ * additionally hold one precomputed result per {@link HttpMethod}. Routes with method specific handlers
+ * only have no method agnostic result and are left to the tree walk when no method is given.
+ *
+ * @param <T> the type of handler associated with the routes
+ */
+final class StaticRouteTable<T>
+{
+    private final String[] paths;
+    private final int[] hashes;
+    private final RouteResult<T>[] results;
+    private final RouteResult<T>[][] methodResults;
+    private final Node<T>[] nodes;
+    private final int mask;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    private StaticRouteTable(List<String> paths, List<Node<T>> nodes)
+    {
+        int capacity = Integer.highestOneBit(Math.max(1, paths.size())) << 2;
+
+        this.paths = new String[capacity];
+        this.hashes = new int[capacity];
+        this.results = (RouteResult<T>[]) new RouteResult<?>[capacity];
+        this.methodResults = (RouteResult<T>[][]) new RouteResult<?>[capacity][];
+        this.nodes = RouteMetrics.IS_ENABLED ? (Node<T>[]) new Node<?>[capacity] : null;
+        this.mask = capacity - 1;
+
+        for (int index = 0; index < paths.size(); index++)
+        {
+            String path = paths.get(index);
+            int hash = path.hashCode();
+            int slot = NodeChooser.spread(hash) & this.mask;
+
+            while (this.paths[slot] != null)
+            {
+                slot = (slot + 1) & this.mask;
+            }
+
+            this.put(slot, path, hash, nodes.get(index));
+            this.size++;
+        }
+    }
+
+    /**
+     * Creates a copy of the table, to be updated before it is published.
+     *
+     * @param table the table to copy
+     */
+    private StaticRouteTable(StaticRouteTable<T> table)
+    {
+        this.paths = table.paths.clone();
+        this.hashes = table.hashes.clone();
+        this.results = table.results.clone();
+        this.methodResults = table.methodResults.clone();
+        this.nodes = table.nodes != null ? table.nodes.clone() : null;
+        this.mask = table.mask;
+        this.size = table.size;
+    }
+
+    /**
+     * Stores the route in the slot, replacing its previous entry if any.
+     *
+     * @param slot the slot of the route
+     * @param path the normalized path of the route
+     * @param hash the hash of the path
+     * @param node the node of the route
+     */
+    private void put(int slot, String path, int hash, Node<T> node)
+    {
+        this.paths[slot] = path;
+        this.hashes[slot] = hash;
+
+        if (this.nodes != null)
+        {
+            this.nodes[slot] = node;
+        }
+
+        // Routes with method specific handlers only are left to the tree walk when no method is given,
+        // so that a parameterized sibling with a method agnostic handler may match the path.
+        this.results[slot] = node.handler != null ? new RouteResult<>(node.handler, path, Node.EMPTY_PARAMETER_NAMES, null) : null;
+        this.methodResults[slot] = node.methodHandlers != null ? StaticRouteTable.methodResults(node, path) : null;
+    }
+
+    /**
+     * Removes the entry of the slot, moving the following entries of its probe sequence back
+     * so that every remaining entry stays reachable from its home slot.
+     *
+     * @param slot the slot of the removed route
+     */
+    private void delete(int slot)
+    {
+        int hole = slot;
+
+        for (int next = (hole + 1) & this.mask; this.paths[next] != null; next = (next + 1) & this.mask)
+        {
+            int home = NodeChooser.spread(this.hashes[next]) & this.mask;
+
+            // The entry may fill the hole only if the hole lies between its home slot and its current slot.
+            if (((next - home) & this.mask) >= ((next - hole) & this.mask))
+            {
+                this.paths[hole] = this.paths[next];
+                this.hashes[hole] = this.hashes[next];
+                this.results[hole] = this.results[next];
+                this.methodResults[hole] = this.methodResults[next];
+                if (this.nodes != null)
+                {
+                    this.nodes[hole] = this.nodes[next];
+                }
+
+                hole = next;
+            }
+        }
+
+        this.paths[hole] = null;
+        this.hashes[hole] = 0;
+        this.results[hole] = null;
+        this.methodResults[hole] = null;
+        if (this.nodes != null)
+        {
+            this.nodes[hole] = null;
+        }
+
+        this.size--;
+    }
+
+    /**
+     * Derives the table of an updated tree, where only the route at {@code path} was added, changed or removed.
+     *
+     * <p>The entries of the other routes are kept: their results only depend on their own handlers, and the
+     * nodes copied on the path of the update take over the lookup counters of the nodes they replace.
+     *
+     * @param table the table of the original tree, may be null
+     * @param root the root of the updated tree
+     * @param path the normalized path of the updated route, i.e. without leading and trailing delimiters
+     * @param <T> the handler type
+     * @return the updated table, {@code table} itself if the route is not fully static, or {@code null} if no static route is left
+     */
+    static <T> StaticRouteTable<T> with(StaticRouteTable<T> table, Node<T> root, String path)
+    {
+        Node<T> node = StaticRouteTable.locate(root, path);
+        boolean isRoute = node != null && node.hasHandlers();
+        int hash = path.hashCode();
+        int slot = table != null ? table.slotOf(path, 0, path.length()) : -1;
+
+        if (!isRoute && slot == -1)
+        {
+            // Not a static route, e.g. a parameterized one, nor a removed one.
+            return table;
+        }
+
+        if (table == null || slot == -1 && (table.size + 1) << 1 > table.paths.length)
+        {
+            // Grows the table by building it anew, which keeps the load factor below one half.
+            List<String> paths = new ArrayList<>();
+            List<Node<T>> nodes = new ArrayList<>();
+
+            if (table != null)
+            {
+                for (int index = 0; index < table.paths.length; index++)
+                {
+                    if (table.paths[index] != null)
+                    {
+                        paths.add(table.paths[index]);
+                        nodes.add(StaticRouteTable.locate(root, table.paths[index]));
+                    }
+                }
+            }
+
+            paths.add(path);
+            nodes.add(node);
+            return new StaticRouteTable<>(paths, nodes);
+        }
+
+        StaticRouteTable<T> updated = new StaticRouteTable<>(table);
+
+        if (!isRoute)
+        {
+            updated.delete(slot);
+            return updated.size != 0 ? updated : null;
+        }
+
+        if (slot == -1)
+        {
+            slot = NodeChooser.spread(hash) & updated.mask;
+
+            while (updated.paths[slot] != null)
+            {
+                slot = (slot + 1) & updated.mask;
+            }
+
+            updated.size++;
+        }
+
+        updated.put(slot, path, hash, node);
+        return updated;
+    }
+
+    /**
+     * Follows the static children of the tree along the normalized path.
+     *
+     * @param root the root of the routing tree
+     * @param path the normalized path of a route
+     * @param <T> the handler type
+     * @return the node reached by static children only, or {@code null} if there is none
+     */
+    private static <T> Node<T> locate(Node<T> root, String path)
+    {
+        Node<T> current = root;
+        int endIndex = path.length();
+
+        for (int sOffset = 0; ; )
+        {
+            int eOffset = Node.indexOfDelimiter(path, sOffset, endIndex);
+            Node<T> next = NodeChooser.chooseStatic(current, sOffset, eOffset, path);
+
+            if (next == null || (eOffset = NodeChooser.matchTail(next, path, eOffset, endIndex)) == -1)
+            {
+                return null;
+            }
+
+            if (eOffset == endIndex)
+            {
+                return next;
+            }
+
+            current = next;
+            sOffset = eOffset + 1;
+        }
+    }
+
+    /**
+     * Precomputes the results of a route for every method, including the disallowed ones.
+     *
+     * @param node the node of the route
+     * @param path the normalized path of the route
+     * @param <T> the handler type
+     * @return the results indexed by {@link HttpMethod} ordinal
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> RouteResult<T>[] methodResults(Node<T> node, String path)
+    {
+        RouteResult<T>[] results = (RouteResult<T>[]) new RouteResult<?>[HttpMethod.count()];
+
+        for (int ordinal = 0; ordinal < results.length; ordinal++)
+        {
+            T handler = node.handler(HttpMethod.of(ordinal));
+            results[ordinal] = new RouteResult<>(handler, path, Node.EMPTY_PARAMETER_NAMES, null, handler == null ? node.allowedMethods : null);
+        }
+
+        return results;
+    }
+
+    /**
+     * Collects the fully static routes of the tree into a new table.
+     *
+     * @param root the root of the routing tree
+     * @param <T> the handler type
+     * @return the table of static routes, or {@code null} if the tree has no static routes
+     */
+    static <T> StaticRouteTable<T> of(Node<T> root)
+    {
+        List<String> paths = new ArrayList<>();
+        List<Node<T>> nodes = new ArrayList<>();
+
+        for (Node<T> child : root.children)
+        {
+            StaticRouteTable.collect(child, child.pathSegment, paths, nodes);
+        }
+
+        return paths.isEmpty() ? null : new StaticRouteTable<>(paths, nodes);
+    }
+
+    private static <T> void collect(Node<T> node, String path, List<String> paths, List<Node<T>> nodes)
+    {
+        if (node.isParameterized)
+        {
+            return;
+        }
+
+        if (node.hasHandlers())
+        {
+            paths.add(path);
+            nodes.add(node);
+        }
+
+        for (Node<T> child : node.children)
+        {
+            StaticRouteTable.collect(child, path + '/' + child.pathSegment, paths, nodes);
+        }
+    }
+
+    /**
+     * Finds the static route matching the {@code [startIndex, endIndex)} region of the request path.
+     *
+     * @param requestPath the request path
+     * @param startIndex start index (inclusive) of the normalized path, i.e. after the leading delimiter
+     * @param endIndex end index (exclusive) of the normalized path, i.e. before the trailing delimiter
+     * @return the shared result of the matched static route, or {@code null} if there is none
+     */
+    RouteResult<T> find(String requestPath, int startIndex, int endIndex)
+    {
+        int slot = this.slotOf(requestPath, startIndex, endIndex);
+        return slot != -1 && this.results[slot] != null ? this.result(slot, this.results[slot]) : null;
+    }
+
+    /**
+     * Finds the static route matching the {@code [startIndex, endIndex)} region of the request path
+     * and resolves its result for the request method.
+     *
+     * @param method the request method
+     * @param requestPath the request path
+     * @param startIndex start index (inclusive) of the normalized path, i.e. after the leading delimiter
+     * @param endIndex end index (exclusive) of the normalized path, i.e. before the trailing delimiter
+     * @return the shared result of the matched static route, or {@code null} if there is none
+     */
+    RouteResult<T> find(HttpMethod method, String requestPath, int startIndex, int endIndex)
+    {
+        int slot = this.slotOf(requestPath, startIndex, endIndex);
+
+        if (slot == -1)
+        {
+            return null;
+        }
+
+        RouteResult<T>[] methodResults = this.methodResults[slot];
+        return this.result(slot, methodResults != null ? methodResults[method.ordinal()] : this.results[slot]);
+    }
+
+    /**
+     * @return the result of the route found at the slot, recording the lookup if instrumentation is enabled
+     */
+    private RouteResult<T> result(int slot, RouteResult<T> result)
+    {
+        if (RouteMetrics.IS_ENABLED)
+        {
+            RouteMetrics.record(this.nodes[slot], result.getHandler());
+        }
+
+        return result;
+    }
+
+    private int slotOf(String requestPath, int startIndex, int endIndex)
+    {
+        int length = endIndex - startIndex;
+        int hash = Node.hashRegion(requestPath, startIndex, endIndex);
+
+        for (int slot = NodeChooser.spread(hash) & this.mask; ; slot = (slot + 1) & this.mask)
+        {
+            String path = this.paths[slot];
+
+            if (path == null)
+            {
+                return -1;
+            }
+
+            if (this.hashes[slot] == hash && path.length() == length && requestPath.regionMatches(startIndex, path, 0, length))
+            {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Byte-level counterpart of {@link #find(String, int, int)}, every byte being read as an ISO-8859-1 character.
+     *
+     * @param requestPath the raw request path bytes
+     * @param startIndex start index (inclusive) of the path without the leading delimiter
+     * @param endIndex end index (exclusive) of the path without the trailing delimiter
+     * @return the shared result of the matching route, or {@code null} if the path is not a static route
+     */
+    RouteResult<T> find(byte[] requestPath, int startIndex, int endIndex)
+    {
+        int length = endIndex - startIndex;
+        int hash = Node.hashRegion(requestPath, startIndex, endIndex);
+
+        for (int slot = NodeChooser.spread(hash) & this.mask; ; slot = (slot + 1) & this.mask)
+        {
+            String path = this.paths[slot];
+
+            if (path == null)
+            {
+                return null;
+            }
+
+            if (this.hashes[slot] == hash && path.length() == length && StaticRouteTable.regionMatches(requestPath, startIndex, path))
+            {
+                return this.results[slot] != null ? this.result(slot, this.results[slot]) : null;
+            }
+        }
+    }
+
+    /**
+     * Counts the table, its paths and its precomputed results into a footprint, see {@link RouterStats}.
+     *
+     * @param footprint the footprint of the router
+     * @return the estimated bytes retained by the table
+     */
+    long footprint(RouterStats.Footprint footprint)
+    {
+        long bytes = footprint.object(this) + footprint.array(this.paths) + footprint.array(this.hashes)
+                + footprint.array(this.results) + footprint.array(this.methodResults) + footprint.array(this.nodes);
+
+        for (int slot = 0; slot < this.paths.length; slot++)
+        {
+            bytes += footprint.string(this.paths[slot]) + footprint.object(this.results[slot]) + footprint.array(this.methodResults[slot]);
+
+            if (this.methodResults[slot] != null)
+            {
+                for (RouteResult<T> result : this.methodResults[slot])
+                {
+                    bytes += footprint.object(result);
+                }
+            }
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Tests if the bytes starting at {@code startIndex}, read as ISO-8859-1 characters, equal the whole path.
+     */
+    private static boolean regionMatches(byte[] requestPath, int startIndex, String path)
+    {
+        for (int offset = 0; offset < path.length(); offset++)
+        {
+            if ((requestPath[startIndex + offset] & 0xFF) != path.charAt(offset))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class BacktrackingLookupTest
+{
+    private static final Consumer<HttpRouterConfiguration<String>> ROUTES = config -> {
+        config.add("/users/me", "handlerMe");
+        config.add("/users/me/settings", "handlerMeSettings");
+        config.add("/users/:id/posts", "handlerUserPosts");
+        config.add("/users/:id/posts/:post_id", "handlerUserPost");
+
+        config.add("/repos/:owner/:repo/issues", "handlerIssues");
+        config.add("/repos/peanut/router/pulls", "handlerPulls");
+        config.add("/repos/peanut/:repo/wiki", "handlerWiki");
+    };
+
+    private static final String[] PATHS = {
+            "/users/me", "/users/me/settings", "/users/me/posts", "/users/me/posts/7", "/users/42/posts",
+            "/users/me/settings/x", "/repos/peanut/router/pulls", "/repos/peanut/router/issues",
+            "/repos/peanut/router/wiki", "/repos/peanut/other/pulls", "/repos/other/router/wiki", "/users/me/",
+    };
+
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(ROUTES);
+    }
+
+    @Test
+    @Order(1)
+    public void test_hit_static_preferred()
+    {
+        Assertions.assertEquals("handlerMe", httpRouter.route("/users/me").getHandler());
+        Assertions.assertEquals("handlerMeSettings", httpRouter.route("/users/me/settings").getHandler());
+        Assertions.assertEquals("handlerPulls", httpRouter.route("/repos/peanut/router/pulls").getHandler());
+    }
+
+    @Test
+    @Order(2)
+    public void test_hit_parameterized_after_static_dead_end()
+    {
+        RouteResult<String> result = httpRouter.route("/users/me/posts");
+
+        Assertions.assertEquals("handlerUserPosts", result.getHandler());
+        Assertions.assertEquals("me", result.getParameter("id"));
+
+        result = httpRouter.route("/users/me/posts/7");
+
+        Assertions.assertEquals("handlerUserPost", result.getHandler());
+        Assertions.assertEquals("me", result.getParameter("id"));
+        Assertions.assertEquals("7", result.getParameter("post_id"));
+    }
+
+    @Test
+    @Order(3)
+    public void test_hit_nested_backtracking()
+    {
+        RouteResult<String> result = httpRouter.route("/repos/peanut/router/issues");
+
+        Assertions.assertEquals("handlerIssues", result.getHandler());
+        Assertions.assertEquals("peanut", result.getParameter("owner"));
+        Assertions.assertEquals("router", result.getParameter("repo"));
+
+        result = httpRouter.route("/repos/peanut/router/wiki");
+
+        Assertions.assertEquals("handlerWiki", result.getHandler());
+        Assertions.assertEquals(1, result.getParameterCount());
+        Assertions.assertEquals("router", result.getParameter("repo"));
+
+        Assertions.assertNull(httpRouter.route("/repos/other/router/wiki").getHandler());
+        Assertions.assertNull(httpRouter.route("/users/me/settings/x").getHandler());
+    }
+
+    @Test
+    @Order(4)
+    public void test_route_match_reused_after_backtracking()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+        String path = "/repos/peanut/router/issues";
+
+        Assertions.assertTrue(httpRouter.route(path, match));
+        Assertions.assertEquals("handlerIssues", match.getHandler());
+        Assertions.assertEquals(2, match.getParameterCount());
+        Assertions.assertEquals("owner", match.getParameterName(0));
+        Assertions.assertEquals("router", path.substring(match.getParameterStart(1), match.getParameterEnd(1)));
+
+        Assertions.assertTrue(httpRouter.route("/users/me", match));
+        Assertions.assertEquals("handlerMe", match.getHandler());
+        Assertions.assertEquals(0, match.getParameterCount());
+
+        Assertions.assertFalse(httpRouter.route("/users/me/settings/x", match));
+        Assertions.assertNull(match.getHandler());
+
+        byte[] request = "GET /users/me/posts/7 HTTP/1.1".getBytes(StandardCharsets.ISO_8859_1);
+
+        Assertions.assertTrue(httpRouter.route(request, 4, 17, match));
+        Assertions.assertEquals("handlerUserPost", match.getHandler());
+        Assertions.assertEquals("me", new String(request, match.getParameterStart(0),
+                match.getParameterEnd(0) - match.getParameterStart(0), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    @Order(5)
+    public void test_compiled_same_as_tree()
+    {
+        CompiledHttpRouter<String> compiledRouter = HttpRouterFactory.compile(ROUTES);
+        OffHeapHttpRouter<String> offHeapRouter = HttpRouterFactory.compileOffHeap(ROUTES);
+        RouteMatch<String> expected = new RouteMatch<>();
+        RouteMatch<String> actual = new RouteMatch<>();
+
+        for (String path : PATHS)
+        {
+            RouteResult<String> result = httpRouter.route(path);
+
+            Assertions.assertEquals(result.getParameters(), compiledRouter.route(path).getParameters(), path);
+            Assertions.assertEquals(result.getHandler(), compiledRouter.route(path).getHandler(), path);
+            Assertions.assertEquals(result.getHandler(), offHeapRouter.route(path).getHandler(), path);
+
+            Assertions.assertEquals(httpRouter.route(path, expected), offHeapRouter.route(path, actual), path);
+            Assertions.assertEquals(expected.getHandler(), actual.getHandler(), path);
+            Assertions.assertEquals(expected.getParameterCount(), actual.getParameterCount(), path);
+        }
+    }
+
+    @Test
+    @Order(6)
+    public void test_hit_wildcard_after_parameterized_dead_end()
+    {
+        HttpRouter<String> updated = httpRouter.withRoute("/users/*rest", "handlerUsersRest");
+
+        Assertions.assertEquals("handlerUserPosts", updated.route("/users/me/posts").getHandler());
+        Assertions.assertEquals("handlerMe", updated.route("/users/me").getHandler());
+
+        RouteResult<String> result = updated.route("/users/me/settings/x");
+
+        Assertions.assertEquals("handlerUsersRest", result.getHandler());
+        Assertions.assertEquals("me/settings/x", result.getParameter("rest"));
+    }
+
+    @Test
+    @Order(7)
+    public void test_pooled_match_released()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+
+        Assertions.assertEquals("handlerUserPosts", httpRouter.route("/users/me/posts").getHandler());
+        Assertions.assertTrue(httpRouter.route("/users/me/posts", match));
+
+        // Neither the pooled nor the caller's match retains the nodes of the tree after the lookup.
+        Assertions.assertNull(RouteMatch.pooled(0).backtrackNode(0));
+        Assertions.assertNull(match.backtrackNode(0));
+    }
+}
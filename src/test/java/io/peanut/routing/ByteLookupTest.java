@@ -0,0 +1,98 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class ByteLookupTest
+{
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(config -> {
+            config.add("/home", "handlerHome");
+            config.add("/admin/settings", "handlerSettings");
+            config.add("/api/v1/user/:userId/profile", "handlerUserProfile");
+            config.add("/shop/:category/:itemId", "handlerShopItem");
+        });
+    }
+
+    private static byte[] ascii(String value)
+    {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    @Order(1)
+    public void test_hit_static_bytes()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+        byte[] requestLine = ascii("GET /admin/settings/ HTTP/1.1");
+
+        Assertions.assertTrue(httpRouter.route(requestLine, 4, 16, match));
+        Assertions.assertEquals("handlerSettings", match.getHandler());
+        Assertions.assertEquals(0, match.getParameterCount());
+        Assertions.assertNull(match.getPath());
+    }
+
+    @Test
+    @Order(2)
+    public void test_hit_parameterized_bytes_offsets()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+        String requestLine = "GET /shop/books/42 HTTP/1.1";
+
+        Assertions.assertTrue(httpRouter.route(ascii(requestLine), 4, 14, match));
+        Assertions.assertEquals("handlerShopItem", match.getHandler());
+        Assertions.assertEquals(2, match.getParameterCount());
+        Assertions.assertEquals(requestLine.indexOf("books"), match.getParameterStart(0));
+        Assertions.assertEquals(requestLine.indexOf("books") + 5, match.getParameterEnd(0));
+        Assertions.assertEquals(requestLine.indexOf("42"), match.getParameterStart(1));
+        Assertions.assertThrows(IllegalStateException.class, () -> match.getParameter(0));
+    }
+
+    @Test
+    @Order(3)
+    public void test_hit_parameterized_buffers()
+    {
+        String requestLine = "GET /api/v1/user/7/profile HTTP/1.1";
+        int start = requestLine.indexOf('7');
+
+        ByteBuffer heap = ByteBuffer.wrap(ascii("XX" + requestLine), 2, requestLine.length()).slice();
+        ByteBuffer direct = ByteBuffer.allocateDirect(requestLine.length()).put(ascii(requestLine)).flip();
+
+        for (ByteBuffer buffer : new ByteBuffer[]{heap, direct})
+        {
+            RouteMatch<String> match = new RouteMatch<>();
+
+            Assertions.assertTrue(httpRouter.route(buffer, 4, 22, match));
+            Assertions.assertEquals("handlerUserProfile", match.getHandler());
+            Assertions.assertEquals(start, match.getParameterStart(0));
+            Assertions.assertEquals(start + 1, match.getParameterEnd(0));
+            Assertions.assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test
+    @Order(4)
+    public void test_miss_bytes_same_as_string()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+
+        for (String path : new String[]{"/", "/home/", "home", "/shop/books", "/shop//42", "/api/v1/user/7", "/unknown", "/homé"})
+        {
+            byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+
+            Assertions.assertEquals(httpRouter.route(path).getHandler() != null, httpRouter.route(bytes, 0, bytes.length, match), path);
+            Assertions.assertEquals(httpRouter.route(path).getHandler(), match.getHandler(), path);
+        }
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> httpRouter.route(new byte[4], 2, 3, match));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> httpRouter.route(new byte[4], 2, 0, match));
+    }
+}
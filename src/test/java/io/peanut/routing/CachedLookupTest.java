@@ -0,0 +1,78 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class CachedLookupTest
+{
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(config -> {
+            config.resultCache(64);
+            config.add("/home", "handlerHome");
+            config.add("/api/v1/user/:userId/profile", "handlerUserProfile");
+            config.add("/shop/:category/:itemId", "handlerShopItem");
+        });
+    }
+
+    @Test
+    @Order(1)
+    public void test_repeated_hit_shares_result()
+    {
+        long hits = httpRouter.getCacheHitCount();
+        long misses = httpRouter.getCacheMissCount();
+
+        RouteResult<String> first = httpRouter.route("/shop/books/42");
+        RouteResult<String> second = httpRouter.route("/shop/books/42");
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals("handlerShopItem", second.getHandler());
+        Assertions.assertEquals(Map.of("category", "books", "itemId", "42"), second.getParameters());
+        Assertions.assertEquals(hits + 1, httpRouter.getCacheHitCount());
+        Assertions.assertEquals(misses + 1, httpRouter.getCacheMissCount());
+    }
+
+    @Test
+    @Order(2)
+    public void test_cached_parameters_immutable()
+    {
+        Map<String, String> parameters = httpRouter.route("/api/v1/user/7/profile").getParameters();
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> parameters.put("userId", "8"));
+        Assertions.assertEquals("7", httpRouter.route("/api/v1/user/7/profile").getParameter("userId"));
+    }
+
+    @Test
+    @Order(3)
+    public void test_miss_not_cached()
+    {
+        Assertions.assertNull(httpRouter.route("/shop/books").getHandler());
+        Assertions.assertNull(httpRouter.route("/shop/books").getHandler());
+        Assertions.assertEquals("handlerHome", httpRouter.route("/home").getHandler());
+    }
+
+    @Test
+    @Order(4)
+    public void test_bounded_capacity()
+    {
+        for (int index = 0; index < 1000; index++)
+        {
+            String itemId = String.valueOf(index);
+            RouteResult<String> result = httpRouter.route("/shop/books/" + itemId);
+
+            Assertions.assertEquals("handlerShopItem", result.getHandler());
+            Assertions.assertEquals(itemId, result.getParameter("itemId"));
+        }
+
+        RouteResultCache<String> cache = new RouteResultCache<>(100);
+        Assertions.assertEquals(128, cache.capacity());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HttpRouterConfiguration<String>().resultCache(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HttpRouterConfiguration<String>().resultCache(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,99 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Collections;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class ChildLookupStrategyTest
+{
+    private static final int FAN_OUT = 1000;
+    private static final int MID_FAN_OUT = 16;
+
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(config -> {
+            for (int index = 0; index < FAN_OUT; index++)
+            {
+                config.add("/api/v1/resource_" + index, "handlerResource" + index);
+            }
+
+            config.add("/api/v1/:resource/state", "handlerResourceState");
+
+            for (int index = 0; index < MID_FAN_OUT; index++)
+            {
+                config.add("/api/v2/" + (char) ('a' + index) + "item", "handlerItem" + index);
+            }
+
+            config.add("/api/v2/:item", "handlerItem");
+        });
+    }
+
+    @Test
+    @Order(1)
+    public void test_hit_every_hashed_child()
+    {
+        for (int index = 0; index < FAN_OUT; index++)
+        {
+            RouteResult<String> result = httpRouter.route("/api/v1/resource_" + index);
+
+            Assertions.assertEquals("handlerResource" + index, result.getHandler());
+            Assertions.assertSame(Collections.EMPTY_MAP, result.getParameters());
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void test_hit_parameterized_sibling_of_hashed_children()
+    {
+        RouteResult<String> result = httpRouter.route("/api/v1/resource_1000/state");
+
+        Assertions.assertEquals("handlerResourceState", result.getHandler());
+        Assertions.assertEquals("resource_1000", result.getParameter("resource"));
+    }
+
+    @Test
+    @Order(3)
+    public void test_miss_hashed_children()
+    {
+        Assertions.assertNull(httpRouter.route("/api/v1/resource_1000").getHandler());
+        Assertions.assertNull(httpRouter.route("/api/v1/resource_").getHandler());
+        Assertions.assertNull(httpRouter.route("/api/v1/Resource_1").getHandler());
+    }
+
+    @Test
+    @Order(4)
+    public void test_hit_every_binary_searched_child()
+    {
+        for (int index = 0; index < MID_FAN_OUT; index++)
+        {
+            RouteResult<String> result = httpRouter.route("/api/v2/" + (char) ('a' + index) + "item");
+
+            Assertions.assertEquals("handlerItem" + index, result.getHandler());
+            Assertions.assertSame(Collections.EMPTY_MAP, result.getParameters());
+        }
+    }
+
+    @Test
+    @Order(5)
+    public void test_fall_back_to_parameterized_sibling_of_binary_searched_children()
+    {
+        for (String item : new String[]{"", "0item", "aitem0", "aite", "bitem_", "zitem", "~"})
+        {
+            RouteResult<String> result = httpRouter.route("/api/v2/" + item);
+
+            if (item.isEmpty())
+            {
+                Assertions.assertNull(result.getHandler());
+            } else
+            {
+                Assertions.assertEquals("handlerItem", result.getHandler());
+                Assertions.assertEquals(item, result.getParameter("item"));
+            }
+        }
+    }
+}
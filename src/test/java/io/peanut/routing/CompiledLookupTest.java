@@ -0,0 +1,135 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.util.function.Consumer;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class CompiledLookupTest
+{
+    private static final Consumer<HttpRouterConfiguration<String>> ROUTES = config -> {
+        config.add("/home", "handlerHome");
+        config.add("/admin", "handlerAdmin");
+        config.add("/admin/settings", "handlerSettings");
+        config.add("/admin/settings/:section", "handlerSettingsSection");
+
+        config.add("/api/v1/internal/game_request", "handlerGameRequest");
+        config.add("/api/v1/internal/game_init", "handlerGameInit");
+        config.add("/api/v1/internal/game_request/:ray_id", "handlerGameRay");
+        config.add("/api/v1/users/:user_id/posts/:post_id/comments/:comment_id", "handlerComment");
+        config.add("/api/v2/external/metrics", "handlerMetrics");
+
+        config.add("/shop/:category/:itemId", "handlerShopItem");
+        config.add("/shop/cart", "handlerCart");
+        config.add("/a//b", "handlerEmptySegment");
+
+        for (int index = 0; index < 100; index++)
+        {
+            config.add("/wide/resource_" + index, "handlerResource" + index);
+            config.add("/mid/" + (char) ('a' + index % 16) + "/" + index, "handlerMid" + index);
+        }
+    };
+
+    private static final String[] PATHS = {
+            "/home", "home/", "/home/", "/admin", "/admin/settings", "/admin/settings/security", "/admin/any",
+            "/api/v1/internal/game_request", "/api/v1/internal/game_request/ray-1", "/api/v1/internal",
+            "/api/v1/internal/game_init/", "/api/v1", "/api/v1/int", "/api/v1/users/1/posts/2/comments/3",
+            "/api/v1/users/1/posts/2/comments", "/api/v2/external/metrics", "/api/v2/external", "/api/v3",
+            "/shop/cart", "/shop/food/42", "/shop/food", "/shop/cart/1", "/a//b", "/a/b", "/wide/resource_99",
+            "/wide/resource_100", "/wide/resource_0/", "/mid/c/2", "/mid/c/3", "/mid/p/15", "/missing", "/",
+    };
+
+    private static HttpRouter<String> httpRouter;
+    private static CompiledHttpRouter<String> compiledRouter;
+    private static OffHeapHttpRouter<String> offHeapRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(ROUTES);
+        compiledRouter = HttpRouterFactory.compile(ROUTES);
+        offHeapRouter = HttpRouterFactory.compileOffHeap(ROUTES);
+    }
+
+    @Test
+    @Order(1)
+    public void test_route_same_as_tree()
+    {
+        for (String path : PATHS)
+        {
+            RouteResult<String> expected = httpRouter.route(path);
+            RouteResult<String> actual = compiledRouter.route(path);
+
+            Assertions.assertEquals(expected.getHandler(), actual.getHandler(), path);
+            Assertions.assertEquals(expected.getParameters(), actual.getParameters(), path);
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void test_route_match_same_as_tree()
+    {
+        RouteMatch<String> expected = new RouteMatch<>();
+        RouteMatch<String> actual = new RouteMatch<>();
+
+        for (String path : PATHS)
+        {
+            Assertions.assertEquals(httpRouter.route(path, expected), compiledRouter.route(path, actual), path);
+            Assertions.assertEquals(expected.getHandler(), actual.getHandler(), path);
+            Assertions.assertEquals(expected.getParameterCount(), actual.getParameterCount(), path);
+
+            for (int index = 0; index < expected.getParameterCount(); index++)
+            {
+                Assertions.assertEquals(expected.getParameterName(index), actual.getParameterName(index), path);
+                Assertions.assertEquals(expected.getParameterStart(index), actual.getParameterStart(index), path);
+                Assertions.assertEquals(expected.getParameterEnd(index), actual.getParameterEnd(index), path);
+            }
+        }
+    }
+
+    @Test
+    @Order(3)
+    public void test_hit_parameterized()
+    {
+        RouteResult<String> result = compiledRouter.route("/api/v1/users/1/posts/2/comments/3");
+
+        Assertions.assertEquals("handlerComment", result.getHandler());
+        Assertions.assertEquals("1", result.getParameter("user_id"));
+        Assertions.assertEquals("2", result.getParameter("post_id"));
+        Assertions.assertEquals("3", result.getParameter(2));
+    }
+
+    @Test
+    @Order(4)
+    public void test_reject_non_latin_route()
+    {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> HttpRouterFactory.compile(config -> config.add("/ünï/中", "handler")));
+    }
+
+    @Test
+    @Order(5)
+    public void test_off_heap_route_same_as_tree()
+    {
+        RouteMatch<String> expected = new RouteMatch<>();
+        RouteMatch<String> actual = new RouteMatch<>();
+
+        for (String path : PATHS)
+        {
+            Assertions.assertEquals(httpRouter.route(path).getHandler(), offHeapRouter.route(path).getHandler(), path);
+            Assertions.assertEquals(httpRouter.route(path).getParameters(), offHeapRouter.route(path).getParameters(), path);
+
+            Assertions.assertEquals(httpRouter.route(path, expected), offHeapRouter.route(path, actual), path);
+            Assertions.assertEquals(expected.getParameterCount(), actual.getParameterCount(), path);
+
+            for (int index = 0; index < expected.getParameterCount(); index++)
+            {
+                Assertions.assertEquals(expected.getParameterStart(index), actual.getParameterStart(index), path);
+                Assertions.assertEquals(expected.getParameterEnd(index), actual.getParameterEnd(index), path);
+            }
+        }
+
+        Assertions.assertTrue(offHeapRouter.getStorageSize() > 0);
+    }
+}
@@ -0,0 +1,144 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class ConstrainedLookupTest
+{
+    private static final Consumer<HttpRouterConfiguration<String>> ROUTES = config -> {
+        config.add("/items/:item_id<int>", "handlerItem");
+        config.add("/items/:item_id<int>/reviews", "handlerItemReviews");
+        config.add("/items/*slug", "handlerItemSlug");
+
+        config.add("/sessions/:session_id<uuid>", "handlerSession");
+        config.add("/docs/:lang<en|de|fr>/:page", "handlerDocs");
+        config.add("/docs/*rest", "handlerDocsRest");
+    };
+
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(ROUTES);
+    }
+
+    @Test
+    @Order(1)
+    public void test_hit_int_constraint()
+    {
+        RouteResult<String> result = httpRouter.route("/items/42");
+
+        Assertions.assertEquals("handlerItem", result.getHandler());
+        Assertions.assertEquals(42L, result.getLong(0));
+        Assertions.assertEquals(-7L, httpRouter.route("/items/-7/reviews").getLong(0));
+        Assertions.assertEquals(Long.MAX_VALUE, httpRouter.route("/items/9223372036854775807").getLong(0));
+        Assertions.assertEquals(Long.MIN_VALUE, httpRouter.route("/items/-9223372036854775808").getLong(0));
+    }
+
+    @Test
+    @Order(2)
+    public void test_miss_int_constraint_falls_back_to_wildcard()
+    {
+        RouteResult<String> result = httpRouter.route("/items/blue-shirt");
+
+        Assertions.assertEquals("handlerItemSlug", result.getHandler());
+        Assertions.assertEquals("blue-shirt", result.getParameter("slug"));
+
+        Assertions.assertEquals("handlerItemSlug", httpRouter.route("/items/9223372036854775808").getHandler());
+        Assertions.assertEquals("handlerItemSlug", httpRouter.route("/items/4x2/reviews").getHandler());
+        Assertions.assertEquals("handlerItemSlug", httpRouter.route("/items/-").getHandler());
+    }
+
+    @Test
+    @Order(3)
+    public void test_hit_uuid_and_enum_constraints()
+    {
+        Assertions.assertEquals("handlerSession", httpRouter.route("/sessions/123e4567-E89B-12d3-a456-426614174000").getHandler());
+        Assertions.assertNull(httpRouter.route("/sessions/123e4567e89b12d3a456426614174000").getHandler());
+        Assertions.assertNull(httpRouter.route("/sessions/123e4567-e89b-12d3-a456-42661417400g").getHandler());
+
+        RouteResult<String> result = httpRouter.route("/docs/de/install");
+
+        Assertions.assertEquals("handlerDocs", result.getHandler());
+        Assertions.assertEquals("de", result.getParameter("lang"));
+        Assertions.assertEquals("handlerDocsRest", httpRouter.route("/docs/es/install").getHandler());
+        Assertions.assertEquals("handlerDocsRest", httpRouter.route("/docs/english/install").getHandler());
+    }
+
+    @Test
+    @Order(4)
+    public void test_route_match_and_bytes()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+
+        Assertions.assertTrue(httpRouter.route("/items/1234/reviews", match));
+        Assertions.assertEquals("handlerItemReviews", match.getHandler());
+        Assertions.assertEquals(1234L, match.getLong(0));
+
+        Assertions.assertTrue(httpRouter.route("/items/12a4/reviews", match));
+        Assertions.assertEquals("handlerItemSlug", match.getHandler());
+        Assertions.assertThrows(NumberFormatException.class, () -> match.getLong(0));
+
+        byte[] request = "GET /docs/fr/faq HTTP/1.1".getBytes(StandardCharsets.ISO_8859_1);
+
+        Assertions.assertTrue(httpRouter.route(request, 4, 12, match));
+        Assertions.assertEquals("handlerDocs", match.getHandler());
+
+        request = "GET /docs/it/faq HTTP/1.1".getBytes(StandardCharsets.ISO_8859_1);
+
+        Assertions.assertTrue(httpRouter.route(request, 4, 12, match));
+        Assertions.assertEquals("handlerDocsRest", match.getHandler());
+    }
+
+    @Test
+    @Order(5)
+    public void test_persistent_update_constraint()
+    {
+        HttpRouter<String> updated = httpRouter.withRoute("/items/:id<int>/photos", "handlerItemPhotos").withoutRoute("/items/*slug");
+
+        Assertions.assertEquals("handlerItemPhotos", updated.route("/items/3/photos").getHandler());
+        Assertions.assertEquals(3L, updated.route("/items/3/photos").getLong(0));
+        Assertions.assertNull(updated.route("/items/three/photos").getHandler());
+        Assertions.assertNull(updated.route("/items/blue-shirt").getHandler());
+    }
+
+    @Test
+    @Order(6)
+    public void test_reject_invalid_constraint()
+    {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> httpRouter.withRoute("/items/:item_id/price", "handler"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> HttpRouterFactory.create(config -> config.add("/a/:id<int>", "h").add("/a/:id<uuid>/b", "h")));
+
+        for (String path : new String[]{"/a/:id<int", "/a/:id<>", "/a/:id<int>x", "/a/:<int>", "/a/id<int>", "/a/:id<a||b>", "/a/x|y"})
+        {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> HttpRouterFactory.create(config -> config.add(path, "h")), path);
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HttpRouterFactory.compile(config -> config.add("/a/:id<int>", "h")));
+    }
+
+    @Test
+    @Order(7)
+    public void test_reject_brackets_in_constraint_body()
+    {
+        for (String path : new String[]{"/a/:id<a<b>", "/a/:id<a>b>", "/a/:id<<a>>", "/a/:id<a|>b>", "/a/:id<a|<b>", "/a/:id<a>>"})
+        {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> HttpRouterFactory.create(config -> config.add(path, "h")), path);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> httpRouter.withRoute(path, "h"), path);
+        }
+
+        // The constraint is also checked on its own, not only as part of a validated path.
+        for (String segment : new String[]{"id<a<b>", "id<a>b>", "id<a|>b>", "id<a", "id<"})
+        {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ParameterConstraint.of(segment), segment);
+        }
+
+        Assertions.assertEquals("a", httpRouter.withRoute("/b/:id<a|b>", "handlerB").route("/b/a").getParameter("id"));
+    }
+}
@@ -4,7 +4,10 @@ import org.openjdk.jmh.Main;
 import org.openjdk.jmh.annotations.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Fork(1)
 @Warmup(iterations = 1, time = 5, timeUnit = TimeUnit.SECONDS)
@@ -14,7 +17,7 @@ import java.util.concurrent.TimeUnit;
 @State(Scope.Benchmark)
 public class HttpRouterBenchmark
 {
-    private final HttpRouter<NoopJob> httpRouter = HttpRouterFactory.create(config -> {
+    private static final Consumer<HttpRouterConfiguration<NoopJob>> ROUTES = config -> {
         // Existing routes
         config.add("/api/v1/internal/game_request", new NoopJob());
         config.add("/api/v1/internal/game_init", new NoopJob());
@@ -55,7 +58,17 @@ public class HttpRouterBenchmark
         config.add("/files/:file_id", new NoopJob());
         config.add("/files/:file_id/download", new NoopJob());
         config.add("/files/:file_id/preview", new NoopJob());
-    });
+    };
+
+    private final HttpRouter<NoopJob> httpRouter = HttpRouterFactory.create(ROUTES);
+    private final CompiledHttpRouter<NoopJob> compiledRouter = HttpRouterFactory.compile(ROUTES);
+
+    private final RouteMatch<NoopJob> routeMatch = new RouteMatch<>();
+
+    private final byte[] parameterizedRequestBytes = "GET /shop/items/any HTTP/1.1".getBytes(StandardCharsets.US_ASCII);
+    private final ByteBuffer parameterizedRequestBuffer = ByteBuffer.allocateDirect(parameterizedRequestBytes.length)
+            .put(parameterizedRequestBytes)
+            .flip();
 
     @Benchmark
     public final RouteResult<NoopJob> hit_one_depth()
@@ -111,6 +124,78 @@ public class HttpRouterBenchmark
         return httpRouter.route("/api/v2/any");
     }
 
+    @Benchmark
+    public final boolean hit_four_depth_reusable_match()
+    {
+        return httpRouter.route("/api/v1/internal/game_closed", routeMatch);
+    }
+
+    @Benchmark
+    public final boolean hit_three_depth_last_parameterized_reusable_match()
+    {
+        return httpRouter.route("/shop/items/any", routeMatch);
+    }
+
+    @Benchmark
+    public final boolean miss_three_depth_last_unknown_reusable_match()
+    {
+        return httpRouter.route("/api/v2/any", routeMatch);
+    }
+
+    @Benchmark
+    public final boolean hit_three_depth_last_parameterized_decoded_bytes()
+    {
+        return httpRouter.route(new String(parameterizedRequestBytes, 4, 15, StandardCharsets.US_ASCII), routeMatch);
+    }
+
+    @Benchmark
+    public final boolean hit_three_depth_last_parameterized_bytes()
+    {
+        return httpRouter.route(parameterizedRequestBytes, 4, 15, routeMatch);
+    }
+
+    @Benchmark
+    public final boolean hit_three_depth_last_parameterized_direct_buffer()
+    {
+        return httpRouter.route(parameterizedRequestBuffer, 4, 15, routeMatch);
+    }
+
+    @Benchmark
+    public final RouteResult<NoopJob> hit_four_depth_compiled()
+    {
+        return compiledRouter.route("/api/v1/internal/game_closed");
+    }
+
+    @Benchmark
+    public final RouteResult<NoopJob> hit_three_depth_last_parameterized_compiled()
+    {
+        return compiledRouter.route("/shop/items/any");
+    }
+
+    @Benchmark
+    public final boolean hit_three_depth_last_parameterized_compiled_reusable_match()
+    {
+        return compiledRouter.route("/shop/items/any", routeMatch);
+    }
+
+    @Benchmark
+    public final RouteResult<NoopJob> miss_three_depth_last_unknown_compiled()
+    {
+        return compiledRouter.route("/api/v2/any");
+    }
+
+    @Benchmark
+    public final RouteResult<NoopJob> hit_fan_out_last_child(FanOutState state)
+    {
+        return state.httpRouter.route(state.lastChildPath);
+    }
+
+    @Benchmark
+    public final RouteResult<NoopJob> miss_fan_out_unknown_child(FanOutState state)
+    {
+        return state.httpRouter.route("/api/v1/unknown");
+    }
+
     public static void main(String[] args) throws IOException
     {
         Main.main(args);
@@ -120,4 +205,29 @@ public class HttpRouterBenchmark
     {
 
     }
+
+    /**
+     * Wide static node with {@code fanOut} siblings, i.e. /api/v1/resource_0 ... /api/v1/resource_N.
+     */
+    @State(Scope.Benchmark)
+    public static class FanOutState
+    {
+        @Param({"4", "10", "16", "32", "100", "1000"})
+        public int fanOut;
+
+        private HttpRouter<NoopJob> httpRouter;
+        private String lastChildPath;
+
+        @Setup
+        public void setup()
+        {
+            this.httpRouter = HttpRouterFactory.create(config -> {
+                for (int index = 0; index < fanOut; index++)
+                {
+                    config.add("/api/v1/resource_" + index, new NoopJob());
+                }
+            });
+            this.lastChildPath = "/api/v1/resource_" + (fanOut - 1);
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package io.peanut.routing;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 5, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class HttpRouterBuildBenchmark
+{
+    @Param({"1000", "10000", "100000"})
+    public int routeCount;
+
+    private String[] routes;
+
+    /**
+     * Generates tenant-like routes, i.e. /tenant_N/api/v1/resource_M and /tenant_N/api/v1/resource_M/:id,
+     * with 100 resources per tenant.
+     */
+    @Setup
+    public void setup()
+    {
+        this.routes = new String[routeCount];
+
+        for (int index = 0; index < routeCount; index++)
+        {
+            String resource = "/tenant_" + (index / 200) + "/api/v1/resource_" + (index % 200 >> 1);
+            this.routes[index] = (index & 1) == 0 ? resource : resource + "/:id";
+        }
+    }
+
+    @Benchmark
+    public final HttpRouterConfiguration<NoopJob> add_routes()
+    {
+        HttpRouterConfiguration<NoopJob> configuration = new HttpRouterConfiguration<>();
+
+        for (String route : routes)
+        {
+            configuration.add(route, NoopJob.INSTANCE);
+        }
+
+        return configuration;
+    }
+
+    @Benchmark
+    public final HttpRouter<NoopJob> add_routes_and_create()
+    {
+        return HttpRouterFactory.create(add_routes());
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        Main.main(args);
+    }
+
+    public static class NoopJob
+    {
+        static final NoopJob INSTANCE = new NoopJob();
+    }
+}
@@ -0,0 +1,270 @@
+package io.peanut.routing;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays pre-generated request mixes against generated route tables, from one thread up to every available core.
+ *
+ * <p>Unlike {@link HttpRouterBenchmark}, every invocation routes the next path of a per-thread array, so the JIT
+ * cannot specialize for a constant path. Run it through {@link #main(String[])} to report throughput, sampled
+ * latency percentiles and {@code gc.alloc.rate.norm} for 1, 2, 4, ... threads, or pass {@code -t} to pick
+ * a single thread count.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(1)
+public class HttpRouterTrafficBenchmark
+{
+    @Benchmark
+    public final RouteResult<NoopJob> route(RouteTableState table, TrafficState traffic)
+    {
+        return table.httpRouter.route(traffic.nextPath());
+    }
+
+    @Benchmark
+    public final boolean route_reusable_match(RouteTableState table, TrafficState traffic)
+    {
+        return table.httpRouter.route(traffic.nextPath(), traffic.routeMatch);
+    }
+
+    @Benchmark
+    public final boolean route_bytes(RouteTableState table, TrafficState traffic)
+    {
+        byte[] request = traffic.nextRequest();
+        return table.httpRouter.route(request, 4, request.length - 17, traffic.routeMatch);
+    }
+
+    /**
+     * Runs the benchmark with the GC profiler for every power of two thread count up to the number of available
+     * processors. Command line options, e.g. {@code -p distribution=zipf}, are applied to every run.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException
+    {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        if (commandLineOptions.getThreads().hasValue())
+        {
+            HttpRouterTrafficBenchmark.run(commandLineOptions, commandLineOptions.getThreads().get());
+            return;
+        }
+
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads))
+        {
+            HttpRouterTrafficBenchmark.run(commandLineOptions, threads);
+
+            if (threads == maxThreads)
+            {
+                break;
+            }
+        }
+    }
+
+    private static void run(CommandLineOptions commandLineOptions, int threads) throws RunnerException
+    {
+        new Runner(new OptionsBuilder()
+                .parent(commandLineOptions)
+                .include(HttpRouterTrafficBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .threads(threads)
+                .build()).run();
+    }
+
+    public static class NoopJob
+    {
+        static final NoopJob INSTANCE = new NoopJob();
+    }
+
+    /**
+     * Route table shared by every thread, generated from a fixed seed so that all runs route the same table.
+     *
+     * <p>Each route has {@code depth} segments, each one picked among {@code fanOut} static names per level,
+     * or being the parameter of its level for {@code parameterizedShare} percent of the segments,
+     * e.g. /seg_3/seg_0/:p2/seg_7.
+     */
+    @State(Scope.Benchmark)
+    public static class RouteTableState
+    {
+        @Param({"1000", "10000"})
+        public int routeCount;
+
+        @Param({"8", "64"})
+        public int fanOut;
+
+        @Param({"4"})
+        public int depth;
+
+        @Param({"0", "25"})
+        public int parameterizedShare;
+
+        private HttpRouter<NoopJob> httpRouter;
+
+        // Request path matching each route, ordered from the most to the least popular one.
+        private String[] requestPaths;
+
+        @Setup
+        public void setup()
+        {
+            Random random = new Random(42);
+            Map<String, String> routes = new LinkedHashMap<>();
+
+            // Bounded number of attempts, as a narrow table has fewer distinct routes than requested.
+            for (int attempt = 0; routes.size() < routeCount && attempt < routeCount * 10; attempt++)
+            {
+                StringBuilder route = new StringBuilder();
+                StringBuilder requestPath = new StringBuilder();
+
+                for (int level = 0; level < depth; level++)
+                {
+                    if (random.nextInt(100) < parameterizedShare)
+                    {
+                        route.append("/:p").append(level);
+                        requestPath.append("/id_").append(random.nextInt(1_000_000));
+                    }
+                    else
+                    {
+                        String segment = "/seg_" + random.nextInt(fanOut);
+                        route.append(segment);
+                        requestPath.append(segment);
+                    }
+                }
+
+                routes.putIfAbsent(route.toString(), requestPath.toString());
+            }
+
+            this.httpRouter = HttpRouterFactory.create(config -> {
+                for (String route : routes.keySet())
+                {
+                    config.add(route, NoopJob.INSTANCE);
+                }
+            });
+
+            // The popularity rank is unrelated to the tree shape, so hot routes are spread over the whole table.
+            List<String> requestPaths = new ArrayList<>(routes.values());
+            Collections.shuffle(requestPaths, random);
+            this.requestPaths = requestPaths.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Per-thread request mix, drawn upfront so that no random number is generated during the measurement.
+     *
+     * <p>{@code uniform} requests every route equally often, while {@code zipf} requests the route of rank
+     * {@code k} proportionally to {@code 1 / k}, the usual shape of production traffic. Each thread draws its own
+     * sequence from a distinct seed, so that threads do not hit the same routes in lockstep.
+     */
+    @State(Scope.Thread)
+    public static class TrafficState
+    {
+        // Power of two, so the index wraps with a mask, and large enough for the mix to outgrow the CPU caches.
+        private static final int REQUEST_COUNT = 1 << 16;
+        private static final AtomicInteger SEEDS = new AtomicInteger();
+
+        @Param({"uniform", "zipf"})
+        public String distribution;
+
+        private final RouteMatch<NoopJob> routeMatch = new RouteMatch<>();
+
+        private String[] paths;
+        private byte[][] requests;
+        private int index;
+
+        @Setup
+        public void setup(RouteTableState table)
+        {
+            Random random = new Random(TrafficState.SEEDS.incrementAndGet());
+            String[] requestPaths = table.requestPaths;
+            double[] cumulativeWeights = TrafficState.cumulativeWeights(requestPaths.length, distribution);
+
+            this.paths = new String[REQUEST_COUNT];
+            this.requests = new byte[REQUEST_COUNT][];
+
+            for (int index = 0; index < REQUEST_COUNT; index++)
+            {
+                int rank = TrafficState.rankOf(cumulativeWeights, random.nextDouble());
+
+                this.paths[index] = requestPaths[rank];
+                this.requests[index] = ("GET " + requestPaths[rank] + " HTTP/1.1\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1);
+            }
+        }
+
+        private static double[] cumulativeWeights(int count, String distribution)
+        {
+            double[] cumulativeWeights = new double[count];
+            double total = 0;
+
+            for (int rank = 0; rank < count; rank++)
+            {
+                total += switch (distribution)
+                {
+                    case "uniform" -> 1.0;
+                    case "zipf" -> 1.0 / (rank + 1);
+                    default -> throw new IllegalArgumentException("Unable to proceed unknown distribution '" + distribution + "'");
+                };
+                cumulativeWeights[rank] = total;
+            }
+
+            for (int rank = 0; rank < count; rank++)
+            {
+                cumulativeWeights[rank] /= total;
+            }
+
+            return cumulativeWeights;
+        }
+
+        /**
+         * @return the first rank whose cumulative weight is above the drawn value
+         */
+        private static int rankOf(double[] cumulativeWeights, double value)
+        {
+            int low = 0;
+            int high = cumulativeWeights.length - 1;
+
+            while (low < high)
+            {
+                int middle = (low + high) >>> 1;
+
+                if (cumulativeWeights[middle] > value)
+                {
+                    high = middle;
+                }
+                else
+                {
+                    low = middle + 1;
+                }
+            }
+
+            return low;
+        }
+
+        String nextPath()
+        {
+            return this.paths[this.index++ & REQUEST_COUNT - 1];
+        }
+
+        byte[] nextRequest()
+        {
+            return this.requests[this.index++ & REQUEST_COUNT - 1];
+        }
+    }
+}
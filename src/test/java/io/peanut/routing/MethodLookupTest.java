@@ -0,0 +1,179 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.util.EnumSet;
+import java.util.function.Consumer;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class MethodLookupTest
+{
+    private static final Consumer<HttpRouterConfiguration<String>> ROUTES = config -> {
+        config.add(HttpMethod.GET, "/users", "handlerListUsers");
+        config.add(HttpMethod.POST, "/users", "handlerCreateUser");
+        config.add(HttpMethod.GET, "/users/:id", "handlerGetUser");
+        config.add(HttpMethod.DELETE, "/users/:id", "handlerDeleteUser");
+        config.add(HttpMethod.GET, "/users/:id", "handlerGetUserDuplicate");
+
+        config.add("/health", "handlerHealth");
+        config.add(HttpMethod.HEAD, "/health", "handlerHealthHead");
+        config.add("/files/:name", "handlerFile");
+    };
+
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(ROUTES);
+    }
+
+    @Test
+    @Order(1)
+    public void test_hit_method_specific()
+    {
+        Assertions.assertEquals("handlerListUsers", httpRouter.route(HttpMethod.GET, "/users").getHandler());
+        Assertions.assertEquals("handlerCreateUser", httpRouter.route(HttpMethod.POST, "/users/").getHandler());
+
+        RouteResult<String> result = httpRouter.route(HttpMethod.DELETE, "/users/42");
+
+        Assertions.assertEquals("handlerDeleteUser", result.getHandler());
+        Assertions.assertEquals("42", result.getParameter("id"));
+        Assertions.assertFalse(result.isMethodNotAllowed());
+        Assertions.assertTrue(result.getAllowedMethods().isEmpty());
+
+        Assertions.assertEquals("handlerGetUser", httpRouter.route(HttpMethod.GET, "/users/42").getHandler());
+    }
+
+    @Test
+    @Order(2)
+    public void test_hit_method_agnostic_fallback()
+    {
+        Assertions.assertEquals("handlerHealthHead", httpRouter.route(HttpMethod.HEAD, "/health").getHandler());
+        Assertions.assertEquals("handlerHealth", httpRouter.route(HttpMethod.GET, "/health").getHandler());
+        Assertions.assertEquals("handlerHealth", httpRouter.route(HttpMethod.POST, "/health").getHandler());
+
+        RouteResult<String> result = httpRouter.route(HttpMethod.PUT, "/files/readme");
+
+        Assertions.assertEquals("handlerFile", result.getHandler());
+        Assertions.assertEquals("readme", result.getParameter("name"));
+    }
+
+    @Test
+    @Order(3)
+    public void test_miss_method_not_allowed()
+    {
+        RouteResult<String> staticResult = httpRouter.route(HttpMethod.PUT, "/users");
+
+        Assertions.assertNull(staticResult.getHandler());
+        Assertions.assertTrue(staticResult.isMethodNotAllowed());
+        Assertions.assertEquals(EnumSet.of(HttpMethod.GET, HttpMethod.POST), staticResult.getAllowedMethods());
+
+        RouteResult<String> parameterizedResult = httpRouter.route(HttpMethod.POST, "/users/42");
+
+        Assertions.assertNull(parameterizedResult.getHandler());
+        Assertions.assertTrue(parameterizedResult.isMethodNotAllowed());
+        Assertions.assertEquals(EnumSet.of(HttpMethod.GET, HttpMethod.DELETE), parameterizedResult.getAllowedMethods());
+    }
+
+    @Test
+    @Order(4)
+    public void test_miss_unknown_path()
+    {
+        RouteResult<String> result = httpRouter.route(HttpMethod.GET, "/users/42/posts");
+
+        Assertions.assertNull(result.getHandler());
+        Assertions.assertFalse(result.isMethodNotAllowed());
+        Assertions.assertTrue(result.getAllowedMethods().isEmpty());
+    }
+
+    @Test
+    @Order(5)
+    public void test_route_without_method_ignores_method_routes()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+
+        Assertions.assertNull(httpRouter.route("/users").getHandler());
+        Assertions.assertFalse(httpRouter.route("/users", match));
+        Assertions.assertFalse(httpRouter.route("/users/42", match));
+        Assertions.assertEquals("handlerHealth", httpRouter.route("/health").getHandler());
+        Assertions.assertTrue(httpRouter.route("/health", match));
+    }
+
+    @Test
+    @Order(6)
+    public void test_persistent_update_keeps_method_routes()
+    {
+        HttpRouter<String> updated = httpRouter.withRoute("/users", "handlerUsers").withoutRoute("/health");
+
+        Assertions.assertEquals("handlerListUsers", updated.route(HttpMethod.GET, "/users").getHandler());
+        Assertions.assertEquals("handlerUsers", updated.route(HttpMethod.PUT, "/users").getHandler());
+        Assertions.assertEquals("handlerHealthHead", updated.route(HttpMethod.HEAD, "/health").getHandler());
+        Assertions.assertTrue(updated.route(HttpMethod.GET, "/health").isMethodNotAllowed());
+    }
+
+    @Test
+    @Order(7)
+    public void test_persistent_update_method_routes()
+    {
+        HttpRouter<String> updated = httpRouter.withRoute(HttpMethod.PUT, "/users/:user_id", "handlerReplaceUser")
+                .withRoute(HttpMethod.GET, "/users/:id", "handlerIgnored")
+                .withRoute(HttpMethod.GET, "/reports/:year/*rest", "handlerReport")
+                .withoutRoute(HttpMethod.DELETE, "/users/:id")
+                .withoutRoute(HttpMethod.HEAD, "/health");
+
+        Assertions.assertEquals("handlerReplaceUser", updated.route(HttpMethod.PUT, "/users/42").getHandler());
+        Assertions.assertEquals("handlerGetUser", updated.route(HttpMethod.GET, "/users/42").getHandler());
+        Assertions.assertEquals(EnumSet.of(HttpMethod.GET, HttpMethod.PUT), updated.route(HttpMethod.DELETE, "/users/42").getAllowedMethods());
+        Assertions.assertEquals("handlerReport", updated.route(HttpMethod.GET, "/reports/2024/q1/summary").getHandler());
+        Assertions.assertTrue(updated.route(HttpMethod.POST, "/reports/2024/q1").isMethodNotAllowed());
+        Assertions.assertEquals("handlerHealth", updated.route(HttpMethod.HEAD, "/health").getHandler());
+
+        // The method agnostic overloads leave the method specific handlers untouched.
+        Assertions.assertSame(httpRouter, httpRouter.withoutRoute("/users"));
+        Assertions.assertEquals("handlerListUsers", httpRouter.withoutRoute("/users").route(HttpMethod.GET, "/users").getHandler());
+
+        // A route is dropped once its last handler is removed.
+        HttpRouter<String> removed = httpRouter.withoutRoute(HttpMethod.GET, "/users").withoutRoute(HttpMethod.POST, "/users");
+
+        Assertions.assertNull(removed.route(HttpMethod.GET, "/users").getHandler());
+        Assertions.assertFalse(removed.route(HttpMethod.GET, "/users").isMethodNotAllowed());
+        Assertions.assertEquals("handlerGetUser", removed.route(HttpMethod.GET, "/users/42").getHandler());
+        Assertions.assertSame(removed, removed.withoutRoute(HttpMethod.GET, "/users"));
+    }
+
+    @Test
+    @Order(8)
+    public void test_route_without_method_falls_back_to_parameterized()
+    {
+        HttpRouter<String> router = HttpRouterFactory.create(config -> {
+            config.add(HttpMethod.GET, "/a/b", "handlerGetB");
+            config.add("/a/:x", "handlerX");
+        });
+        RouteMatch<String> match = new RouteMatch<>();
+
+        RouteResult<String> result = router.route("/a/b");
+
+        Assertions.assertEquals("handlerX", result.getHandler());
+        Assertions.assertEquals("b", result.getParameter("x"));
+        Assertions.assertTrue(router.route("/a/b", match));
+        Assertions.assertEquals("handlerX", match.getHandler());
+        Assertions.assertTrue(router.route("/a/b".getBytes(), 0, 4, match));
+        Assertions.assertEquals("handlerX", match.getHandler());
+        Assertions.assertEquals("handlerGetB", router.route(HttpMethod.GET, "/a/b").getHandler());
+
+        // Derived snapshots copy the static route table of the original router.
+        HttpRouter<String> updated = router.withRoute("/c", "handlerC");
+
+        Assertions.assertEquals("handlerX", updated.route("/a/b").getHandler());
+        Assertions.assertEquals("handlerGetB", updated.route(HttpMethod.GET, "/a/b").getHandler());
+    }
+
+    @Test
+    @Order(9)
+    public void test_reject_compile_method_route()
+    {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HttpRouterFactory.compile(ROUTES));
+    }
+}
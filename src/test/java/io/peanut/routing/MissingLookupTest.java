@@ -142,4 +142,27 @@ public final class MissingLookupTest
         Assertions.assertNull(routeResult.getHandler());
         Assertions.assertSame(Collections.EMPTY_MAP, routeResult.getParameters());
     }
+
+    // compressed edge, e.g. "support/tickets"
+    @Test
+    @Order(7)
+    public void test_miss_inside_compressed_edge()
+    {
+        for (String path : new String[]{"/support", "/support/", "/support/tick", "/support/tickets_", "/support//tickets", "/support/tickets/open"})
+        {
+            RouteResult<String> routeResult = httpRouter.route(path);
+
+            Assertions.assertNotNull(routeResult);
+            Assertions.assertNull(routeResult.getHandler(), path);
+            Assertions.assertSame(Collections.EMPTY_MAP, routeResult.getParameters());
+        }
+    }
+
+    @Test
+    @Order(8)
+    public void test_hit_after_compressed_edge()
+    {
+        Assertions.assertEquals("handlerUrgentTickets", httpRouter.route("/support/tickets/open/urgent/").getHandler());
+        Assertions.assertEquals("handlerClosedTickets2024", httpRouter.route("support/tickets/closed/2024").getHandler());
+    }
 }
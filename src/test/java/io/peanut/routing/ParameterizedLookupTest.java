@@ -74,4 +74,56 @@ public class ParameterizedLookupTest
         Assertions.assertEquals("electronics", parameters.get("category"));
         Assertions.assertEquals("789", parameters.get("itemId"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(5)
+    public void test_route_shop_item_single_parameter_lookup()
+    {
+        RouteResult<String> result = httpRouter.route("/shop/electronics/789");
+
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals("handlerShopItem", result.getHandler());
+        Assertions.assertEquals("electronics", result.getParameter("category"));
+        Assertions.assertEquals("789", result.getParameter("itemId"));
+        Assertions.assertNull(result.getParameter("unknown"));
+    }
+
+    @Test
+    @Order(6)
+    public void test_route_parameters_materialized_once()
+    {
+        RouteResult<String> result = httpRouter.route("/api/v1/order/abc-456/view");
+
+        Assertions.assertSame(result.getParameters(), result.getParameters());
+        Assertions.assertEquals(Map.of("orderId", "abc-456"), result.getParameters());
+    }
+
+    @Test
+    @Order(7)
+    public void test_miss_after_parameterized_segment()
+    {
+        RouteResult<String> result = httpRouter.route("/api/v1/order/abc-456/any");
+
+        Assertions.assertNotNull(result);
+        Assertions.assertNull(result.getHandler());
+        Assertions.assertNull(result.getParameter("orderId"));
+        Assertions.assertSame(Collections.EMPTY_MAP, result.getParameters());
+    }
+
+    @Test
+    @Order(8)
+    public void test_route_shop_item_indexed_parameters()
+    {
+        RouteResult<String> result = httpRouter.route("/shop/electronics/789");
+
+        Assertions.assertEquals(2, result.getParameterCount());
+        Assertions.assertEquals(0, result.indexOf("category"));
+        Assertions.assertEquals(1, result.indexOf("itemId"));
+        Assertions.assertEquals(-1, result.indexOf("unknown"));
+
+        Assertions.assertEquals("category", result.getParameterName(0));
+        Assertions.assertEquals("electronics", result.getParameter(0));
+        Assertions.assertEquals("789", result.getParameter(result.indexOf("itemId")));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> result.getParameter(2));
+    }
+}
@@ -0,0 +1,145 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class PatternLookupTest
+{
+    private static final Consumer<HttpRouterConfiguration<String>> ROUTES = config -> {
+        config.add("/files/:name.json", "handlerJson");
+        config.add("/files/:name.tar.gz", "handlerTarball");
+        config.add("/files/:name.:ext", "handlerFile");
+        config.add("/files/:file_id", "handlerFileId");
+        config.add("/files/index.json", "handlerIndex");
+
+        config.add("/v:version/users", "handlerUsers");
+        config.add("/v:version/users/:id", "handlerUser");
+        config.add("/img/:w-x:h.png", "handlerImage");
+        config.add("/api/v1/report_:year.csv", "handlerReport");
+    };
+
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(ROUTES);
+    }
+
+    @Test
+    @Order(1)
+    public void test_hit_suffix_and_prefix_capture()
+    {
+        RouteResult<String> result = httpRouter.route("/files/report.json");
+
+        Assertions.assertEquals("handlerJson", result.getHandler());
+        Assertions.assertEquals("report", result.getParameter("name"));
+
+        result = httpRouter.route("/v2/users/42");
+
+        Assertions.assertEquals("handlerUser", result.getHandler());
+        Assertions.assertEquals("2", result.getParameter("version"));
+        Assertions.assertEquals("42", result.getParameter("id"));
+        Assertions.assertEquals(2L, result.getLong(0));
+
+        result = httpRouter.route("/api/v1/report_2024.csv");
+
+        Assertions.assertEquals("handlerReport", result.getHandler());
+        Assertions.assertEquals("2024", result.getParameter("year"));
+    }
+
+    @Test
+    @Order(2)
+    public void test_hit_several_captures()
+    {
+        RouteResult<String> result = httpRouter.route("/img/640-x480.png");
+
+        Assertions.assertEquals("handlerImage", result.getHandler());
+        Assertions.assertEquals("640", result.getParameter("w"));
+        Assertions.assertEquals("480", result.getParameter("h"));
+
+        result = httpRouter.route("/files/archive.tar.xz");
+
+        Assertions.assertEquals("handlerFile", result.getHandler());
+        Assertions.assertEquals("archive", result.getParameter("name"));
+        Assertions.assertEquals("tar.xz", result.getParameter("ext"));
+    }
+
+    @Test
+    @Order(3)
+    public void test_hit_priority_static_pattern_parameterized()
+    {
+        Assertions.assertEquals("handlerIndex", httpRouter.route("/files/index.json").getHandler());
+        Assertions.assertEquals("handlerTarball", httpRouter.route("/files/backup.tar.gz").getHandler());
+        Assertions.assertEquals("backup", httpRouter.route("/files/backup.tar.gz").getParameter("name"));
+        Assertions.assertEquals("handlerFileId", httpRouter.route("/files/42").getHandler());
+        Assertions.assertEquals("handlerFileId", httpRouter.route("/files/.json").getHandler());
+    }
+
+    @Test
+    @Order(4)
+    public void test_miss_pattern()
+    {
+        Assertions.assertNull(httpRouter.route("/v/users").getHandler());
+        Assertions.assertNull(httpRouter.route("/version/users/1/x").getHandler());
+        Assertions.assertNull(httpRouter.route("/img/640x480.png").getHandler());
+        Assertions.assertNull(httpRouter.route("/img/-x.png").getHandler());
+        Assertions.assertNull(httpRouter.route("/api/v1/report_.csv").getHandler());
+    }
+
+    @Test
+    @Order(5)
+    public void test_route_match_and_bytes()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+        String path = "/img/1920-x1080.png";
+
+        Assertions.assertTrue(httpRouter.route(path, match));
+        Assertions.assertEquals("handlerImage", match.getHandler());
+        Assertions.assertEquals(1080L, match.getLong(1));
+
+        byte[] request = "GET /v10/users/7 HTTP/1.1".getBytes(StandardCharsets.ISO_8859_1);
+
+        Assertions.assertTrue(httpRouter.route(request, 4, 12, match));
+        Assertions.assertEquals("handlerUser", match.getHandler());
+        Assertions.assertEquals(6, match.getParameterStart(0));
+        Assertions.assertEquals(8, match.getParameterEnd(0));
+
+        request = "GET /img/1-x2.png HTTP/1.1".getBytes(StandardCharsets.ISO_8859_1);
+
+        Assertions.assertTrue(httpRouter.route(request, 4, 13, match));
+        Assertions.assertEquals("handlerImage", match.getHandler());
+        Assertions.assertEquals(12, match.getParameterStart(1));
+    }
+
+    @Test
+    @Order(6)
+    public void test_persistent_update_pattern()
+    {
+        HttpRouter<String> updated = httpRouter.withRoute("/files/:name.xml", "handlerXml")
+                .withRoute("/api/v1/summary_:year.csv", "handlerSummary")
+                .withoutRoute("/files/:name.json");
+
+        Assertions.assertEquals("handlerXml", updated.route("/files/feed.xml").getHandler());
+        Assertions.assertEquals("handlerSummary", updated.route("/api/v1/summary_2023.csv").getHandler());
+        Assertions.assertEquals("handlerReport", updated.route("/api/v1/report_2023.csv").getHandler());
+        Assertions.assertEquals("handlerFile", updated.route("/files/report.json").getHandler());
+        Assertions.assertEquals("handlerJson", httpRouter.route("/files/report.json").getHandler());
+    }
+
+    @Test
+    @Order(7)
+    public void test_reject_invalid_pattern()
+    {
+        for (String path : new String[]{"/files/:name:ext", "/files/:.json", "/files/x:", "/files/:a.b<int>"})
+        {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> HttpRouterFactory.create(config -> config.add(path, "h")), path);
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HttpRouterFactory.compile(ROUTES));
+    }
+}
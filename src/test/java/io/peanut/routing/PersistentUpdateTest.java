@@ -0,0 +1,144 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class PersistentUpdateTest
+{
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(config -> {
+            config.add("/home", "handlerHome");
+            config.add("/api/v1/internal/health", "handlerHealth");
+            config.add("/api/v1/internal/status", "handlerStatus");
+            config.add("/user/:userId/profile", "handlerProfile");
+        });
+    }
+
+    @Test
+    @Order(1)
+    public void test_with_route_keeps_original()
+    {
+        HttpRouter<String> updated = httpRouter.withRoute("/api/v1/users/:userId", "handlerUser");
+
+        Assertions.assertEquals("handlerUser", updated.route("/api/v1/users/7").getHandler());
+        Assertions.assertEquals("7", updated.route("/api/v1/users/7").getParameter("userId"));
+        Assertions.assertEquals("handlerHealth", updated.route("/api/v1/internal/health").getHandler());
+        Assertions.assertEquals("handlerHome", updated.route("/home").getHandler());
+
+        Assertions.assertNull(httpRouter.route("/api/v1/users/7").getHandler());
+    }
+
+    @Test
+    @Order(2)
+    public void test_with_route_splits_compressed_edge()
+    {
+        HttpRouter<String> updated = httpRouter
+                .withRoute("/api/v1", "handlerApi")
+                .withRoute("/api/v2/internal/health", "handlerHealthV2");
+
+        Assertions.assertEquals("handlerApi", updated.route("/api/v1").getHandler());
+        Assertions.assertEquals("handlerHealthV2", updated.route("/api/v2/internal/health").getHandler());
+        Assertions.assertEquals("handlerStatus", updated.route("/api/v1/internal/status").getHandler());
+        Assertions.assertNull(updated.route("/api/v1/internal").getHandler());
+        Assertions.assertNull(updated.route("/api").getHandler());
+    }
+
+    @Test
+    @Order(3)
+    public void test_without_route()
+    {
+        HttpRouter<String> updated = httpRouter
+                .withoutRoute("/api/v1/internal/health")
+                .withoutRoute("/user/:id/profile");
+
+        Assertions.assertNull(updated.route("/api/v1/internal/health").getHandler());
+        Assertions.assertNull(updated.route("/user/1/profile").getHandler());
+        Assertions.assertEquals("handlerStatus", updated.route("/api/v1/internal/status").getHandler());
+        Assertions.assertEquals("handlerProfile", httpRouter.route("/user/1/profile").getHandler());
+
+        Assertions.assertSame(httpRouter, httpRouter.withoutRoute("/api/v1/internal"));
+        Assertions.assertSame(httpRouter, httpRouter.withoutRoute("/unknown"));
+        Assertions.assertSame(httpRouter, httpRouter.withRoute("/home", "handlerHomeDuplicate"));
+    }
+
+    @Test
+    @Order(4)
+    public void test_updates_same_as_rebuild()
+    {
+        HttpRouter<String> updated = httpRouter;
+        HttpRouterConfiguration<String> configuration = new HttpRouterConfiguration<>();
+        configuration.add("/home", "handlerHome");
+        configuration.add("/user/:userId/profile", "handlerProfile");
+
+        for (int index = 0; index < 50; index++)
+        {
+            updated = updated.withRoute("/tenant/" + index + "/:resource/:id", "handlerTenant" + index);
+            configuration.add("/tenant/" + index + "/:resource/:id", "handlerTenant" + index);
+        }
+
+        updated = updated.withoutRoute("/api/v1/internal/health").withoutRoute("/api/v1/internal/status");
+        HttpRouter<String> rebuilt = HttpRouterFactory.create(configuration);
+
+        for (String path : new String[]{"/home", "/tenant/7/orders/1", "/tenant/49/users/2", "/tenant/50/users/2",
+                "/api/v1/internal/health", "/user/1/profile", "/tenant/7/orders"})
+        {
+            Assertions.assertEquals(rebuilt.route(path).getHandler(), updated.route(path).getHandler(), path);
+            Assertions.assertEquals(rebuilt.route(path).getParameters(), updated.route(path).getParameters(), path);
+        }
+    }
+
+    @Test
+    @Order(5)
+    public void test_updates_keep_static_routes()
+    {
+        HttpRouter<String> updated = httpRouter;
+
+        for (int index = 0; index < 20; index++)
+        {
+            updated = updated.withRoute("/static/" + index, "handlerStatic" + index);
+        }
+
+        updated = updated
+                .withRoute("/", "handlerRoot")
+                .withRoute("/api/v1", "handlerApi")
+                .withRoute(HttpMethod.GET, "/api/v1/internal", "handlerGetInternal")
+                .withoutRoute("/api/v1/internal/health")
+                .withoutRoute("/static/3");
+
+        HttpRouterConfiguration<String> configuration = new HttpRouterConfiguration<>();
+        configuration.add("/", "handlerRoot");
+        configuration.add("/home", "handlerHome");
+        configuration.add("/api/v1", "handlerApi");
+        configuration.add(HttpMethod.GET, "/api/v1/internal", "handlerGetInternal");
+        configuration.add("/api/v1/internal/status", "handlerStatus");
+        configuration.add("/user/:userId/profile", "handlerProfile");
+
+        for (int index = 0; index < 20; index++)
+        {
+            if (index != 3)
+            {
+                configuration.add("/static/" + index, "handlerStatic" + index);
+            }
+        }
+
+        HttpRouter<String> rebuilt = HttpRouterFactory.create(configuration);
+
+        // The snapshot keeps a static route table that resolves the same routes as the one of a rebuilt router.
+        Assertions.assertTrue(updated.stats().getStaticTableBytes() > httpRouter.stats().getStaticTableBytes());
+
+        for (String path : new String[]{"/", "/home", "/api/v1", "/api/v1/internal", "/api/v1/internal/health",
+                "/api/v1/internal/status", "/static/0", "/static/3", "/static/19", "/static/20"})
+        {
+            Assertions.assertEquals(rebuilt.route(path).getHandler(), updated.route(path).getHandler(), path);
+            Assertions.assertEquals(rebuilt.route(HttpMethod.GET, path).getHandler(),
+                    updated.route(HttpMethod.GET, path).getHandler(), path);
+            Assertions.assertEquals(rebuilt.route(path.getBytes(), 0, path.length(), new RouteMatch<>()),
+                    updated.route(path.getBytes(), 0, path.length(), new RouteMatch<>()), path);
+        }
+    }
+}
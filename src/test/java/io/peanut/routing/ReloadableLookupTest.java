@@ -0,0 +1,103 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class ReloadableLookupTest
+{
+    @Test
+    @Order(1)
+    public void test_reload_replaces_routes()
+    {
+        ReloadableHttpRouter<String> router = HttpRouterFactory.createReloadable(config -> {
+            config.add("/home", "handlerHome");
+            config.add("/user/:id", "handlerUser");
+        });
+
+        HttpRouter<String> previous = router.reload(config -> {
+            config.add("/home", "handlerHomeV2");
+            config.add("/tenant/:tenant_id", "handlerTenant");
+        });
+
+        Assertions.assertEquals("handlerHomeV2", router.route("/home").getHandler());
+        Assertions.assertEquals("42", router.route("/tenant/42").getParameter("tenant_id"));
+        Assertions.assertNull(router.route("/user/1").getHandler());
+
+        // Lookups holding the previous snapshot keep routing by the old routes.
+        Assertions.assertEquals("handlerUser", previous.route("/user/1").getHandler());
+        Assertions.assertNotSame(previous, router.getSnapshot());
+    }
+
+    @Test
+    @Order(2)
+    public void test_compare_and_set_rejects_stale_snapshot()
+    {
+        ReloadableHttpRouter<String> router = HttpRouterFactory.createReloadable(config -> config.add("/home", "handlerHome"));
+
+        HttpRouter<String> expected = router.getSnapshot();
+        HttpRouter<String> first = HttpRouterFactory.create(config -> config.add("/first", "handlerFirst"));
+        HttpRouter<String> second = HttpRouterFactory.create(config -> config.add("/second", "handlerSecond"));
+
+        Assertions.assertTrue(router.compareAndSet(expected, first));
+        Assertions.assertFalse(router.compareAndSet(expected, second));
+        Assertions.assertEquals("handlerFirst", router.route("/first").getHandler());
+        Assertions.assertThrows(NullPointerException.class, () -> router.publish(null));
+    }
+
+    @Test
+    @Order(3)
+    public void test_route_method()
+    {
+        ReloadableHttpRouter<String> router = HttpRouterFactory.createReloadable(config -> {
+            config.add(HttpMethod.GET, "/user/:id", "handlerGetUser");
+            config.add(HttpMethod.DELETE, "/user/:id", "handlerDeleteUser");
+        });
+
+        Assertions.assertEquals("handlerGetUser", router.route(HttpMethod.GET, "/user/1").getHandler());
+        Assertions.assertEquals("1", router.route(HttpMethod.DELETE, "/user/1").getParameter("id"));
+        Assertions.assertEquals(EnumSet.of(HttpMethod.GET, HttpMethod.DELETE), router.route(HttpMethod.PUT, "/user/1").getAllowedMethods());
+
+        HttpRouter<String> snapshot = router.getSnapshot();
+        Assertions.assertTrue(router.compareAndSet(snapshot, snapshot.withRoute(HttpMethod.PUT, "/user/:id", "handlerPutUser")));
+        Assertions.assertEquals("handlerPutUser", router.route(HttpMethod.PUT, "/user/1").getHandler());
+    }
+
+    @Test
+    @Order(4)
+    public void test_concurrent_lookups_during_reload() throws InterruptedException
+    {
+        ReloadableHttpRouter<String> router = HttpRouterFactory.createReloadable(config -> config.add("/version/:id", "v0"));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            RouteMatch<String> match = new RouteMatch<>();
+            while (running.get())
+            {
+                if (!router.route("/version/7", match) || !"7".equals(match.getParameter("id")))
+                {
+                    failure.set(String.valueOf(match));
+                }
+            }
+        });
+        reader.start();
+
+        for (int version = 1; version <= 1000; version++)
+        {
+            String handler = "v" + version;
+            router.reload(config -> config.add("/version/:id", handler));
+        }
+
+        running.set(false);
+        reader.join();
+
+        Assertions.assertNull(failure.get());
+        Assertions.assertEquals("v1000", router.route("/version/7").getHandler());
+    }
+}
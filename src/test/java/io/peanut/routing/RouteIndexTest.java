@@ -0,0 +1,150 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class RouteIndexTest
+{
+    private static final String[] PATHS = {
+            "/home", "home/", "/about", "/contact", "/api/v1/users", "/api/v1/users/list", "/api/v1/users/profile/",
+            "/api/v1/orders", "/api/v1/orders/new", "/api/v1/orders/history", "/admin", "/admin/dashboard",
+            "/admin/users", "/admin/settings", "/products/reviews/latest", "/blog/posts/2024/july/updates",
+            "/shop/cart/checkout", "/shop/orders/track", "/user/settings/notifications", "/support/tickets/open",
+            "/news/technology", "/events/workshops/online", "/api", "/api/v1", "/api/v2/users", "/blog/posts/2025",
+            "/unknown", "/", "//",
+    };
+
+    @TempDir
+    static Path directory;
+
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(StaticLookupTest.ROUTES);
+    }
+
+    @Test
+    @Order(1)
+    public void test_round_trip_static_routes() throws IOException
+    {
+        HttpRouterConfiguration<String> configuration = new HttpRouterConfiguration<>();
+        StaticLookupTest.ROUTES.accept(configuration);
+
+        Path file = directory.resolve("static.idx");
+        RouteIndex.write(configuration, file);
+
+        // Static route patterns are request paths as well, so the tree router resolves their handlers.
+        OffHeapHttpRouter<String> indexRouter = RouteIndex.open(file, route -> httpRouter.route(route).getHandler());
+
+        for (String path : PATHS)
+        {
+            Assertions.assertEquals(httpRouter.route(path).getHandler(), indexRouter.route(path).getHandler(), path);
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void test_round_trip_parameterized_routes() throws IOException
+    {
+        HttpRouterConfiguration<String> configuration = new HttpRouterConfiguration<>();
+        configuration.add("/api/v1/users/:user_id/posts/:post_id", "handlerPost");
+        configuration.add("/api/v1/users/:user_id", "handlerUser");
+        configuration.add("/files/:file_id/download", "handlerDownload");
+
+        Path file = directory.resolve("parameterized.idx");
+        RouteIndex.write(configuration, file);
+
+        OffHeapHttpRouter<String> indexRouter = RouteIndex.open(file, route -> "bound:" + route);
+
+        RouteResult<String> result = indexRouter.route("/api/v1/users/7/posts/42");
+        Assertions.assertEquals("bound:/api/v1/users/:user_id/posts/:post_id", result.getHandler());
+        Assertions.assertEquals("7", result.getParameter("user_id"));
+        Assertions.assertEquals("42", result.getParameter("post_id"));
+
+        Assertions.assertEquals("bound:/files/:file_id/download", indexRouter.route("/files/a.txt/download").getHandler());
+        Assertions.assertNull(indexRouter.route("/files/a.txt").getHandler());
+    }
+
+    @Test
+    @Order(3)
+    public void test_reject_invalid_index() throws IOException
+    {
+        Path file = directory.resolve("invalid.idx");
+        Files.write(file, new byte[64]);
+
+        Assertions.assertThrows(IOException.class, () -> RouteIndex.open(file, route -> route));
+    }
+
+    @Test
+    @Order(4)
+    public void test_reject_unbound_route() throws IOException
+    {
+        HttpRouterConfiguration<String> configuration = new HttpRouterConfiguration<>();
+        configuration.add("/home", "handlerHome");
+
+        Path file = directory.resolve("unbound.idx");
+        RouteIndex.write(configuration, file);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RouteIndex.open(file, route -> null));
+    }
+
+    @Test
+    @Order(5)
+    public void test_reject_corrupted_strings() throws IOException
+    {
+        HttpRouterConfiguration<String> configuration = new HttpRouterConfiguration<>();
+        configuration.add("/home", "handlerHome");
+        configuration.add("/user/:id", "handlerUser");
+
+        Path file = directory.resolve("corrupted.idx");
+        RouteIndex.write(configuration, file);
+        byte[] index = Files.readAllBytes(file);
+        ByteBuffer buffer = ByteBuffer.wrap(index).order(ByteOrder.LITTLE_ENDIAN);
+        int parameterNamesCount = buffer.getInt(24);
+        // The strings section ends the file and starts with the length prefixed route patterns.
+        int namesOffset = index.length - buffer.getInt(28) + (4 + "/home".length()) + (4 + "/user/:id".length());
+
+        // A parameter names count exceeding the strings section.
+        Files.write(file, RouteIndexTest.withInt(index, namesOffset, Integer.MAX_VALUE));
+        Assertions.assertThrows(IOException.class, () -> RouteIndex.open(file, route -> route));
+
+        // More parameter names tables than encoded.
+        Files.write(file, RouteIndexTest.withInt(index, 24, parameterNamesCount + 1));
+        Assertions.assertThrows(IOException.class, () -> RouteIndex.open(file, route -> route));
+
+        // Fewer parameter names tables than encoded, leaving trailing bytes.
+        Files.write(file, RouteIndexTest.withInt(index, 24, parameterNamesCount - 1));
+        Assertions.assertThrows(IOException.class, () -> RouteIndex.open(file, route -> route));
+    }
+
+    @Test
+    @Order(6)
+    public void test_reject_parameter_declared_under_several_names()
+    {
+        HttpRouterConfiguration<String> configuration = new HttpRouterConfiguration<>();
+        configuration.add("/user/:id", "handlerUser");
+        configuration.add("/user/:name/posts", "handlerPosts");
+
+        Path file = directory.resolve("aliased.idx");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RouteIndex.write(configuration, file));
+        Assertions.assertFalse(Files.exists(file));
+    }
+
+    private static byte[] withInt(byte[] index, int offset, int value)
+    {
+        byte[] corrupted = index.clone();
+        ByteBuffer.wrap(corrupted).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        return corrupted;
+    }
+}
@@ -0,0 +1,90 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class RouteMatchLookupTest
+{
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(config -> {
+            config.add("/home", "handlerHome");
+            config.add("/admin/settings", "handlerSettings");
+            config.add("/api/v1/user/:userId/profile", "handlerUserProfile");
+            config.add("/api/v1/order/:orderId", "handlerOrder");
+            config.add("/shop/:category/:itemId", "handlerShopItem");
+            config.add("/a/:p1/:p2/:p3/:p4/:p5", "handlerFiveParameters");
+        });
+    }
+
+    @Test
+    @Order(1)
+    public void test_hit_static()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+
+        Assertions.assertTrue(httpRouter.route("/admin/settings/", match));
+        Assertions.assertTrue(match.isMatched());
+        Assertions.assertEquals("handlerSettings", match.getHandler());
+        Assertions.assertEquals(0, match.getParameterCount());
+    }
+
+    @Test
+    @Order(2)
+    public void test_hit_parameterized_offsets()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+        String path = "/shop/electronics/789";
+
+        Assertions.assertTrue(httpRouter.route(path, match));
+        Assertions.assertEquals("handlerShopItem", match.getHandler());
+        Assertions.assertEquals(2, match.getParameterCount());
+
+        Assertions.assertEquals("category", match.getParameterName(0));
+        Assertions.assertEquals(path.indexOf("electronics"), match.getParameterStart(0));
+        Assertions.assertEquals(path.indexOf("electronics") + "electronics".length(), match.getParameterEnd(0));
+
+        Assertions.assertEquals("itemId", match.getParameterName(1));
+        Assertions.assertEquals(1, match.indexOf("itemId"));
+        Assertions.assertEquals(-1, match.indexOf("unknown"));
+        Assertions.assertEquals("789", match.getParameter(1));
+        Assertions.assertEquals("electronics", match.getParameter("category"));
+        Assertions.assertNull(match.getParameter("unknown"));
+    }
+
+    @Test
+    @Order(3)
+    public void test_miss_clears_previous_match()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+
+        Assertions.assertTrue(httpRouter.route("/api/v1/order/abc-456", match));
+        Assertions.assertEquals("abc-456", match.getParameter("orderId"));
+
+        Assertions.assertFalse(httpRouter.route("/api/v1/user/123/any", match));
+        Assertions.assertFalse(match.isMatched());
+        Assertions.assertNull(match.getHandler());
+        Assertions.assertEquals(0, match.getParameterCount());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> match.getParameterStart(0));
+    }
+
+    @Test
+    @Order(4)
+    public void test_reuse_grows_parameter_storage()
+    {
+        RouteMatch<String> match = new RouteMatch<>(1);
+
+        Assertions.assertTrue(httpRouter.route("/a/1/2/3/4/5", match));
+        Assertions.assertEquals("handlerFiveParameters", match.getHandler());
+        Assertions.assertEquals(5, match.getParameterCount());
+        Assertions.assertEquals("5", match.getParameter("p5"));
+
+        Assertions.assertTrue(httpRouter.route("/home", match));
+        Assertions.assertEquals("handlerHome", match.getHandler());
+        Assertions.assertEquals(0, match.getParameterCount());
+    }
+}
@@ -0,0 +1,148 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class RouteMetricsTest
+{
+    private static final Consumer<HttpRouterConfiguration<String>> ROUTES = config -> {
+        config.add("/health", "handlerHealth");
+        config.add("/users/me", "handlerMe");
+        config.add("/users/:id", "handlerUser");
+        config.add("/users/:id/posts/:post_id", "handlerUserPost");
+        config.add("/files/*path", "handlerFiles");
+        config.add(HttpMethod.POST, "/orders", "handlerCreateOrder");
+    };
+
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(ROUTES);
+    }
+
+    @Test
+    @Order(1)
+    public void test_disabled_by_default()
+    {
+        Assumptions.assumeFalse(RouteMetrics.IS_ENABLED);
+
+        httpRouter.route("/health");
+
+        Assertions.assertTrue(httpRouter.metrics().isEmpty());
+    }
+
+    @Test
+    @Order(2)
+    public void test_hits_and_captures()
+    {
+        Assumptions.assumeTrue(RouteMetrics.IS_ENABLED);
+
+        HttpRouter<String> router = HttpRouterFactory.create(ROUTES);
+        RouteMatch<String> match = new RouteMatch<>();
+        byte[] request = "GET /users/42/posts/7 HTTP/1.1".getBytes(StandardCharsets.ISO_8859_1);
+
+        router.route("/health");
+        router.route("/health/", match);
+        router.route("/users/me");
+        router.route("/users/42");
+        router.route("/users/42/posts/7", match);
+        router.route(request, 4, 17, match);
+        router.route("/files/css/site.css");
+        router.route(HttpMethod.POST, "/orders");
+
+        Map<String, RouteMetrics> metrics = RouteMetricsTest.byRoute(router.metrics());
+
+        Assertions.assertEquals(2, metrics.get("/health").getHitCount());
+        Assertions.assertEquals(1, metrics.get("/users/me").getHitCount());
+        Assertions.assertEquals(1, metrics.get("/users/:id").getHitCount());
+        Assertions.assertEquals(1, metrics.get("/users/:id").getCaptureCount());
+        Assertions.assertEquals(2, metrics.get("/users/:id/posts/:post_id").getHitCount());
+        Assertions.assertEquals(4, metrics.get("/users/:id/posts/:post_id").getCaptureCount());
+        Assertions.assertEquals(1, metrics.get("/files/*path").getHitCount());
+        Assertions.assertEquals(1, metrics.get("/orders").getHitCount());
+        Assertions.assertEquals(0, metrics.get("/orders").getMissCount());
+    }
+
+    @Test
+    @Order(3)
+    public void test_misses_at_deepest_node()
+    {
+        Assumptions.assumeTrue(RouteMetrics.IS_ENABLED);
+
+        HttpRouter<String> router = HttpRouterFactory.create(ROUTES);
+        RouteMatch<String> match = new RouteMatch<>();
+
+        router.route("/missing");
+        router.route("/users/42/comments");
+        router.route("/users/42/posts");
+        router.route("/users/42/comments", match);
+        router.route(HttpMethod.GET, "/orders");
+
+        Map<String, RouteMetrics> metrics = RouteMetricsTest.byRoute(router.metrics());
+
+        Assertions.assertEquals(1, metrics.get("/").getMissCount());
+        Assertions.assertEquals(2, metrics.get("/users/:id").getMissCount());
+        Assertions.assertEquals(1, metrics.get("/users/:id/posts").getMissCount());
+        Assertions.assertEquals(0, metrics.get("/users/:id/posts").getHitCount());
+        Assertions.assertEquals(1, metrics.get("/orders").getMissCount());
+        Assertions.assertEquals(0, metrics.get("/health").getMissCount());
+    }
+
+    @Test
+    @Order(4)
+    public void test_persistent_update()
+    {
+        Assumptions.assumeTrue(RouteMetrics.IS_ENABLED);
+
+        HttpRouter<String> router = HttpRouterFactory.create(ROUTES);
+        router.route("/files/a");
+        router.route("/users/42");
+
+        // Nodes on the path of the new route are copied with their counters, the others are shared.
+        HttpRouter<String> updated = router.withRoute("/users/:id/avatar", "handlerAvatar");
+        updated.route("/files/b");
+        updated.route("/users/42");
+        updated.route("/users/42/avatar");
+
+        Map<String, RouteMetrics> metrics = RouteMetricsTest.byRoute(updated.metrics());
+
+        Assertions.assertEquals(2, metrics.get("/files/*path").getHitCount());
+        Assertions.assertEquals(2, metrics.get("/users/:id").getHitCount());
+        Assertions.assertEquals(1, metrics.get("/users/:id/avatar").getHitCount());
+        Assertions.assertEquals(2, RouteMetricsTest.byRoute(router.metrics()).get("/files/*path").getHitCount());
+        Assertions.assertFalse(RouteMetricsTest.byRoute(router.metrics()).containsKey("/users/:id/avatar"));
+    }
+
+    @Test
+    @Order(5)
+    public void test_shared_subtree_reported_per_prefix()
+    {
+        Assumptions.assumeTrue(RouteMetrics.IS_ENABLED);
+
+        HttpRouter<String> router = HttpRouterFactory.create(config -> config.shareSubtrees(true)
+                .add("/a/items/:id", "handlerItem")
+                .add("/b/items/:id", "handlerItem"));
+        router.route("/a/items/1");
+        router.route("/b/items/2");
+
+        // The :id leaf is shared by both prefixes, so both report the lookups of either.
+        Map<String, RouteMetrics> metrics = RouteMetricsTest.byRoute(router.metrics());
+
+        Assertions.assertEquals(2, metrics.get("/a/items/:id").getHitCount());
+        Assertions.assertEquals(2, metrics.get("/b/items/:id").getHitCount());
+    }
+
+    private static Map<String, RouteMetrics> byRoute(List<RouteMetrics> metrics)
+    {
+        return metrics.stream().collect(Collectors.toMap(RouteMetrics::getRoute, metric -> metric));
+    }
+}
@@ -0,0 +1,107 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.util.function.Consumer;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class RouterStatsTest
+{
+    private static final Consumer<HttpRouterConfiguration<String>> ROUTES = config -> {
+        config.add("/health", "handlerHealth");
+        config.add("/health/ready", "handlerReady");
+        config.add("/users/:id", "handlerUser");
+        config.add("/users/:id/posts", "handlerUserPosts");
+        config.add("/files/*rest", "handlerFiles");
+    };
+
+    // Budgets of the estimated bytes per route of the tenant table, failing if the layout regresses by more than ~20%.
+    private static final long TREE_BYTES_PER_ROUTE = 112;
+    private static final long TOTAL_BYTES_PER_ROUTE = 216;
+
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(ROUTES);
+    }
+
+    @Test
+    @Order(1)
+    public void test_shape()
+    {
+        RouterStats stats = httpRouter.stats();
+
+        // <root>, health, ready, users, :id, posts, files and the wildcard leaf.
+        Assertions.assertEquals(8, stats.getNodeCount());
+        Assertions.assertEquals(5, stats.getRouteCount());
+        Assertions.assertEquals(3, stats.getMaxDepth());
+        Assertions.assertArrayEquals(new int[]{1, 3, 3, 1}, stats.getDepthHistogram());
+        Assertions.assertArrayEquals(new int[]{3, 4, 0, 1}, stats.getFanOutHistogram());
+    }
+
+    @Test
+    @Order(2)
+    public void test_footprint()
+    {
+        RouterStats stats = httpRouter.stats();
+
+        Assertions.assertTrue(stats.getTreeBytes() > 0);
+        Assertions.assertTrue(stats.getStaticTableBytes() > 0);
+        Assertions.assertEquals(stats.getTreeBytes() + stats.getStaticTableBytes(), stats.getTotalBytes());
+        Assertions.assertEquals(stats.getTreeBytes(), httpRouter.stats().getTreeBytes());
+
+        // Derived snapshots keep the static route table with the new route added.
+        RouterStats updated = httpRouter.withRoute("/metrics", "handlerMetrics").stats();
+
+        Assertions.assertTrue(updated.getStaticTableBytes() > stats.getStaticTableBytes());
+        Assertions.assertEquals(9, updated.getNodeCount());
+        Assertions.assertTrue(updated.getTreeBytes() > stats.getTreeBytes());
+    }
+
+    @Test
+    @Order(3)
+    public void test_duplicated_segment_strings()
+    {
+        HttpRouter<String> router = HttpRouterFactory.create(config -> {
+            for (int index = 0; index < 10; index++)
+            {
+                config.add("/tenant_" + index + "/users/:id", "handler");
+            }
+        });
+
+        RouterStats stats = router.stats();
+
+        // The compressed edges tenant_0/users ... tenant_9/users and a single id shared by every segment and parameter name.
+        Assertions.assertEquals(11, stats.getSegmentStringCount());
+        Assertions.assertEquals(0, stats.getDuplicatedSegmentStringCount());
+        Assertions.assertEquals(0, stats.getDuplicatedSegmentStringBytes());
+
+        // Segments added to a derived snapshot are not looked up in the symbol table of the original tree.
+        RouterStats updated = router.withRoute("/tenant_10/users/:id", "handler").stats();
+
+        Assertions.assertEquals(12, updated.getSegmentStringCount());
+        Assertions.assertEquals(1, updated.getDuplicatedSegmentStringCount());
+    }
+
+    @Test
+    @Order(4)
+    public void test_footprint_budget()
+    {
+        HttpRouter<String> router = HttpRouterFactory.create(config -> {
+            for (int index = 0; index < 10_000; index++)
+            {
+                String resource = "/tenant_" + (index / 200) + "/api/v1/resource_" + (index % 200 >> 1);
+                config.add((index & 1) == 0 ? resource : resource + "/:id", "handler");
+            }
+        });
+
+        RouterStats stats = router.stats();
+
+        Assertions.assertEquals(10_000, stats.getRouteCount());
+        Assertions.assertTrue(stats.getTreeBytes() / stats.getRouteCount() <= TREE_BYTES_PER_ROUTE, stats.toString());
+        Assertions.assertTrue(stats.getTotalBytes() / stats.getRouteCount() <= TOTAL_BYTES_PER_ROUTE, stats.toString());
+    }
+}
@@ -0,0 +1,110 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.util.function.Consumer;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class SharedSubtreeTest
+{
+    private static final int TENANT_COUNT = 100;
+
+    private static final Consumer<HttpRouterConfiguration<String>> ROUTES = config -> {
+        for (int index = 0; index < TENANT_COUNT; index++)
+        {
+            String tenant = "/tenant_" + index;
+
+            config.add(tenant + "/items", "handlerItems");
+            config.add(tenant + "/items/:id", "handlerItem");
+            config.add(tenant + "/items/:id/state", "handlerItemState");
+            config.add(tenant + "/items/:id/events", "handlerItemEvents");
+            config.add(tenant + "/files/*path", "handlerFiles");
+        }
+
+        config.add("/tenant_0/items/:id/audit", "handlerItemAudit");
+    };
+
+    private static final String[] PATHS = {
+            "/tenant_0/items", "/tenant_1/items/", "/tenant_0/items/42", "/tenant_7/items/42/state", "/tenant_99/items/x/events",
+            "/tenant_0/items/42/audit", "/tenant_1/items/42/audit", "/tenant_5/files/a/b.css", "/tenant_100/items", "/tenant_5/items/1/2",
+    };
+
+    private static HttpRouter<String> httpRouter;
+    private static HttpRouter<String> sharedRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(ROUTES);
+        sharedRouter = HttpRouterFactory.create(ROUTES.andThen(config -> config.shareSubtrees(true)));
+    }
+
+    @Test
+    @Order(1)
+    public void test_same_as_tree()
+    {
+        RouteMatch<String> expected = new RouteMatch<>();
+        RouteMatch<String> actual = new RouteMatch<>();
+
+        for (String path : PATHS)
+        {
+            Assertions.assertEquals(httpRouter.route(path).getHandler(), sharedRouter.route(path).getHandler(), path);
+            Assertions.assertEquals(httpRouter.route(path).getParameters(), sharedRouter.route(path).getParameters(), path);
+
+            Assertions.assertEquals(httpRouter.route(path, expected), sharedRouter.route(path, actual), path);
+            Assertions.assertEquals(expected.getHandler(), actual.getHandler(), path);
+            Assertions.assertEquals(expected.getParameterCount(), actual.getParameterCount(), path);
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void test_shared_subtrees()
+    {
+        RouterStats stats = httpRouter.stats();
+        RouterStats sharedStats = sharedRouter.stats();
+
+        // Every tenant has two nodes without handler, tenant_N and files.
+        Assertions.assertEquals(stats.getNodeCount() - 1, stats.getRouteCount() + 2 * TENANT_COUNT);
+        Assertions.assertTrue(sharedStats.getNodeCount() < stats.getNodeCount() / 5, sharedStats.toString());
+        Assertions.assertTrue(sharedStats.getTreeBytes() < stats.getTreeBytes() / 2, sharedStats.toString());
+
+        // <root> and the tenant_N nodes, then the items, :id, state and events nodes shared by every tenant but tenant_0,
+        // the items, :id and audit nodes of tenant_0 sharing the state and events leaves, and the files and wildcard nodes.
+        Assertions.assertEquals(1 + TENANT_COUNT + 4 + 3 + 2, sharedStats.getNodeCount());
+    }
+
+    @Test
+    @Order(3)
+    public void test_persistent_update_shared_subtree()
+    {
+        HttpRouter<String> updated = sharedRouter.withRoute("/tenant_1/items/:id/audit", "handlerItemAudit")
+                .withoutRoute("/tenant_2/items/:id/state");
+
+        Assertions.assertEquals("handlerItemAudit", updated.route("/tenant_1/items/42/audit").getHandler());
+        Assertions.assertNull(updated.route("/tenant_2/items/42/state").getHandler());
+        Assertions.assertEquals("handlerItemState", updated.route("/tenant_3/items/42/state").getHandler());
+        Assertions.assertNull(updated.route("/tenant_3/items/42/audit").getHandler());
+
+        Assertions.assertNull(sharedRouter.route("/tenant_1/items/42/audit").getHandler());
+        Assertions.assertEquals("handlerItemState", sharedRouter.route("/tenant_2/items/42/state").getHandler());
+    }
+
+    @Test
+    @Order(4)
+    public void test_distinct_handlers_not_shared()
+    {
+        HttpRouter<String> router = HttpRouterFactory.create(config -> config.shareSubtrees(true)
+                .add("/a/items/:id", "handlerA")
+                .add("/b/items/:id", "handlerB")
+                .add("/c/items/:id", "handlerA"));
+
+        Assertions.assertEquals("handlerA", router.route("/a/items/1").getHandler());
+        Assertions.assertEquals("handlerB", router.route("/b/items/1").getHandler());
+        Assertions.assertEquals("handlerA", router.route("/c/items/1").getHandler());
+
+        // <root>, the a/items, b/items and c/items edges, and two :id leaves.
+        Assertions.assertEquals(6, router.stats().getNodeCount());
+    }
+}
@@ -3,75 +3,78 @@ package io.peanut.routing;
 import org.junit.jupiter.api.*;
 
 import java.util.Collections;
+import java.util.function.Consumer;
 
 @DisplayNameGeneration(DisplayNameGenerator.Simple.class)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public final class StaticLookupTest
 {
+    static final Consumer<HttpRouterConfiguration<String>> ROUTES = config -> {
+        config.add("/home", "handlerHome");
+        config.add("/about", "handlerAbout");
+        config.add("/contact", "handlerContact");
+
+        config.add("/api/v1/users", "handlerUsers");
+        config.add("/api/v1/users/list", "handlerUsersList");
+        config.add("/api/v1/users/profile", "handlerUserProfile");
+
+        config.add("/api/v1/orders", "handlerOrders");
+        config.add("/api/v1/orders/new", "handlerNewOrder");
+        config.add("/api/v1/orders/history", "handlerOrderHistory");
+
+        config.add("/admin", "handlerAdmin");
+        config.add("/admin/dashboard", "handlerDashboard");
+        config.add("/admin/users", "handlerAdminUsers");
+        config.add("/admin/settings", "handlerSettings");
+
+        config.add("/products", "handlerProducts");
+        config.add("/products/list", "handlerProductList");
+        config.add("/products/view", "handlerProductView");
+        config.add("/products/reviews", "handlerProductReviews");
+        config.add("/products/reviews/latest", "handlerLatestReviews");
+
+        config.add("/blog", "handlerBlog");
+        config.add("/blog/posts", "handlerBlogPosts");
+        config.add("/blog/posts/2024", "handlerBlogPosts2024");
+        config.add("/blog/posts/2024/july", "handlerBlogJuly");
+        config.add("/blog/posts/2024/july/updates", "handlerBlogUpdates");
+
+        config.add("/shop", "handlerShop");
+        config.add("/shop/cart", "handlerCart");
+        config.add("/shop/cart/checkout", "handlerCheckout");
+        config.add("/shop/orders", "handlerShopOrders");
+        config.add("/shop/orders/track", "handlerOrderTrack");
+
+        config.add("/user", "handlerUser");
+        config.add("/user/settings", "handlerUserSettings");
+        config.add("/user/settings/privacy", "handlerPrivacy");
+        config.add("/user/settings/notifications", "handlerNotifications");
+
+        config.add("/support", "handlerSupport");
+        config.add("/support/faq", "handlerFaq");
+        config.add("/support/contact", "handlerSupportContact");
+        config.add("/support/tickets", "handlerTickets");
+        config.add("/support/tickets/open", "handlerOpenTickets");
+
+        config.add("/news", "handlerNews");
+        config.add("/news/local", "handlerLocalNews");
+        config.add("/news/international", "handlerInternationalNews");
+        config.add("/news/sports", "handlerSportsNews");
+        config.add("/news/technology", "handlerTechNews");
+
+        config.add("/events", "handlerEvents");
+        config.add("/events/conferences", "handlerConferences");
+        config.add("/events/webinars", "handlerWebinars");
+        config.add("/events/workshops", "handlerWorkshops");
+        config.add("/events/workshops/online", "handlerOnlineWorkshops");
+    };
+
     private static HttpRouter<String> httpRouter;
 
     @BeforeAll
     public static void setup()
     {
-        httpRouter = HttpRouterFactory.create(config -> {
-            config.add("/home", "handlerHome");
-            config.add("/about", "handlerAbout");
-            config.add("/contact", "handlerContact");
-
-            config.add("/api/v1/users", "handlerUsers");
-            config.add("/api/v1/users/list", "handlerUsersList");
-            config.add("/api/v1/users/profile", "handlerUserProfile");
-
-            config.add("/api/v1/orders", "handlerOrders");
-            config.add("/api/v1/orders/new", "handlerNewOrder");
-            config.add("/api/v1/orders/history", "handlerOrderHistory");
-
-            config.add("/admin", "handlerAdmin");
-            config.add("/admin/dashboard", "handlerDashboard");
-            config.add("/admin/users", "handlerAdminUsers");
-            config.add("/admin/settings", "handlerSettings");
-
-            config.add("/products", "handlerProducts");
-            config.add("/products/list", "handlerProductList");
-            config.add("/products/view", "handlerProductView");
-            config.add("/products/reviews", "handlerProductReviews");
-            config.add("/products/reviews/latest", "handlerLatestReviews");
-
-            config.add("/blog", "handlerBlog");
-            config.add("/blog/posts", "handlerBlogPosts");
-            config.add("/blog/posts/2024", "handlerBlogPosts2024");
-            config.add("/blog/posts/2024/july", "handlerBlogJuly");
-            config.add("/blog/posts/2024/july/updates", "handlerBlogUpdates");
-
-            config.add("/shop", "handlerShop");
-            config.add("/shop/cart", "handlerCart");
-            config.add("/shop/cart/checkout", "handlerCheckout");
-            config.add("/shop/orders", "handlerShopOrders");
-            config.add("/shop/orders/track", "handlerOrderTrack");
-
-            config.add("/user", "handlerUser");
-            config.add("/user/settings", "handlerUserSettings");
-            config.add("/user/settings/privacy", "handlerPrivacy");
-            config.add("/user/settings/notifications", "handlerNotifications");
-
-            config.add("/support", "handlerSupport");
-            config.add("/support/faq", "handlerFaq");
-            config.add("/support/contact", "handlerSupportContact");
-            config.add("/support/tickets", "handlerTickets");
-            config.add("/support/tickets/open", "handlerOpenTickets");
-
-            config.add("/news", "handlerNews");
-            config.add("/news/local", "handlerLocalNews");
-            config.add("/news/international", "handlerInternationalNews");
-            config.add("/news/sports", "handlerSportsNews");
-            config.add("/news/technology", "handlerTechNews");
-
-            config.add("/events", "handlerEvents");
-            config.add("/events/conferences", "handlerConferences");
-            config.add("/events/webinars", "handlerWebinars");
-            config.add("/events/workshops", "handlerWorkshops");
-            config.add("/events/workshops/online", "handlerOnlineWorkshops");
-        });
+        httpRouter = HttpRouterFactory.create(ROUTES);
     }
 
     // depth = 1
@@ -306,4 +309,42 @@ public final class StaticLookupTest
         Assertions.assertEquals("handlerBlogUpdates", result.getHandler());
         Assertions.assertSame(Collections.EMPTY_MAP, result.getParameters());
     }
+
+    @Test
+    @Order(21)
+    public void test_hit_static_shared_result()
+    {
+        RouteResult<String> result = httpRouter.route("/blog/posts/2024/july");
+
+        Assertions.assertEquals("handlerBlogJuly", result.getHandler());
+        Assertions.assertSame(result, httpRouter.route("blog/posts/2024/july/"));
+        Assertions.assertSame(Collections.EMPTY_MAP, result.getParameters());
+    }
+
+    @Test
+    @Order(22)
+    public void test_hit_static_reusable_match()
+    {
+        RouteMatch<String> match = new RouteMatch<>();
+
+        Assertions.assertTrue(httpRouter.route("/support/tickets/open/", match));
+        Assertions.assertEquals("handlerOpenTickets", match.getHandler());
+        Assertions.assertEquals(0, match.getParameterCount());
+    }
+
+    @Test
+    @Order(23)
+    public void test_hit_route_registered_after_descendant()
+    {
+        HttpRouter<String> router = HttpRouterFactory.create(config -> {
+            config.add("/docs/guides/install", "handlerInstall");
+            config.add("/docs", "handlerDocs");
+            config.add("/docs/guides", "handlerGuides");
+            config.add("/docs", "handlerDocsDuplicate");
+        });
+
+        Assertions.assertEquals("handlerDocs", router.route("/docs").getHandler());
+        Assertions.assertEquals("handlerGuides", router.route("/docs/guides").getHandler());
+        Assertions.assertEquals("handlerInstall", router.route("/docs/guides/install").getHandler());
+    }
 }
@@ -0,0 +1,134 @@
+package io.peanut.routing;
+
+import org.junit.jupiter.api.*;
+
+import java.util.function.Consumer;
+
+@DisplayNameGeneration(DisplayNameGenerator.Simple.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public final class WildcardLookupTest
+{
+    private static final Consumer<HttpRouterConfiguration<String>> ROUTES = config -> {
+        config.add("/static/*filepath", "handlerStatic");
+        config.add("/static/favicon.ico", "handlerFavicon");
+        config.add("/static/:version/app.js", "handlerAppScript");
+
+        config.add("/proxy/**", "handlerProxy");
+        config.add("/proxy/:service", "handlerService");
+
+        config.add("/users/:id/*rest", "handlerUserRest");
+        config.add("/users/:id/profile", "handlerUserProfile");
+    };
+
+    private static HttpRouter<String> httpRouter;
+
+    @BeforeAll
+    public static void setup()
+    {
+        httpRouter = HttpRouterFactory.create(ROUTES);
+    }
+
+    @Test
+    @Order(1)
+    public void test_hit_wildcard_rest_of_path()
+    {
+        RouteResult<String> result = httpRouter.route("/static/css/theme/site.css/");
+
+        Assertions.assertEquals("handlerStatic", result.getHandler());
+        Assertions.assertEquals("css/theme/site.css", result.getParameter("filepath"));
+        Assertions.assertEquals(1, result.getParameterCount());
+
+        Assertions.assertEquals("handlerProxy", httpRouter.route("/proxy/billing/v1/invoices").getHandler());
+        Assertions.assertEquals("billing/v1/invoices", httpRouter.route("/proxy/billing/v1/invoices").getParameter("path"));
+    }
+
+    @Test
+    @Order(2)
+    public void test_hit_priority_static_parameterized_wildcard()
+    {
+        Assertions.assertEquals("handlerFavicon", httpRouter.route("/static/favicon.ico").getHandler());
+        Assertions.assertEquals("handlerAppScript", httpRouter.route("/static/v2/app.js").getHandler());
+        Assertions.assertEquals("handlerService", httpRouter.route("/proxy/billing").getHandler());
+        Assertions.assertEquals("handlerUserProfile", httpRouter.route("/users/42/profile").getHandler());
+
+        RouteResult<String> result = httpRouter.route("/static/v2/vendor.js");
+
+        Assertions.assertEquals("handlerStatic", result.getHandler());
+        Assertions.assertEquals("v2/vendor.js", result.getParameter("filepath"));
+    }
+
+    @Test
+    @Order(3)
+    public void test_hit_wildcard_after_parameter()
+    {
+        RouteResult<String> result = httpRouter.route("/users/42/posts/7");
+
+        Assertions.assertEquals("handlerUserRest", result.getHandler());
+        Assertions.assertEquals("42", result.getParameter("id"));
+        Assertions.assertEquals("posts/7", result.getParameter("rest"));
+
+        RouteMatch<String> match = new RouteMatch<>();
+        String path = "/users/42/profile/avatar";
+
+        Assertions.assertTrue(httpRouter.route(path, match));
+        Assertions.assertEquals("handlerUserRest", match.getHandler());
+        Assertions.assertEquals(2, match.getParameterCount());
+        Assertions.assertEquals("profile/avatar", path.substring(match.getParameterStart(1), match.getParameterEnd(1)));
+    }
+
+    @Test
+    @Order(4)
+    public void test_miss_wildcard_without_segment()
+    {
+        Assertions.assertNull(httpRouter.route("/static").getHandler());
+        Assertions.assertNull(httpRouter.route("/static/").getHandler());
+        Assertions.assertNull(httpRouter.route("/users/42").getHandler());
+        Assertions.assertFalse(httpRouter.route("/proxy", new RouteMatch<>()));
+    }
+
+    @Test
+    @Order(5)
+    public void test_persistent_update_wildcard()
+    {
+        HttpRouter<String> updated = httpRouter.withRoute("/assets/*path", "handlerAssets").withoutRoute("/static/*file");
+
+        Assertions.assertEquals("handlerAssets", updated.route("/assets/img/logo.png").getHandler());
+        Assertions.assertEquals("img/logo.png", updated.route("/assets/img/logo.png").getParameter("path"));
+        Assertions.assertNull(updated.route("/static/css/site.css").getHandler());
+        Assertions.assertEquals("handlerFavicon", updated.route("/static/favicon.ico").getHandler());
+    }
+
+    @Test
+    @Order(6)
+    public void test_reject_misplaced_wildcard()
+    {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> HttpRouterFactory.create(config -> config.add("/static/*filepath/raw", "handler")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> httpRouter.withRoute("/*all/x", "handler"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HttpRouterFactory.compile(ROUTES));
+    }
+
+    @Test
+    @Order(7)
+    public void test_reject_unnamed_wildcard()
+    {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HttpRouterFactory.create(config -> config.add("/f/*", "handler")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HttpRouterFactory.create(config -> config.add("/f/*/", "handler")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HttpRouterFactory.create(config -> config.add("/f/***", "handler")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HttpRouterFactory.create(config -> config.add("/f/*a*b", "handler")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> httpRouter.withRoute("/f/*", "handler"));
+    }
+
+    @Test
+    @Order(8)
+    public void test_catch_all_shorthand_named()
+    {
+        HttpRouter<String> updated = httpRouter.withRoute("/mirror/**", "handlerMirror");
+        RouteResult<String> result = updated.route("/mirror/a/b");
+
+        Assertions.assertEquals("handlerMirror", result.getHandler());
+        Assertions.assertEquals(1, result.getParameterCount());
+        Assertions.assertEquals("a/b", result.getParameter(HttpRouterConfiguration.CATCH_ALL_NAME));
+        Assertions.assertNull(updated.withoutRoute("/mirror/**").route("/mirror/a/b").getHandler());
+    }
+}